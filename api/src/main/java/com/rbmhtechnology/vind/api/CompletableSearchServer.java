@@ -7,29 +7,52 @@ import com.rbmhtechnology.vind.api.query.get.RealTimeGet;
 import com.rbmhtechnology.vind.api.query.suggestion.ExecutableSuggestionSearch;
 import com.rbmhtechnology.vind.api.query.update.Update;
 import com.rbmhtechnology.vind.api.result.BeanSearchResult;
+import com.rbmhtechnology.vind.api.result.FacetResults;
 import com.rbmhtechnology.vind.api.result.GetResult;
 import com.rbmhtechnology.vind.api.result.SearchResult;
 import com.rbmhtechnology.vind.api.result.SuggestionResult;
 import com.rbmhtechnology.vind.configure.SearchConfiguration;
 import com.rbmhtechnology.vind.model.DocumentFactory;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
- *
+ * {@link SearchServer} decorator offering asynchronous variants of the search server operations. The futures
+ * returned for search requests can be cancelled: a request which was not started yet is not executed at all, the
+ * thread of a running request gets interrupted. Most backends do not react to the interrupt (e.g. the HTTP call of
+ * the Solr client is not aborted), so a running request usually completes on the backend and keeps its thread busy;
+ * cancelling then only discards its result.
+ * <p>
+ * Optionally the next pages (or slices) of fulltext search results are prefetched when a result is returned, see
+ * {@link #setPrefetchDepth(int)}. Unused prefetched results can be cancelled with {@link SearchResult#cancelPrefetch()}
+ * and are cancelled when closing the server.
+ * <p>
+ * Autocomplete clients can use a {@link SuggestionSession} (see {@link #suggestionSession(DocumentFactory)}) which
+ * debounces the suggestion requests and cancels superseded ones.
  */
 public class CompletableSearchServer extends SearchServer {
 
     private final SearchServer backend;
     private final Executor executor;
     private final boolean shutdownExecutorOnClose;
+    private final Set<CompletableFuture<SearchResult>> prefetches = ConcurrentHashMap.newKeySet();
+    private int prefetchDepth = SearchConfiguration.get(SearchConfiguration.SEARCH_RESULT_PREFETCH_DEPTH, 0);
+    private ScheduledExecutorService debounceScheduler;
 
     public CompletableSearchServer(SearchServer backend, Executor executor) {
         this(backend, executor, false);
@@ -48,12 +71,31 @@ public class CompletableSearchServer extends SearchServer {
         this(backend, Executors.newFixedThreadPool(SearchConfiguration.get(SearchConfiguration.APPLICATION_EXECUTOR_THREADS,16)), true);
     }
 
+    /**
+     * Sets the number of pages (or slices) to be requested ahead when returning fulltext search results based on a
+     * {@link DocumentFactory}. The prefetched results are handed out by {@link com.rbmhtechnology.vind.api.result.PageResult#nextPage()}
+     * and {@link com.rbmhtechnology.vind.api.result.SliceResult#nextSlice()}.
+     * @param prefetchDepth the number of results to prefetch, 0 disables prefetching.
+     * @return This {@link CompletableSearchServer} instance.
+     */
+    public CompletableSearchServer setPrefetchDepth(int prefetchDepth) {
+        if (prefetchDepth < 0) {
+            throw new IllegalArgumentException("Prefetch depth must not be negative, actually got: " + prefetchDepth);
+        }
+        this.prefetchDepth = prefetchDepth;
+        return this;
+    }
+
+    public int getPrefetchDepth() {
+        return prefetchDepth;
+    }
+
     public <T> CompletableFuture<BeanSearchResult<T>> executeAsync(FulltextSearch search, Class<T> c) {
         return executeAsync(search, c, executor);
     }
 
     public <T> CompletableFuture<BeanSearchResult<T>> executeAsync(FulltextSearch search, Class<T> c, Executor executor) {
-        return CompletableFuture.supplyAsync(() -> this.execute(search, c), executor);
+        return supplyCancellableAsync(() -> this.execute(search, c), executor);
     }
 
     @Deprecated
@@ -181,7 +223,23 @@ public class CompletableSearchServer extends SearchServer {
     }
 
     public CompletableFuture<SearchResult> executeAsync(FulltextSearch search, DocumentFactory factory, Executor executor) {
-        return CompletableFuture.supplyAsync(() -> this.execute(search, factory), executor);
+        return supplyCancellableAsync(() -> this.execute(search, factory), executor);
+    }
+
+    public CompletableFuture<Long> countAsync(FulltextSearch search, DocumentFactory factory) {
+        return countAsync(search, factory, executor);
+    }
+
+    public CompletableFuture<Long> countAsync(FulltextSearch search, DocumentFactory factory, Executor executor) {
+        return supplyCancellableAsync(() -> this.count(search, factory), executor);
+    }
+
+    public CompletableFuture<FacetResults> facetsAsync(FulltextSearch search, DocumentFactory factory) {
+        return facetsAsync(search, factory, executor);
+    }
+
+    public CompletableFuture<FacetResults> facetsAsync(FulltextSearch search, DocumentFactory factory, Executor executor) {
+        return supplyCancellableAsync(() -> this.facets(search, factory), executor);
     }
 
     public <T> CompletableFuture<SuggestionResult> executeAsync(ExecutableSuggestionSearch search, Class<T> c) {
@@ -189,7 +247,7 @@ public class CompletableSearchServer extends SearchServer {
     }
 
     public <T> CompletableFuture<SuggestionResult> executeAsync(ExecutableSuggestionSearch search, Class<T> c, Executor executor) {
-        return CompletableFuture.supplyAsync(() -> this.execute(search, c), executor);
+        return supplyCancellableAsync(() -> this.execute(search, c), executor);
     }
 
     public CompletableFuture<SuggestionResult> executeAsync(ExecutableSuggestionSearch search, DocumentFactory assets) {
@@ -197,7 +255,78 @@ public class CompletableSearchServer extends SearchServer {
     }
 
     public CompletableFuture<SuggestionResult> executeAsync(ExecutableSuggestionSearch search, DocumentFactory assets, Executor executor) {
-        return CompletableFuture.supplyAsync(() -> this.execute(search, assets), executor);
+        return supplyCancellableAsync(() -> this.execute(search, assets), executor);
+    }
+
+    /**
+     * Creates a suggestion session debouncing requests by the configured {@link SearchConfiguration#SEARCH_SUGGESTION_DEBOUNCE}
+     * milliseconds.
+     * @param assets the document factory of the suggestions
+     * @return a new {@link SuggestionSession}
+     */
+    public SuggestionSession suggestionSession(DocumentFactory assets) {
+        return suggestionSession(assets, Duration.ofMillis(SearchConfiguration.get(SearchConfiguration.SEARCH_SUGGESTION_DEBOUNCE, 0)));
+    }
+
+    /**
+     * Creates a suggestion session: newer suggestion requests cancel older ones and requests are only executed if
+     * no newer one arrives within the debounce window.
+     * @param assets the document factory of the suggestions
+     * @param debounce the debounce window, {@link Duration#ZERO} executes every request immediately
+     * @return a new {@link SuggestionSession}
+     */
+    public SuggestionSession suggestionSession(DocumentFactory assets, Duration debounce) {
+        return new SuggestionSession(this, assets, debounce);
+    }
+
+    synchronized ScheduledFuture<?> schedule(Runnable runnable, Duration delay) {
+        if (debounceScheduler == null) {
+            debounceScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                final Thread thread = new Thread(r, "vind-suggestion-debounce");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return debounceScheduler.schedule(runnable, delay.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    protected <R> CompletableFuture<R> supplyCancellableAsync(Supplier<R> supplier, Executor executor) {
+        final CompletableFuture<R> future = new CompletableFuture<>();
+        final FutureTask<Void> task = new FutureTask<>(() -> {
+            try {
+                future.complete(supplier.get());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        }, null);
+        // propagate the cancellation of the returned future to the (queued or running) task
+        future.whenComplete((result, throwable) -> {
+            if (future.isCancelled()) {
+                task.cancel(true);
+            }
+        });
+        executor.execute(task);
+        return future;
+    }
+
+    private void prefetch(SearchResult result, DocumentFactory factory, int depth) {
+        if (depth <= 0) {
+            return;
+        }
+        // once handed out, the next results keep the configured number of results prefetched
+        final CompletableFuture<SearchResult> next = result.prefetchNextIfAbsent(() -> {
+            final FulltextSearch nextSearch = result.getNextSearch();
+            if (nextSearch == null) {
+                return null;
+            }
+            final CompletableFuture<SearchResult> prefetch = supplyCancellableAsync(() -> backend.execute(nextSearch, factory), executor);
+            prefetches.add(prefetch);
+            prefetch.whenComplete((r, t) -> prefetches.remove(prefetch));
+            return prefetch;
+        }, handedOut -> prefetch(handedOut, factory, this.prefetchDepth));
+        if (next != null) {
+            next.thenAccept(nextResult -> prefetch(nextResult, factory, depth - 1));
+        }
     }
 
     public static CompletableSearchServer getInstance(Executor executor) {
@@ -252,7 +381,19 @@ public class CompletableSearchServer extends SearchServer {
 
     @Override
     public SearchResult execute(FulltextSearch search, DocumentFactory factory) {
-        return backend.execute(search, factory);
+        final SearchResult result = backend.execute(search, factory);
+        prefetch(result, factory, prefetchDepth);
+        return result;
+    }
+
+    @Override
+    public long count(FulltextSearch search, DocumentFactory factory) {
+        return backend.count(search, factory);
+    }
+
+    @Override
+    public FacetResults facets(FulltextSearch search, DocumentFactory factory) {
+        return backend.facets(search, factory);
     }
 
     @Override
@@ -287,6 +428,12 @@ public class CompletableSearchServer extends SearchServer {
 
     @Override
     public void close() {
+        prefetches.forEach(prefetch -> prefetch.cancel(true));
+        synchronized (this) {
+            if (debounceScheduler != null) {
+                debounceScheduler.shutdownNow();
+            }
+        }
         try {
             if (shutdownExecutorOnClose && executor instanceof ExecutorService) {
                 ExecutorService executorService = (ExecutorService) this.executor;
@@ -8,6 +8,7 @@ import com.rbmhtechnology.vind.api.query.get.RealTimeGet;
 import com.rbmhtechnology.vind.api.query.suggestion.ExecutableSuggestionSearch;
 import com.rbmhtechnology.vind.api.query.update.Update;
 import com.rbmhtechnology.vind.api.result.BeanSearchResult;
+import com.rbmhtechnology.vind.api.result.FacetResults;
 import com.rbmhtechnology.vind.api.result.GetResult;
 import com.rbmhtechnology.vind.api.result.SearchResult;
 import com.rbmhtechnology.vind.api.result.SuggestionResult;
@@ -244,6 +245,32 @@ public abstract class SearchServer implements Closeable {
      */
     public abstract SearchResult execute(FulltextSearch search, DocumentFactory factory);
 
+    /**
+     * Counts the documents matching a fulltext search based on an {@link DocumentFactory}. No documents are
+     * retrieved, scored or mapped and the facets of the search are ignored. By default the search is executed without
+     * facets for an empty page; servers should override this with a cheaper query.
+     * @param search {@link FulltextSearch} search query configuration object.
+     * @param factory {@link DocumentFactory} mapping the index documents.
+     * @return the number of documents matching the search.
+     * @throws SearchServerException if not possible to execute the count.
+     */
+    public long count(FulltextSearch search, DocumentFactory factory) {
+        return execute(search.copy().clearFacets().slice(0, 0), factory).getNumOfResults();
+    }
+
+    /**
+     * Computes the facets of a fulltext search based on an {@link DocumentFactory}. No documents are retrieved,
+     * scored or mapped. By default the search is executed for an empty page; servers should override this with a
+     * cheaper query.
+     * @param search {@link FulltextSearch} search query configuration object.
+     * @param factory {@link DocumentFactory} mapping the index documents.
+     * @return {@link FacetResults} storing the facet results of the search.
+     * @throws SearchServerException if not possible to execute the facet search.
+     */
+    public FacetResults facets(FulltextSearch search, DocumentFactory factory) {
+        return execute(search.copy().slice(0, 0), factory).getFacetResults();
+    }
+
     /**
      * Executes a suggestion search based on an annotated class.
      * @param search ExecutableSuggestionSearch object with the query configuration.
@@ -0,0 +1,106 @@
+package com.rbmhtechnology.vind.api;
+
+import com.rbmhtechnology.vind.api.query.suggestion.ExecutableSuggestionSearch;
+import com.rbmhtechnology.vind.api.result.SuggestionResult;
+import com.rbmhtechnology.vind.model.DocumentFactory;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * A suggestion session of one autocomplete client, created by {@link CompletableSearchServer#suggestionSession(DocumentFactory)}.
+ * Only the latest requested suggestion is of interest: every call of {@link #suggest(ExecutableSuggestionSearch)}
+ * cancels the future of the previous one, which is not executed at all if it is still waiting for the debounce
+ * window to elapse. If it is already running, its thread gets interrupted, but the backend request is usually not
+ * aborted (see {@link CompletableSearchServer}): it completes and its result is discarded. So the debounce window
+ * is what saves backend load, cancelling a running request only keeps stale results from the client.
+ */
+public class SuggestionSession implements AutoCloseable {
+
+    private final CompletableSearchServer server;
+    private final DocumentFactory factory;
+    private final Duration debounce;
+
+    private CompletableFuture<SuggestionResult> current;
+    private boolean closed = false;
+
+    SuggestionSession(CompletableSearchServer server, DocumentFactory factory, Duration debounce) {
+        if (debounce.isNegative()) {
+            throw new IllegalArgumentException("Debounce window must not be negative, actually got: " + debounce);
+        }
+        this.server = server;
+        this.factory = factory;
+        this.debounce = debounce;
+    }
+
+    /**
+     * Requests suggestions, superseding any previous request of this session. The request is executed when no
+     * further request arrives within the debounce window.
+     * @param search the suggestion search
+     * @return a future of the suggestion result, cancelled if superseded by a newer request.
+     */
+    public CompletableFuture<SuggestionResult> suggest(ExecutableSuggestionSearch search) {
+        final CompletableFuture<SuggestionResult> future = new CompletableFuture<>();
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("Suggestion session is closed");
+            }
+            if (current != null) {
+                current.cancel(true);
+            }
+            current = future;
+        }
+
+        final Runnable execute = () -> {
+            if (future.isDone()) {
+                return;
+            }
+            final CompletableFuture<SuggestionResult> execution = server.executeAsync(search, factory);
+            execution.whenComplete((result, throwable) -> {
+                if (throwable != null) {
+                    future.completeExceptionally(throwable);
+                } else {
+                    future.complete(result);
+                }
+            });
+            future.whenComplete((result, throwable) -> {
+                if (future.isCancelled()) {
+                    execution.cancel(true);
+                }
+            });
+        };
+
+        if (debounce.isZero()) {
+            execute.run();
+        } else {
+            final ScheduledFuture<?> scheduled = server.schedule(execute, debounce);
+            future.whenComplete((result, throwable) -> {
+                if (future.isCancelled()) {
+                    scheduled.cancel(false);
+                }
+            });
+        }
+        return future;
+    }
+
+    public Duration getDebounce() {
+        return debounce;
+    }
+
+    /**
+     * Cancels the pending request of this session, if any.
+     */
+    public synchronized void cancel() {
+        if (current != null) {
+            current.cancel(true);
+            current = null;
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        cancel();
+        closed = true;
+    }
+}
@@ -17,6 +17,7 @@ import com.rbmhtechnology.vind.model.value.LatLng;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringEscapeUtils;
 
+import java.time.Duration;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -42,6 +43,7 @@ public class FulltextSearch {
     private Distance geoDistance = null;
     private String searchContext = null;
     private boolean strict = true;
+    private Duration timeout = null;
 
     /**
      * Creates a new basic full text search query object.
@@ -60,9 +62,19 @@ public class FulltextSearch {
         copy.searchString = this.searchString;
         copy.resultSet = resultSet.copy();
         copy.filter = this.getFilter();
-        copy.sorting = this.getSorting();
-        copy.facets = this.getFacets();
-        //TODO there are some copy fields missing?
+        copy.sorting = new ArrayList<>(this.getSorting());
+        copy.facetMinCount = this.facetMinCount;
+        copy.facetLimit = this.facetLimit;
+        copy.facets = new HashMap<>(this.getFacets());
+        copy.childrenSearch = this.childrenSearch;
+        copy.childrenSearchOperator = this.childrenSearchOperator;
+        copy.childrenSearchString = this.childrenSearchString;
+        copy.childrenFactory = this.childrenFactory;
+        copy.timeZone = this.timeZone;
+        copy.geoDistance = this.geoDistance;
+        copy.searchContext = this.searchContext;
+        copy.strict = this.strict;
+        copy.timeout = this.timeout;
         return copy;
     }
 
@@ -378,6 +390,20 @@ public class FulltextSearch {
         return this;
     }
 
+    /**
+     * Sets the maximum time the search server is allowed to spend on this search. If the time is exceeded, the results
+     * collected so far are returned and the result is flagged as partial (see {@link com.rbmhtechnology.vind.api.result.SearchResult#isPartialResults()}).
+     * @param timeout {@link Duration} to bound the search execution, null to remove the bound.
+     * @return This {@link FulltextSearch} instance with the timeout configured.
+     */
+    public FulltextSearch timeout(Duration timeout) {
+        if (timeout != null && (timeout.isNegative() || timeout.isZero())) {
+            throw new IllegalArgumentException("Search timeout has to be positive, actually got: " + timeout);
+        }
+        this.timeout = timeout;
+        return this;
+    }
+
     /**
      * Gets the text of the search query.
      * @return String containing the query target.
@@ -492,6 +518,22 @@ public class FulltextSearch {
         return timeZone;
     }
 
+    /**
+     * Gets the maximum time the search server is allowed to spend on this search.
+     * @return {@link Duration} timeout or null if the search is not bounded.
+     */
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Checks if the search has a timeout configured.
+     * @return Boolean value, true if it has a timeout false otherwise.
+     */
+    public boolean hasTimeout() {
+        return timeout != null;
+    }
+
     /**
      * Returns the geodistance if set
      * @return a geodistance (field and location)
@@ -539,6 +581,7 @@ public class FulltextSearch {
                 "\"facet\":{%s}," +
                 "\"geoDistance\":%s," +
                 "\"searchContext\":\"%s\"," +
+                "\"timeout\":%s," +
                 "\"strictFlag\":%s" +
                 "}";
 
@@ -558,6 +601,7 @@ public class FulltextSearch {
                 this.facets.entrySet().stream().map(e -> e.getValue().toString()).collect(Collectors.joining(",")),
                 this.geoDistance,
                 this.searchContext,
+                this.timeout != null ? this.timeout.toMillis() : null,
                 this.strict);
     }
     public enum Operators {
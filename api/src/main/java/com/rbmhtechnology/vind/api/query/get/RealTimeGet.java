@@ -1,5 +1,7 @@
 package com.rbmhtechnology.vind.api.query.get;
 
+import com.rbmhtechnology.vind.configure.SearchConfiguration;
+
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -11,6 +13,7 @@ import java.util.List;
 public class RealTimeGet<T> {
 
     private final List<T> values = new ArrayList<>();
+    private int chunkSize = SearchConfiguration.get(SearchConfiguration.SEARCH_GET_CHUNK_SIZE, 500);
 
     public RealTimeGet get(T ... value) {
         if(value!=null && value.length > 0){
@@ -30,7 +33,29 @@ public class RealTimeGet<T> {
         return this;
     }
 
+    /**
+     * Sets the maximum number of ids requested at once. Larger id lists are split into chunks which are requested
+     * concurrently, the results are merged keeping the order of the requested ids.
+     * @param chunkSize maximum number of ids per request.
+     * @return This {@link RealTimeGet} instance with the chunk size configured.
+     */
+    public RealTimeGet chunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size has to be positive, actually got: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
     public List<T> getValues() {
         return Collections.unmodifiableList(values);
     }
+
+    /**
+     * Gets the maximum number of ids requested at once.
+     * @return the chunk size.
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
 }
@@ -21,6 +21,7 @@ public class BeanSearchResult<T> {
     protected final FacetResults facetResults;
     protected final Class<T> annotatedClass;
     protected final SearchServer server;
+    protected boolean partialResults = false;
 
     /**
      * Creates a new instance of {@link BeanSearchResult}.
@@ -65,6 +66,24 @@ public class BeanSearchResult<T> {
                 '}';
     }
 
+    /**
+     * Checks whether the search was interrupted by its timeout and thus the results may be incomplete.
+     * @return true if the results are partial.
+     */
+    public boolean isPartialResults() {
+        return partialResults;
+    }
+
+    /**
+     * Flags the results as partial, i.e. the search server interrupted the search when reaching its timeout.
+     * @param partialResults true if the results are partial.
+     * @return This {@link BeanSearchResult} instance.
+     */
+    public BeanSearchResult<T> setPartialResults(boolean partialResults) {
+        this.partialResults = partialResults;
+        return this;
+    }
+
     /**
      * Gets the query faceted results.
      * @return {@link FacetResults} onject containing the different facets.
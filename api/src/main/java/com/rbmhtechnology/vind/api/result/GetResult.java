@@ -21,12 +21,14 @@ public class GetResult {
     private final List<Document> results;
     private final RealTimeGet query;
     private final DocumentFactory factory;
+    private final List<String> missingIds;
 
     public GetResult() {
         this.numOfResults = 0L;
         this.results = Collections.emptyList();
         this.query = new RealTimeGet();
         this.factory = new DocumentFactoryBuilder("empty").build();
+        this.missingIds = Collections.emptyList();
     }
 
     /**
@@ -37,11 +39,23 @@ public class GetResult {
      * @param docFactory document factory holding the schema configuration of documents to parse the results to.
      */
     public GetResult(long numOfResults, List<Document> results, RealTimeGet getQuery, DocumentFactory docFactory) {
+        this(numOfResults, results, getQuery, docFactory, Collections.emptyList());
+    }
+
+    /**
+     * Creates a new instance of {@link GetResult}.
+     * @param numOfResults Number of documents returned by the search server instance.
+     * @param results A list of results parsed to Document.
+     * @param getQuery The fulltext query executed to retrieve this set of results.
+     * @param docFactory document factory holding the schema configuration of documents to parse the results to.
+     * @param missingIds The requested ids which are not found in the index.
+     */
+    public GetResult(long numOfResults, List<Document> results, RealTimeGet getQuery, DocumentFactory docFactory, List<String> missingIds) {
         this.numOfResults = numOfResults;
         this.results = results;
         this.query = getQuery;
         this.factory = docFactory;
-
+        this.missingIds = missingIds;
     }
     /**
      * Gets the number of results stored.
@@ -59,10 +73,19 @@ public class GetResult {
         return Collections.unmodifiableList(results);
     }
 
+    /**
+     * Gets the requested ids which are not found in the index.
+     * @return A list of ids in the order they were requested.
+     */
+    public List<String> getMissingIds() {
+        return Collections.unmodifiableList(missingIds);
+    }
+
     @Override
     public String toString() {
         return "GetResult{" +
                 "numOfResults=" + numOfResults +
+                ", missingIds=" + missingIds +
                 ", results=" + results +
                 '}';
     }
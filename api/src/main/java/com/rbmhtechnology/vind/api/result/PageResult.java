@@ -43,8 +43,12 @@ public class PageResult extends SearchResult {
      * @throws {@link SearchServerException} thrown when the server is not able to execute the query.
      */
     public SearchResult nextPage() {
+        final SearchResult prefetched = consumePrefetchedNext();
+        if (prefetched != null) {
+            return onNext(prefetched);
+        }
         try{
-            return server.execute(query.copy().page(this.page.next()), factory);
+            return onNext(server.execute(query.copy().page(this.page.next()), factory));
         } catch (SearchServerException e) {
             log.error("Unable to retrieve from search server next result", e);
             throw e;
@@ -65,6 +69,11 @@ public class PageResult extends SearchResult {
         }
     }
 
+    @Override
+    public FulltextSearch getNextSearch() {
+        return hasNextPage() ? query.copy().page(this.page.next()) : null;
+    }
+
     /**
      * Checks whether this result has a next page or not.
      * @return true if there is a next page.
@@ -114,6 +123,6 @@ public class PageResult extends SearchResult {
                 searchResult.facetResults,
                 searchResult.server,
                 clazz
-        );
+        ).setPartialResults(searchResult.partialResults);
     }
 }
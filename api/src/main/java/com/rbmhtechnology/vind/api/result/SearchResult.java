@@ -9,6 +9,11 @@ import org.slf4j.LoggerFactory;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * This class stores the search result documents as instances of {@link Document}.
@@ -23,6 +28,10 @@ public abstract class SearchResult {
     protected final FacetResults facetResults;
     protected final DocumentFactory factory;
     protected final SearchServer server;
+    protected boolean partialResults = false;
+
+    private CompletableFuture<SearchResult> prefetchedNext = null;
+    private Consumer<SearchResult> nextListener = null;
     /**
      * Creates a new instance of {@link SearchResult}.
      * @param numOfResults Number of documents returned by the search server instance.
@@ -70,6 +79,24 @@ public abstract class SearchResult {
                 '}';
     }
 
+    /**
+     * Checks whether the search was interrupted by its timeout and thus the results may be incomplete.
+     * @return true if the results are partial.
+     */
+    public boolean isPartialResults() {
+        return partialResults;
+    }
+
+    /**
+     * Flags the results as partial, i.e. the search server interrupted the search when reaching its timeout.
+     * @param partialResults true if the results are partial.
+     * @return This {@link SearchResult} instance.
+     */
+    public SearchResult setPartialResults(boolean partialResults) {
+        this.partialResults = partialResults;
+        return this;
+    }
+
     /**
      * Gets the query faceted results.
      * @return {@link FacetResults} onject containing the different facets.
@@ -78,6 +105,107 @@ public abstract class SearchResult {
         return facetResults;
     }
 
+    /**
+     * Gets the search to retrieve the results following this ones.
+     * @return {@link FulltextSearch} for the next results or null if there are no further results.
+     */
+    public FulltextSearch getNextSearch() {
+        return null;
+    }
+
+    /**
+     * Sets the (already requested) results following this ones, so they are returned when the next results are
+     * asked for instead of issuing a new search.
+     * @param next future completing with the next results.
+     * @param nextListener callback for the next results once they are handed out, may be null.
+     * @return This {@link SearchResult} instance.
+     */
+    public synchronized SearchResult prefetchNext(CompletableFuture<SearchResult> next, Consumer<SearchResult> nextListener) {
+        if (this.prefetchedNext != null && this.prefetchedNext != next) {
+            this.prefetchedNext.cancel(true);
+        }
+        this.prefetchedNext = next;
+        this.nextListener = nextListener;
+        return this;
+    }
+
+    /**
+     * Atomically sets the results following this ones, unless they are already prefetched.
+     * @param next supplies the future completing with the next results, may supply null if there are none; only
+     *             called if nothing is prefetched.
+     * @param nextListener callback for the next results once they are handed out, may be null.
+     * @return the future prefetched before or the supplied one, null if nothing is prefetched.
+     */
+    public synchronized CompletableFuture<SearchResult> prefetchNextIfAbsent(Supplier<CompletableFuture<SearchResult>> next, Consumer<SearchResult> nextListener) {
+        if (this.prefetchedNext == null) {
+            final CompletableFuture<SearchResult> supplied = next.get();
+            if (supplied != null) {
+                this.prefetchedNext = supplied;
+                this.nextListener = nextListener;
+            }
+        }
+        return this.prefetchedNext;
+    }
+
+    /**
+     * Gets the prefetched results following this ones.
+     * @return future completing with the next results or null if nothing is prefetched.
+     */
+    public synchronized CompletableFuture<SearchResult> getPrefetchedNext() {
+        return prefetchedNext;
+    }
+
+    /**
+     * Cancels the prefetching of the next results (and of the results prefetched by them).
+     */
+    public void cancelPrefetch() {
+        final CompletableFuture<SearchResult> next;
+        synchronized (this) {
+            next = this.prefetchedNext;
+            this.prefetchedNext = null;
+        }
+        if (next != null && !next.cancel(true) && !next.isCompletedExceptionally()) {
+            next.join().cancelPrefetch();
+        }
+    }
+
+    /**
+     * Gets the prefetched next results, if any and not failed.
+     * @return the next results or null if they have to be requested.
+     */
+    protected SearchResult consumePrefetchedNext() {
+        final CompletableFuture<SearchResult> next;
+        synchronized (this) {
+            next = this.prefetchedNext;
+            this.prefetchedNext = null;
+        }
+        if (next != null) {
+            try {
+                return next.join();
+            } catch (CancellationException | CompletionException e) {
+                log.debug("Prefetching of next results failed, retrieving them again", e);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Notifies the listener registered with {@link #prefetchNext(CompletableFuture, Consumer)} about the results
+     * handed out as next results.
+     * @param next the next results.
+     * @return the next results.
+     */
+    protected SearchResult onNext(SearchResult next) {
+        final Consumer<SearchResult> listener;
+        synchronized (this) {
+            listener = this.nextListener;
+        }
+        if (listener != null) {
+            listener.accept(next);
+        }
+        return next;
+    }
+
     /**
      * Static method to get a {@link BeanSearchResult} from a {@link SearchResult}.
      * @param searchResult The search results to be parsed as P class specific results.
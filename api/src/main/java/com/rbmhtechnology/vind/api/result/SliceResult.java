@@ -1,5 +1,6 @@
 package com.rbmhtechnology.vind.api.result;
 
+import com.rbmhtechnology.vind.SearchServerException;
 import com.rbmhtechnology.vind.annotations.AnnotationUtil;
 import com.rbmhtechnology.vind.api.Document;
 import com.rbmhtechnology.vind.api.SearchServer;
@@ -36,6 +37,37 @@ public class SliceResult extends SearchResult {
         }
     }
 
+    /**
+     * Gets the slice of results following this one, having the same slice size.
+     * @return Instance of {@link SearchResult} containing the next slice of results.
+     * @throws {@link SearchServerException} thrown when the server is not able to execute the query.
+     */
+    public SearchResult nextSlice() {
+        final SearchResult prefetched = consumePrefetchedNext();
+        if (prefetched != null) {
+            return onNext(prefetched);
+        }
+        try{
+            return onNext(server.execute(query.copy().slice(getOffset() + getSliceSize(), getSliceSize()), factory));
+        } catch (SearchServerException e) {
+            log.error("Unable to retrieve from search server next result", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Checks whether there are results following this slice or not.
+     * @return true if there is a next slice.
+     */
+    public boolean hasNextSlice() {
+        return getOffset() + getSliceSize() < numOfResults;
+    }
+
+    @Override
+    public FulltextSearch getNextSearch() {
+        return hasNextSlice() ? query.copy().slice(getOffset() + getSliceSize(), getSliceSize()) : null;
+    }
+
     /**
      * Gets the actual offeset details.
      * @return the offset details.
@@ -60,6 +92,6 @@ public class SliceResult extends SearchResult {
                 searchResult.facetResults,
                 searchResult.server,
                 clazz
-        );
+        ).setPartialResults(searchResult.partialResults);
     }
 }
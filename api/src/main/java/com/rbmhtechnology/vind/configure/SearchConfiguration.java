@@ -33,6 +33,10 @@ public class SearchConfiguration {
     public static final String SEARCH_RESULT_SHOW_SCORE = "search.result.showScore";
     public static final String SEARCH_RESULT_FACET_INCLUDE_EMPTY = "search.result.facet.includeEmpty";
     public static final String SEARCH_RESULT_FACET_LENGTH = "search.result.facet.length";
+    public static final String SEARCH_RESULT_PREFETCH_DEPTH = "search.result.prefetch.depth";
+    public static final String SEARCH_GET_CHUNK_SIZE = "search.get.chunkSize";
+    public static final String SEARCH_GET_THREADS = "search.get.threads";
+    public static final String SEARCH_SUGGESTION_DEBOUNCE = "search.suggestion.debounce";
 
     private static Logger log = LoggerFactory.getLogger(SearchConfiguration.class);
 
@@ -124,6 +128,10 @@ public class SearchConfiguration {
         set(key, String.valueOf(value));
     }
 
+    public static void remove(String key) {
+        PROPERTIES.remove(key);
+    }
+
     private static List<String> getResourceFiles(String path) throws IOException {
         List<String> filenames = new ArrayList<>();
 
@@ -0,0 +1,54 @@
+package com.rbmhtechnology.vind.api.result;
+
+import com.rbmhtechnology.vind.api.query.Search;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class SearchResultTest {
+
+    @Test
+    public void testPrefetchNextIfAbsent() throws Exception {
+        final SearchResult result = new PageResult(0, Collections.emptyList(), Search.fulltext(), null, null, null);
+
+        assertNull(result.prefetchNextIfAbsent(() -> null, null));
+        assertNull(result.getPrefetchedNext());
+
+        final AtomicInteger supplied = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<CompletableFuture<SearchResult>>> futures = IntStream.range(0, 4)
+                    .mapToObj(i -> executor.submit(() -> {
+                        start.await();
+                        return result.prefetchNextIfAbsent(() -> {
+                            supplied.incrementAndGet();
+                            return new CompletableFuture<>();
+                        }, null);
+                    }))
+                    .collect(Collectors.toList());
+            start.countDown();
+
+            for (Future<CompletableFuture<SearchResult>> future : futures) {
+                final CompletableFuture<SearchResult> prefetched = future.get();
+                assertSame(result.getPrefetchedNext(), prefetched);
+            }
+            assertEquals(1, supplied.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.rbmhtechnology.vind.solr.suggestion.benchmark;
+
+import com.rbmhtechnology.vind.solr.backend.EmbeddedSolrServerProvider;
+import com.rbmhtechnology.vind.solr.suggestion.params.SuggestionRequestParams;
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.embedded.EmbeddedSolrServer;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.params.CommonParams;
+import org.apache.solr.common.params.ModifiableSolrParams;
+import org.apache.solr.core.SolrCore;
+import org.apache.solr.request.LocalSolrQueryRequest;
+import org.apache.solr.request.SolrQueryRequest;
+import org.apache.solr.request.SolrRequestHandler;
+import org.apache.solr.request.SolrRequestInfo;
+import org.apache.solr.response.SolrQueryResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the {@link com.rbmhtechnology.vind.solr.suggestion.SuggestionRequestHandler} of an embedded core
+ * with the Vind schema and configuration, loaded with a {@link SyntheticCorpus}. Each invocation executes one
+ * suggestion request for the next of a fixed list of generated queries.
+ * <p/>
+ * The module is only built with the {@code benchmark} profile. Run the shaded jar to benchmark all parameter
+ * combinations, reporting latency and (by the gc profiler) allocation rate; common JMH options may be passed,
+ * e.g. {@code -p docs=100000 -p type=single}:
+ * <pre>
+ *     mvn -Dbenchmark package
+ *     java -jar backend/solr-ext/suggestion-handler-benchmark/target/benchmarks.jar -p strategy=exact
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(1)
+public class SuggestionRequestHandlerBenchmark {
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final int QUERIES = 1024;
+    private static final long SEED = 42;
+
+    @Param({"10000"})
+    public int docs;
+
+    @Param({"5000"})
+    public int vocabulary;
+
+    @Param({"single", "multi", "mixed"})
+    public String type;
+
+    @Param({"exact", "permutate"})
+    public String strategy;
+
+    @Param({"1", "2", "3"})
+    public int terms;
+
+    @Param({"false", "true"})
+    public boolean interval;
+
+    @Param({"false", "true"})
+    public boolean spellcheck;
+
+    private SolrClient client;
+    private SolrCore core;
+    private SolrRequestHandler handler;
+
+    private String[] queries;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        //load the suggestion handler from the classpath instead of the blob store
+        System.setProperty("runtimeLib", "false");
+
+        client = new EmbeddedSolrServerProvider().getInstance();
+
+        final SyntheticCorpus corpus = new SyntheticCorpus(docs, vocabulary, SEED);
+        for(List<SolrInputDocument> chunk : corpus.documents(CHUNK_SIZE)) {
+            client.add(chunk);
+        }
+        //optimizing builds the spellcheck index
+        client.optimize();
+
+        core = ((EmbeddedSolrServer) client).getCoreContainer().getCore(EmbeddedSolrServerProvider.CORE_NAME);
+        handler = core.getRequestHandler("/suggester");
+
+        final List<String> list = corpus.queries(QUERIES, terms, spellcheck);
+        queries = list.toArray(new String[list.size()]);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if(core != null) {
+            core.close();
+        }
+        if(client != null) {
+            client.close();
+        }
+        System.getProperties().remove("runtimeLib");
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int position = 0;
+
+        int next(int size) {
+            position = (position + 1) % size;
+            return position;
+        }
+    }
+
+    @Benchmark
+    public SolrQueryResponse suggest(Cursor cursor) {
+        final SolrQueryRequest req = new LocalSolrQueryRequest(core, params(queries[cursor.next(queries.length)]));
+        final SolrQueryResponse rsp = new SolrQueryResponse();
+        SolrRequestInfo.setRequestInfo(new SolrRequestInfo(req, rsp));
+        try {
+            core.execute(handler, req, rsp);
+        } finally {
+            SolrRequestInfo.clearRequestInfo();
+            req.close();
+        }
+        if(rsp.getException() != null) {
+            throw new IllegalStateException("Suggestion request failed", rsp.getException());
+        }
+        return rsp;
+    }
+
+    private ModifiableSolrParams params(String query) {
+        final ModifiableSolrParams params = new ModifiableSolrParams();
+        params.add(CommonParams.Q, query);
+        params.add(SuggestionRequestParams.SUGGESTION_STRATEGY, strategy);
+
+        switch (type) {
+            case "single":
+                params.add(SuggestionRequestParams.SUGGESTION_FIELD, SyntheticCorpus.NAME_FIELD, SyntheticCorpus.PLACE_FIELD);
+                break;
+            case "multi":
+                params.add(SuggestionRequestParams.SUGGESTION_MULTIVALUE_FIELD, SyntheticCorpus.NAME_FIELD, SyntheticCorpus.PLACE_FIELD);
+                break;
+            case "mixed":
+                params.add(SuggestionRequestParams.SUGGESTION_FIELD, SyntheticCorpus.NAME_FIELD);
+                params.add(SuggestionRequestParams.SUGGESTION_MULTIVALUE_FIELD, SyntheticCorpus.PLACE_FIELD);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown suggestion type: " + type);
+        }
+
+        if(interval) {
+            params.add(SuggestionRequestParams.SUGGESTION_INTERVAL, "true");
+            params.add(SuggestionRequestParams.SUGGESTION_INTERVAL_FIELD, SyntheticCorpus.DATE_FIELD);
+            interval(params, "last_week", "NOW/DAY-7DAYS");
+            interval(params, "last_month", "NOW/DAY-1MONTH");
+            interval(params, "last_year", "NOW/DAY-1YEAR");
+        }
+        return params;
+    }
+
+    private static void interval(ModifiableSolrParams params, String label, String start) {
+        params.add(SuggestionRequestParams.SUGGESTION_INTERVAL_LABEL, label);
+        params.add(String.format(SuggestionRequestParams.SUGGESTION_INTERVAL_RANGE_START, label), start);
+        params.add(String.format(SuggestionRequestParams.SUGGESTION_INTERVAL_RANGE_END, label), "NOW/DAY+1DAY");
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(SuggestionRequestHandlerBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,160 @@
+package com.rbmhtechnology.vind.solr.suggestion.benchmark;
+
+import org.apache.solr.common.SolrInputDocument;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * A reproducible synthetic corpus for suggestion benchmarks. Values are built from a vocabulary of generated
+ * words, drawn with a skewed distribution so that some words are much more frequent than others, like names
+ * and places in a real archive.
+ */
+public class SyntheticCorpus {
+
+    public static final String NAME_FIELD = "dynamic_multi_stored_suggest_string_name";
+    public static final String PLACE_FIELD = "dynamic_multi_stored_suggest_string_place";
+    public static final String DATE_FIELD = "dynamic_single_stored_suggest_date_created";
+
+    private static final String[] SYLLABLES = {
+            "ba", "ke", "lo", "mi", "nu", "ra", "se", "ti", "vo", "za",
+            "an", "el", "in", "or", "us", "ber", "dan", "fel", "gor", "har"
+    };
+
+    private final Random random;
+    private final String[] vocabulary;
+    private final int size;
+
+    //the name values of the documents, queries are taken from them
+    private final List<String> names = new ArrayList<>();
+
+    /**
+     * @param size the number of documents
+     * @param vocabularySize the number of distinct words
+     * @param seed the seed of the random generator
+     */
+    public SyntheticCorpus(int size, int vocabularySize, long seed) {
+        this.size = size;
+        this.random = new Random(seed);
+
+        final Set<String> words = new LinkedHashSet<>();
+        while(words.size() < vocabularySize) {
+            final StringBuilder word = new StringBuilder();
+            final int syllables = 2 + random.nextInt(3);
+            for(int i = 0; i < syllables; i++) {
+                word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            words.add(word.toString());
+        }
+        this.vocabulary = words.toArray(new String[words.size()]);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param chunkSize the number of documents per chunk
+     * @return the documents of the corpus, in chunks of the given size
+     */
+    public List<List<SolrInputDocument>> documents(int chunkSize) {
+        final List<List<SolrInputDocument>> chunks = new ArrayList<>();
+        List<SolrInputDocument> chunk = new ArrayList<>(chunkSize);
+
+        final Instant now = Instant.now();
+        for(int i = 0; i < size; i++) {
+            final SolrInputDocument document = new SolrInputDocument();
+            document.setField("_id_", String.valueOf(i));
+            document.setField("_type_", "Asset");
+
+            final int names = 1 + random.nextInt(3);
+            for(int n = 0; n < names; n++) {
+                final String name = value(2 + random.nextInt(2));
+                this.names.add(name);
+                document.addField(NAME_FIELD, name);
+            }
+            final int places = 1 + random.nextInt(2);
+            for(int p = 0; p < places; p++) {
+                document.addField(PLACE_FIELD, value(1 + random.nextInt(2)));
+            }
+            document.setField(DATE_FIELD, Date.from(now.minus(random.nextInt(2 * 365), ChronoUnit.DAYS)));
+
+            chunk.add(document);
+            if(chunk.size() == chunkSize) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if(!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    /**
+     * Creates queries from the names of the documents, so must be called after {@link #documents(int)}.
+     * @param count the number of queries
+     * @param terms the number of terms per query (at most 3)
+     * @param misspelled if true, the first term of each query is misspelled so it only matches via the spellcheck fallback
+     * @return queries typed the way users type: completed words followed by a word prefix
+     */
+    public List<String> queries(int count, int terms, boolean misspelled) {
+        if(names.isEmpty()) {
+            throw new IllegalStateException("Queries are created from the documents, which have not been created yet");
+        }
+        if(terms < 1 || terms > 3) {
+            throw new IllegalArgumentException("Number of query terms must be between 1 and 3, actually got: " + terms);
+        }
+
+        final List<String> queries = new ArrayList<>(count);
+        while(queries.size() < count) {
+            final String[] words = names.get(random.nextInt(names.size())).toLowerCase(Locale.ROOT).split(" ");
+            if(words.length < terms) continue;
+
+            final StringBuilder query = new StringBuilder();
+            for(int t = 0; t < terms; t++) {
+                String word = words[t];
+                if(misspelled && t == 0) {
+                    //a complete word, as a prefix is hardly ever corrected
+                    word = misspell(word);
+                } else if(t == terms - 1) {
+                    word = word.substring(0, Math.min(word.length(), 3));
+                }
+                if(t > 0) query.append(' ');
+                query.append(word);
+            }
+            queries.add(query.toString());
+        }
+        return queries;
+    }
+
+    private String value(int words) {
+        final StringBuilder value = new StringBuilder();
+        for(int i = 0; i < words; i++) {
+            if(i > 0) value.append(' ');
+            final String word = word();
+            value.append(Character.toUpperCase(word.charAt(0))).append(word.substring(1));
+        }
+        return value.toString();
+    }
+
+    //squaring the uniform distribution favours the first words of the vocabulary
+    private String word() {
+        final double r = random.nextDouble();
+        return vocabulary[(int) (r * r * vocabulary.length)];
+    }
+
+    private String misspell(String word) {
+        final char[] chars = word.toLowerCase(Locale.ROOT).toCharArray();
+        final int i = chars.length > 1 ? 1 : 0;
+        chars[i] = chars[i] == 'x' ? 'q' : 'x';
+        return new String(chars);
+    }
+}
@@ -6,11 +6,14 @@ import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.solr.common.params.CommonParams;
 import org.apache.solr.common.params.SolrParams;
+import org.apache.solr.common.util.ExecutorUtil;
 import org.apache.solr.common.util.NamedList;
+import org.apache.solr.core.CloseHook;
 import org.apache.solr.core.SolrCore;
 import org.apache.solr.handler.component.SearchHandler;
 import org.apache.solr.request.SolrQueryRequest;
 import org.apache.solr.response.SolrQueryResponse;
+import org.apache.solr.util.DefaultSolrThreadFactory;
 import org.apache.solr.util.plugin.SolrCoreAware;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,6 +22,9 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 /**
  * https://svn.apache.org/repos/asf/lucene/solr/branches/branch-1.4/src/java/org/apache/solr/handler/
@@ -75,6 +81,10 @@ public class SuggestionRequestHandler extends SearchHandler implements SolrCoreA
 
     private SuggestionService suggestionService;
 
+    private static final int QUEUE_SIZE_PER_THREAD = 16;
+
+    private ExecutorService executor;
+
     private static Strategy STRATEGY = Strategy.permutate;
     private static boolean SUGGESTION = true;
     private static String DF = null;
@@ -90,11 +100,29 @@ public class SuggestionRequestHandler extends SearchHandler implements SolrCoreA
 
     public void inform(SolrCore core) {
         super.inform(core);
-        suggestionService = new SuggestionService(core,this.getInitArgs());
 
         //set default args
         NamedList args = (NamedList)this.getInitArgs().get("defaults");
 
+        //bounded executor for concurrent suggestion queries, shut down with the core; rejected tasks are run
+        //in the request thread instead
+        final int threads = args.get(SuggestionRequestParams.SUGGESTION_THREADS) != null ?
+                Integer.parseInt((String)args.get(SuggestionRequestParams.SUGGESTION_THREADS)) : Runtime.getRuntime().availableProcessors();
+        executor = new ExecutorUtil.MDCAwareThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(threads * QUEUE_SIZE_PER_THREAD), new DefaultSolrThreadFactory("suggestion"));
+        core.addCloseHook(new CloseHook() {
+            @Override
+            public void preClose(SolrCore core) {
+                ExecutorUtil.shutdownAndAwaitTermination(executor);
+            }
+
+            @Override
+            public void postClose(SolrCore core) {
+            }
+        });
+
+        suggestionService = new SuggestionService(core,this.getInitArgs(),executor);
+
         SUGGESTION = args.get(SuggestionRequestParams.SUGGESTION) != null ?
                 Boolean.parseBoolean((String)args.get(SuggestionRequestParams.SUGGESTION)) : SUGGESTION;
         TERM_LIMIT = args.get(SuggestionRequestParams.SUGGESTION_TERM_LIMIT) != null ?
@@ -257,6 +285,9 @@ public class SuggestionRequestHandler extends SearchHandler implements SolrCoreA
         return error;
     }
 
+    SuggestionService getSuggestionService() {
+        return suggestionService;
+    }
 
     @Override
     public String getDescription() {
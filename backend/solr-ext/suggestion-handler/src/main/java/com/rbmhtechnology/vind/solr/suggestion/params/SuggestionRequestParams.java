@@ -18,6 +18,18 @@ public class SuggestionRequestParams {
     public static final String SUGGESTION_INTERNAL_LIMIT = "suggestion.internal.limit";
     public static final String SUGGESTION_STRATEGY = "suggestion.strategy";
 
+    public static final String SUGGESTION_INDEX = "suggestion.index";
+    public static final String SUGGESTION_INDEX_FIELD = "suggestion.index.field";
+    public static final String SUGGESTION_ANALYZER_CACHE_SIZE = "suggestion.analyzer.cache.size";
+    public static final String SUGGESTION_PREFIX_CACHE_SIZE = "suggestion.prefix.cache.size";
+    public static final String SUGGESTION_SPELLCHECK_PARALLEL = "suggestion.spellcheck.parallel";
+    public static final String SUGGESTION_PARALLEL_FIELDS = "suggestion.parallel.fields";
+    public static final String SUGGESTION_THREADS = "suggestion.threads";
+
+    public static final String SUGGESTION_WARM_FIELD = "suggestion.warm.field";
+    public static final String SUGGESTION_WARM_PREFIX = "suggestion.warm.prefix";
+    public static final String SUGGESTION_WARM_RECENT = "suggestion.warm.recent";
+
     public static final String SUGGESTION_INTERVAL = "suggestion.interval";
     public static final String SUGGESTION_INTERVAL_LABEL = "suggestion.interval.label";
     public static final String SUGGESTION_INTERVAL_OTHER = "suggestion.interval.other";
@@ -20,6 +20,9 @@ import java.util.regex.Pattern;
  */
 public class SuggestionResultFactory {
 
+    //upper bound for the beam width of multi suggestions if no limit is set
+    private static final int MAX_MULTI_SUGGESTIONS = 100;
+
     /**
      * create a multi suggestion result
      * @param core
@@ -33,7 +36,8 @@ public class SuggestionResultFactory {
     public static SuggestionResult createMultiValueResult(SolrCore core, SolrQueryResponse rsp, String[] fields, String query, String df, int termLimit, int limit, SuggestionRequestHandler.LimitType limitType) {
         SuggestionResultMulti result = new SuggestionResultMulti(limit, limitType);
 
-        SimpleOrderedMap facets = (SimpleOrderedMap)((SimpleOrderedMap)rsp.getValues().get("facet_counts")).get("facet_fields");
+        SimpleOrderedMap facets = (SimpleOrderedMap)rsp.getValues().get("facets");
+        if(facets == null) return result;
 
         //for each word
         String[] qps = query.split("( |\\+)");
@@ -42,14 +46,15 @@ public class SuggestionResultFactory {
             LinkedList<Facet> l = new LinkedList<Facet>();
             list_of_facet_lists.addLast(l);
             for(String field : fields) {
-                Iterator<Map.Entry> iter = ((NamedList)facets.get(field)).iterator();
-                while(iter.hasNext()) {
-                    Map.Entry<String, NamedList<Object>> entry = iter.next();
-                    String s = " "+FieldAnalyzerService.analyzeString(core, df, entry.getKey());
+                final NamedList fieldFilter = (NamedList) facets.get(field.concat("_filter"));
+                if(fieldFilter == null || fieldFilter.get(field) == null) continue;
+
+                for(Object bucket : (List) ((NamedList) fieldFilter.get(field)).get("buckets")) {
+                    final String value = ((NamedList) bucket).get("val").toString();
+                    String s = " "+FieldAnalyzerService.analyzeString(core, df, value);
                     //try if it maps to current fields
                     if(s.toLowerCase().contains(" "+qps[i].toLowerCase())) {
-                        Object o = entry.getValue();
-                        l.addLast(new Facet(field,entry.getKey(),(Integer)o));
+                        l.addLast(new Facet(field,value,((Number) ((NamedList) bucket).get("count")).intValue()));
                     }
                 }
             }
@@ -57,7 +62,7 @@ public class SuggestionResultFactory {
 
         if(list_of_facet_lists.isEmpty()) return result;
 
-        getMultiSuggestions(result,list_of_facet_lists,0,new ArrayList<Facet>());
+        getMultiSuggestions(result,list_of_facet_lists,limit);
 
         //SuggestionResultMulti.MultiFacet facet = result.createMultiFacet();
         //facet.add("who","Sebastian Vettel",2);
@@ -67,29 +72,76 @@ public class SuggestionResultFactory {
     }
 
     /**
-     * create multi suggestions recursively
+     * create the best multi suggestions by a bounded top-k (beam) search. A combination is ranked by the
+     * smallest count of its facets, so extending the best k combinations of one term with the best k
+     * facets of the next term always contains the best k combinations of both terms. This is exact as long as
+     * every facet matches a single term; combinations merged by a facet matching several terms may crowd out
+     * others, so the result is then an approximation.
      * @param result
-     * @param all
-     * @param i
-     * @param list
+     * @param all the candidate facets for each query term
+     * @param limit the number of suggestions
      */
-    private static void getMultiSuggestions(SuggestionResultMulti result, List<List<Facet>> all,int i, List<Facet> list) {
-        if(i < all.size()) {
-            for(Facet facet : all.get(i)){
-                List<Facet> fl = new ArrayList<Facet>(list);
-                if(!fl.contains(facet))fl.add(facet);
-                getMultiSuggestions(result,all,++i,fl);
+    static void getMultiSuggestions(SuggestionResultMulti result, List<List<Facet>> all, int limit) {
+        final int width = Math.min(limit, MAX_MULTI_SUGGESTIONS);
+
+        List<Combination> beam = Collections.singletonList(new Combination());
+        for(List<Facet> facets : all) {
+            if(facets.isEmpty()) return;
+
+            final List<Facet> candidates = new ArrayList<>(facets);
+            candidates.sort(Comparator.comparingInt(Facet::getCount).reversed());
+
+            //the same facet combination may be reached in different term orders
+            final Map<Set<Facet>,Combination> next = new LinkedHashMap<>();
+            for(Combination combination : beam) {
+                for(Facet facet : candidates.subList(0, Math.min(width, candidates.size()))) {
+                    final Combination extended = combination.extend(facet);
+                    next.putIfAbsent(extended.key, extended);
+                }
             }
-        } else {
-            if(!list.isEmpty()) {
+
+            final List<Combination> ranked = new ArrayList<>(next.values());
+            ranked.sort(Comparator.comparingInt((Combination c) -> c.count).reversed());
+            beam = ranked.subList(0, Math.min(width, ranked.size()));
+        }
+
+        for(Combination combination : beam) {
+            if(!combination.facets.isEmpty()) {
                 SuggestionResultMulti.MultiFacet mf = result.createMultiFacet();
-                for(Facet f : list) {
+                for(Facet f : combination.facets) {
                     mf.add(f.getName(),f.getValue(),f.getCount());
                 }
             }
         }
     }
 
+    /**
+     * a (partial) multi suggestion, ranked by its smallest facet count
+     */
+    private static class Combination {
+        private final List<Facet> facets;
+        private final Set<Facet> key;
+        private final int count;
+
+        private Combination() {
+            this(Collections.emptyList(), Integer.MAX_VALUE);
+        }
+
+        private Combination(List<Facet> facets, int count) {
+            this.facets = facets;
+            this.key = new HashSet<>(facets);
+            this.count = count;
+        }
+
+        private Combination extend(Facet facet) {
+            if(key.contains(facet)) return this;
+            final List<Facet> extended = new ArrayList<>(facets.size() + 1);
+            extended.addAll(facets);
+            extended.add(facet);
+            return new Combination(extended, Math.min(count, facet.getCount()));
+        }
+    }
+
     /**
      * create single suggestion result
      * @param core
@@ -137,11 +189,11 @@ public class SuggestionResultFactory {
                 final LocalDateTime dateTimeEnd = end.toInstant().atZone(ZoneId.of("UTC")).toLocalDateTime();
 
                 intervalResult.addInterval(intervalName,dateTimeStart,dateTimeEnd);
-                final NamedList fieldFilters = (NamedList) facets.get(intervalName);
                 for (String fieldName : fields) {
-                    final String filterName = fieldName.concat("_filter");
-                    if(fieldFilters.get(filterName)!=null) {
-                        final NamedList fieldResults = (NamedList) fieldFilters.get(filterName);
+                    //the interval facets are nested into the field filter facet
+                    final NamedList fieldFilter = (NamedList) facets.get(fieldName.concat("_filter"));
+                    if(fieldFilter != null && fieldFilter.get(intervalName) != null) {
+                        final NamedList fieldResults = (NamedList) fieldFilter.get(intervalName);
                         if ((Integer) fieldResults.get("count") > 0) {
                             List<NamedList> fieldValues = (List) (((NamedList) fieldResults.get(fieldName)).get("buckets"));
                             fieldValues.forEach(
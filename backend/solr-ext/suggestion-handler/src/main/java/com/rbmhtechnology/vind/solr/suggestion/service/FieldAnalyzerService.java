@@ -2,10 +2,15 @@ package com.rbmhtechnology.vind.solr.suggestion.service;
 
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.solr.core.CloseHook;
 import org.apache.solr.core.SolrCore;
+import org.apache.solr.schema.FieldType;
+import org.apache.solr.schema.IndexSchema;
+import org.apache.solr.util.ConcurrentLRUCache;
 
 import java.io.IOException;
-import java.io.StringReader;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * ...
@@ -14,6 +19,22 @@ import java.io.StringReader;
  */
 public class FieldAnalyzerService {
 
+    public static final int DEFAULT_CACHE_SIZE = 10000;
+
+    //analyzed strings per core instance, removed as soon as the core is closed
+    private static final Map<SolrCore,CoreCache> caches = new ConcurrentHashMap<>();
+
+    private static final ThreadLocal<StringBuilder> builders = ThreadLocal.withInitial(StringBuilder::new);
+
+    /**
+     * sets the maximum number of analyzed strings cached for a core, 0 disables the cache
+     * @param core the core
+     * @param size the cache size
+     */
+    public static void setCacheSize(SolrCore core, int size) {
+        getCoreCache(core).setSize(size);
+    }
+
     /**
      * analyzes string like the given field
      * @param field the name of the field
@@ -21,15 +42,62 @@ public class FieldAnalyzerService {
      * @return the analyzed string
      */
     public static String analyzeString(SolrCore core, String field, String value) {
+        final IndexSchema schema = core.getLatestSchema();
+        final FieldType fieldType = schema.getFieldType(field);
+
+        final AnalyzedStringCache cache = getCoreCache(core).get(schema);
+        if(cache == null) {
+            return analyze(fieldType, field, value);
+        }
+
+        final String key = fieldType.getTypeName() + '\u0000' + value;
+        String analyzed = cache.strings.get(key);
+        if(analyzed == null) {
+            //concurrent misses analyze the same string twice, which is cheaper than locking
+            analyzed = analyze(fieldType, field, value);
+            cache.strings.put(key, analyzed);
+        }
+        return analyzed;
+    }
+
+    static int getCachedStrings(SolrCore core) {
+        final CoreCache coreCache = caches.get(core);
+        final AnalyzedStringCache cache = coreCache != null ? coreCache.cache : null;
+        return cache != null ? cache.strings.size() : 0;
+    }
+
+    private static CoreCache getCoreCache(SolrCore core) {
+        final CoreCache coreCache = caches.get(core);
+        if(coreCache != null) {
+            return coreCache;
+        }
+        return caches.computeIfAbsent(core, c -> {
+            c.addCloseHook(new CloseHook() {
+                @Override
+                public void preClose(SolrCore core) {
+                }
+
+                @Override
+                public void postClose(SolrCore core) {
+                    caches.remove(core);
+                }
+            });
+            return new CoreCache();
+        });
+    }
+
+    private static String analyze(FieldType fieldType, String field, String value) {
         try {
-            StringBuilder b = new StringBuilder();
-            try (TokenStream ts = core.getLatestSchema().getFieldType(field).getQueryAnalyzer().tokenStream(field, new StringReader(value))) {
+            //the analyzer reuses its token stream components per thread, so only the builder has to be kept
+            final StringBuilder b = builders.get();
+            b.setLength(0);
+            try (TokenStream ts = fieldType.getQueryAnalyzer().tokenStream(field, value)) {
+                final CharTermAttribute attr = ts.addAttribute(CharTermAttribute.class);
                 ts.reset();
                 while (ts.incrementToken()) {
-                    b.append(" ");
-                    CharTermAttribute attr = ts.getAttribute(CharTermAttribute.class);
-                    b.append(attr);
+                    b.append(' ').append(attr);
                 }
+                ts.end();
             }
 
             return b.toString().trim();
@@ -40,4 +108,44 @@ public class FieldAnalyzerService {
         }
     }
 
+    private static final class CoreCache {
+        private volatile int size = DEFAULT_CACHE_SIZE;
+        //a cache is dropped as soon as the schema of the core changes
+        private volatile AnalyzedStringCache cache;
+
+        private synchronized void setSize(int size) {
+            this.size = size;
+            this.cache = null;
+        }
+
+        private AnalyzedStringCache get(IndexSchema schema) {
+            final AnalyzedStringCache current = cache;
+            if(current != null && current.schema == schema) {
+                return current;
+            }
+            if(size <= 0) {
+                return null;
+            }
+            synchronized (this) {
+                if(size <= 0) {
+                    return null;
+                }
+                if(cache == null || cache.schema != schema) {
+                    cache = new AnalyzedStringCache(schema, size);
+                }
+                return cache;
+            }
+        }
+    }
+
+    private static final class AnalyzedStringCache {
+        private final IndexSchema schema;
+        private final ConcurrentLRUCache<String,String> strings;
+
+        private AnalyzedStringCache(IndexSchema schema, int size) {
+            this.schema = schema;
+            this.strings = new ConcurrentLRUCache<>(size, (int) (size * 0.9));
+        }
+    }
+
 }
@@ -0,0 +1,202 @@
+package com.rbmhtechnology.vind.solr.suggestion.service;
+
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.util.BytesRef;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * An immutable in-memory prefix index over the terms of one field of an index reader. Every word start
+ * of every value (the value start and each position following a space) is a key, so a prefix lookup behaves
+ * like the regex facet filter of the {@link SuggestionService} without scanning the whole term dictionary.
+ * A key is stored as the ordinal of the value and the offset of the word start in its lower cased form, so
+ * the index grows linearly with the length of the values. Keys are kept sorted and resolved by binary search.
+ */
+public final class PrefixIndex {
+
+    private final String field;
+    private final Object readerKey;
+
+    //values in term (index) order and their lower cased form, the position is the value ordinal
+    private final String[] values;
+    private final String[] lowerValues;
+
+    //sorted word start keys: the ordinal of the value and the offset of the word start
+    private final int[] ords;
+    private final int[] offsets;
+
+    private PrefixIndex(String field, Object readerKey, String[] values, String[] lowerValues, int[] ords, int[] offsets) {
+        this.field = field;
+        this.readerKey = readerKey;
+        this.values = values;
+        this.lowerValues = lowerValues;
+        this.ords = ords;
+        this.offsets = offsets;
+    }
+
+    /**
+     * builds the prefix index for a field of the given reader
+     * @param reader the (composite) leaf reader of a searcher
+     * @param field the name of the field
+     * @return the prefix index
+     * @throws IOException if the term dictionary cannot be read
+     */
+    public static PrefixIndex build(LeafReader reader, String field) throws IOException {
+        final List<String> values = new ArrayList<>();
+        final List<String> lowerValues = new ArrayList<>();
+        final List<Long> keys = new ArrayList<>();
+
+        final Terms terms = reader.terms(field);
+        if(terms != null) {
+            final TermsEnum termsEnum = terms.iterator();
+            BytesRef term;
+            while((term = termsEnum.next()) != null) {
+                final String value = term.utf8ToString();
+                final int ord = values.size();
+                values.add(value);
+
+                //shares the value if it is lower case already
+                final String lower = value.toLowerCase(Locale.ROOT);
+                lowerValues.add(lower);
+                for(int i = 0; i < lower.length(); i++) {
+                    if(i == 0 || lower.charAt(i-1) == ' ') {
+                        keys.add(((long) ord << 32) | i);
+                    }
+                }
+            }
+        }
+
+        final String[] lowerArray = lowerValues.toArray(new String[lowerValues.size()]);
+        final Long[] sorted = keys.toArray(new Long[keys.size()]);
+        Arrays.sort(sorted, (a, b) -> {
+            final int c = compare(lowerArray[ord(a)], offset(a), lowerArray[ord(b)], offset(b));
+            return c != 0 ? c : Integer.compare(ord(a), ord(b));
+        });
+
+        final int[] ordArray = new int[sorted.length];
+        final int[] offsetArray = new int[sorted.length];
+        for(int i = 0; i < sorted.length; i++) {
+            ordArray[i] = ord(sorted[i]);
+            offsetArray[i] = offset(sorted[i]);
+        }
+
+        return new PrefixIndex(field, reader.getCombinedCoreAndDeletesKey(), values.toArray(new String[values.size()]), lowerArray, ordArray, offsetArray);
+    }
+
+    private static int ord(long key) {
+        return (int) (key >>> 32);
+    }
+
+    private static int offset(long key) {
+        return (int) key;
+    }
+
+    /**
+     * compares the suffixes of two strings like {@link String#compareTo(String)}, without copying them
+     */
+    private static int compare(String a, int aOffset, String b, int bOffset) {
+        final int aLength = a.length() - aOffset;
+        final int bLength = b.length() - bOffset;
+        final int length = Math.min(aLength, bLength);
+        for(int i = 0; i < length; i++) {
+            final char ca = a.charAt(aOffset + i);
+            final char cb = b.charAt(bOffset + i);
+            if(ca != cb) {
+                return ca - cb;
+            }
+        }
+        return aLength - bLength;
+    }
+
+    /**
+     * @param prefix the (analyzed) prefix
+     * @return the ordinals of all values having a word starting with the prefix
+     */
+    public BitSet lookup(String prefix) {
+        final String p = prefix.toLowerCase(Locale.ROOT);
+        final BitSet result = new BitSet(values.length);
+
+        int i = lowerBound(p);
+        while(i < ords.length && lowerValues[ords[i]].startsWith(p, offsets[i])) {
+            result.set(ords[i++]);
+        }
+        return result;
+    }
+
+    /**
+     * @param prefixes the (analyzed) prefixes
+     * @return the ordinals of all values matching every given prefix
+     */
+    public BitSet lookup(Collection<String> prefixes) {
+        BitSet result = null;
+        for(String prefix : prefixes) {
+            final BitSet matches = lookup(prefix);
+            if(result == null) {
+                result = matches;
+            } else {
+                result.and(matches);
+            }
+            if(result.isEmpty()) break;
+        }
+        return result != null ? result : new BitSet();
+    }
+
+    /**
+     * @param value a field value
+     * @param prefixes the (analyzed) prefixes
+     * @return true if every prefix matches a word start of the value, the same way a lookup does
+     */
+    public static boolean matches(String value, Collection<String> prefixes) {
+        final String lower = value.toLowerCase(Locale.ROOT);
+        for(String prefix : prefixes) {
+            final String p = prefix.toLowerCase(Locale.ROOT);
+            boolean match = false;
+            for(int i = lower.indexOf(p); i >= 0 && !match; i = lower.indexOf(p, i + 1)) {
+                match = i == 0 || lower.charAt(i-1) == ' ';
+            }
+            if(!match) return false;
+        }
+        return true;
+    }
+
+    private int lowerBound(String prefix) {
+        int low = 0, high = ords.length;
+        while(low < high) {
+            final int mid = (low + high) >>> 1;
+            if(compare(lowerValues[ords[mid]], offsets[mid], prefix, 0) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public String getValue(int ord) {
+        return values[ord];
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * @param key the combined core and deletes key of a reader
+     * @return true if the index has been built for this reader state
+     */
+    public boolean isCurrent(Object key) {
+        return readerKey == key;
+    }
+}
@@ -0,0 +1,222 @@
+package com.rbmhtechnology.vind.solr.suggestion.service;
+
+import com.rbmhtechnology.vind.solr.suggestion.params.SuggestionRequestParams;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.PostingsEnum;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.FixedBitSet;
+import org.apache.solr.common.params.ModifiableSolrParams;
+import org.apache.solr.common.util.NamedList;
+import org.apache.solr.common.util.SimpleOrderedMap;
+import org.apache.solr.core.AbstractSolrEventListener;
+import org.apache.solr.core.SolrCore;
+import org.apache.solr.request.LocalSolrQueryRequest;
+import org.apache.solr.request.SolrQueryRequest;
+import org.apache.solr.response.SolrQueryResponse;
+import org.apache.solr.schema.SchemaField;
+import org.apache.solr.schema.StrField;
+import org.apache.solr.search.DocSet;
+import org.apache.solr.search.QParser;
+import org.apache.solr.search.SolrIndexSearcher;
+import org.apache.solr.search.SyntaxError;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps a {@link PrefixIndex} for every suggestion field and answers single value suggestion requests from
+ * them instead of running regex facet queries. The indexes are rebuilt whenever a new searcher is opened;
+ * fields which are not configured in advance are indexed on their first request.
+ * <p/>
+ * The response has the same shape as the json facet response of the regex based query, so the
+ * results can be created by the {@link com.rbmhtechnology.vind.solr.suggestion.result.SuggestionResultFactory}.
+ */
+public class SuggestionIndexService extends AbstractSolrEventListener {
+
+    private final Logger log = LoggerFactory.getLogger(this.getClass());
+
+    private final Set<String> fields = ConcurrentHashMap.newKeySet();
+
+    private final Map<String,PrefixIndex> indexes = new ConcurrentHashMap<>();
+
+    private final int internalFacetLimit;
+
+    public SuggestionIndexService(SolrCore core, NamedList defaults, int internalFacetLimit) {
+        super(core);
+        this.internalFacetLimit = internalFacetLimit;
+
+        if(defaults != null && defaults.getAll(SuggestionRequestParams.SUGGESTION_INDEX_FIELD) != null) {
+            for(Object field : defaults.getAll(SuggestionRequestParams.SUGGESTION_INDEX_FIELD)) {
+                fields.add(field.toString());
+            }
+        }
+    }
+
+    /**
+     * adds fields that are indexed on every new searcher
+     * @param fields the field names
+     */
+    public void register(String... fields) {
+        this.fields.addAll(Arrays.asList(fields));
+    }
+
+    @Override
+    public void newSearcher(SolrIndexSearcher newSearcher, SolrIndexSearcher currentSearcher) {
+        final long millis = System.currentTimeMillis();
+        for(String field : fields) {
+            try {
+                getIndex(newSearcher, field);
+            } catch (IOException e) {
+                log.warn("Could not build suggestion index for field {}: {}", field, e.getMessage());
+            }
+        }
+        log.debug("Suggestion indexes for {} rebuilt in {}ms", fields, System.currentTimeMillis() - millis);
+    }
+
+    /**
+     * answers a suggestion query from the prefix indexes
+     * @param query the analyzed query
+     * @param fields the single value suggestion fields
+     * @param fqs the filter queries (may be null)
+     * @param termLimit the maximum number of terms considered
+     * @return a response containing the 'facets' of the suggestion query or null if the request
+     * cannot be answered from the indexes
+     */
+    public SolrQueryResponse query(String query, String[] fields, String[] fqs, int termLimit) {
+        final SolrQueryRequest req = new LocalSolrQueryRequest(getCore(), new ModifiableSolrParams());
+        try {
+            final SolrIndexSearcher searcher = req.getSearcher();
+
+            final List<String> terms = getTerms(query, termLimit);
+
+            final PrefixIndex[] fieldIndexes = new PrefixIndex[fields.length];
+            for(int i = 0; i < fields.length; i++) {
+                if(!isIndexable(searcher, fields[i])) {
+                    return null;
+                }
+                fieldIndexes[i] = getIndex(searcher, fields[i]);
+                this.fields.add(fields[i]);
+            }
+
+            final DocSet filter = getFilter(searcher, fqs, req);
+            if(fqs != null && filter == null) {
+                return null;
+            }
+
+            final SimpleOrderedMap<Object> facets = new SimpleOrderedMap<>();
+            facets.add("count", filter != null ? filter.size() : searcher.getIndexReader().numDocs());
+
+            for(PrefixIndex index : fieldIndexes) {
+                facets.add(index.getField().concat("_filter"), createFieldFacet(searcher, index, terms, filter));
+            }
+
+            final SolrQueryResponse rsp = new SolrQueryResponse();
+            rsp.add("facets", facets);
+            return rsp;
+        } catch (IOException e) {
+            log.warn("Could not use suggestion index: {}", e.getMessage());
+            return null;
+        } finally {
+            req.close();
+        }
+    }
+
+    private SimpleOrderedMap<Object> createFieldFacet(SolrIndexSearcher searcher, PrefixIndex index, List<String> terms, DocSet filter) throws IOException {
+        final LeafReader reader = searcher.getLeafReader();
+        final Bits liveDocs = reader.getLiveDocs();
+        final FixedBitSet matchingDocs = new FixedBitSet(reader.maxDoc());
+
+        final BitSet ords = index.lookup(terms);
+        final List<int[]> counts = new ArrayList<>(ords.cardinality());
+
+        for(int ord = ords.nextSetBit(0); ord >= 0; ord = ords.nextSetBit(ord+1)) {
+            final PostingsEnum postings = reader.postings(new Term(index.getField(), index.getValue(ord)), PostingsEnum.NONE);
+            if(postings == null) continue;
+
+            int count = 0;
+            for(int doc = postings.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = postings.nextDoc()) {
+                if((liveDocs == null || liveDocs.get(doc)) && (filter == null || filter.exists(doc))) {
+                    matchingDocs.set(doc);
+                    count++;
+                }
+            }
+            if(count > 0) {
+                counts.add(new int[]{ord, count});
+            }
+        }
+
+        //same order as the terms facet: count desc, index order asc
+        counts.sort(Comparator.<int[]>comparingInt(c -> -c[1]).thenComparingInt(c -> c[0]));
+
+        final List<SimpleOrderedMap<Object>> buckets = new ArrayList<>();
+        for(int[] count : counts.subList(0, Math.min(internalFacetLimit, counts.size()))) {
+            final SimpleOrderedMap<Object> bucket = new SimpleOrderedMap<>();
+            bucket.add("val", index.getValue(count[0]));
+            bucket.add("count", count[1]);
+            buckets.add(bucket);
+        }
+
+        final SimpleOrderedMap<Object> terms_facet = new SimpleOrderedMap<>();
+        terms_facet.add("buckets", buckets);
+
+        final SimpleOrderedMap<Object> filter_facet = new SimpleOrderedMap<>();
+        filter_facet.add("count", matchingDocs.cardinality());
+        filter_facet.add(index.getField(), terms_facet);
+        return filter_facet;
+    }
+
+    private DocSet getFilter(SolrIndexSearcher searcher, String[] fqs, SolrQueryRequest req) throws IOException {
+        if(fqs == null) return null;
+
+        final List<Query> queries = new ArrayList<>();
+        for(String fq : fqs) {
+            try {
+                final Query q = QParser.getParser(fq, null, req).getQuery();
+                if(q != null) {
+                    queries.add(q);
+                }
+            } catch (SyntaxError e) {
+                log.debug("Cannot parse filter query {}, falling back to regex suggestions", fq);
+                return null;
+            }
+        }
+        return searcher.getDocSet(queries);
+    }
+
+    private PrefixIndex getIndex(SolrIndexSearcher searcher, String field) throws IOException {
+        final LeafReader reader = searcher.getLeafReader();
+        final Object key = reader.getCombinedCoreAndDeletesKey();
+
+        PrefixIndex index = indexes.get(field);
+        if(index == null || !index.isCurrent(key)) {
+            final long millis = System.currentTimeMillis();
+            index = PrefixIndex.build(reader, field);
+            indexes.put(field, index);
+            log.debug("Suggestion index for field {} with {} values built in {}ms", field, index.size(), System.currentTimeMillis() - millis);
+        }
+        return index;
+    }
+
+    private boolean isIndexable(SolrIndexSearcher searcher, String field) {
+        final SchemaField schemaField = searcher.getSchema().getFieldOrNull(field);
+        return schemaField != null && schemaField.indexed() && schemaField.getType() instanceof StrField;
+    }
+
+    static List<String> getTerms(String query, int termLimit) {
+        //same term handling as the regex based query
+        final List<String> terms = Arrays.asList(query.replaceAll("\\*", "").trim().split(" |\\+"));
+        return terms.size() > termLimit ? terms.subList(0, termLimit) : terms;
+    }
+}
@@ -0,0 +1,162 @@
+package com.rbmhtechnology.vind.solr.suggestion.service;
+
+import org.apache.solr.common.util.NamedList;
+import org.apache.solr.common.util.SimpleOrderedMap;
+import org.apache.solr.core.AbstractSolrEventListener;
+import org.apache.solr.core.SolrCore;
+import org.apache.solr.search.SolrIndexSearcher;
+import org.apache.solr.util.ConcurrentLRUCache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches the facets of single value suggestion queries keyed by filters, fields, analysis field, term limit
+ * and query. As users type one
+ * character at a time, a request for a longer prefix is answered by narrowing down the cached facets of a
+ * shorter prefix, as long as none of its buckets has been cut by the internal facet limit. Entries are bound
+ * to the version of the index reader they have been computed on and the cache is cleared whenever a new
+ * searcher is opened. The cache is disabled by default.
+ */
+public class SuggestionPrefixCache extends AbstractSolrEventListener {
+
+    public static final int DEFAULT_SIZE = 0;
+
+    private final ConcurrentLRUCache<String,Entry> cache;
+
+    private final int internalFacetLimit;
+
+    private final AtomicLong narrowings = new AtomicLong();
+
+    public SuggestionPrefixCache(SolrCore core, int size, int internalFacetLimit) {
+        super(core);
+        this.cache = size > 0 ? new ConcurrentLRUCache<>(size, (int) (size * 0.9)) : null;
+        this.internalFacetLimit = internalFacetLimit;
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    @Override
+    public void newSearcher(SolrIndexSearcher newSearcher, SolrIndexSearcher currentSearcher) {
+        if(cache != null) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * @param query the analyzed query
+     * @param fields the suggestion fields
+     * @param fqs the filter queries (may be null)
+     * @param df the field used for analysis
+     * @param termLimit the maximum number of terms considered
+     * @param version the version of the index reader the facets have to be computed on
+     * @return the facets for the query, either cached or narrowed down from the facets of the longest
+     * complete shorter prefix, or null if there are none
+     */
+    public SimpleOrderedMap get(String query, String[] fields, String[] fqs, String df, int termLimit, long version) {
+        if(cache == null) return null;
+
+        final String key = key(fields, fqs, df, termLimit, version);
+
+        final Entry exact = cache.get(key + query);
+        if(exact != null) {
+            return exact.facets;
+        }
+
+        for(int i = query.length() - 1; i > 0; i--) {
+            final Entry entry = cache.get(key + query.substring(0, i));
+            if(entry != null && entry.complete) {
+                final SimpleOrderedMap narrowed = narrow(entry.facets, fields, SuggestionIndexService.getTerms(query, termLimit));
+                cache.put(key + query, new Entry(narrowed, true));
+                narrowings.incrementAndGet();
+                return narrowed;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param query the analyzed query
+     * @param fields the suggestion fields
+     * @param fqs the filter queries (may be null)
+     * @param df the field used for analysis
+     * @param termLimit the maximum number of terms considered
+     * @param facets the json facets of the suggestion query
+     * @param version the version of the index reader the facets have been computed on
+     */
+    public void put(String query, String[] fields, String[] fqs, String df, int termLimit, SimpleOrderedMap facets, long version) {
+        if(cache == null) return;
+
+        boolean complete = true;
+        for(String field : fields) {
+            final NamedList filter = (NamedList) facets.get(field.concat("_filter"));
+            if(filter == null || filter.get(field) == null) {
+                //there are no buckets if the filter does not match any document
+                complete = filter != null;
+                continue;
+            }
+            final List buckets = (List) ((NamedList) filter.get(field)).get("buckets");
+            complete &= buckets.size() < internalFacetLimit;
+        }
+
+        cache.put(key(fields, fqs, df, termLimit, version) + query, new Entry(facets, complete));
+    }
+
+    /**
+     * @return the number of queries answered by narrowing down the facets of a shorter prefix
+     */
+    public long getNarrowings() {
+        return narrowings.get();
+    }
+
+    private SimpleOrderedMap narrow(SimpleOrderedMap facets, String[] fields, List<String> terms) {
+        final SimpleOrderedMap<Object> narrowed = new SimpleOrderedMap<>();
+        int total = 0;
+
+        for(String field : fields) {
+            final NamedList filter = (NamedList) facets.get(field.concat("_filter"));
+
+            final List<NamedList> buckets = new ArrayList<>();
+            if(filter != null && filter.get(field) != null) {
+                for(Object bucket : (List) ((NamedList) filter.get(field)).get("buckets")) {
+                    if(PrefixIndex.matches(((NamedList) bucket).get("val").toString(), terms)) {
+                        buckets.add((NamedList) bucket);
+                    }
+                }
+            }
+
+            final int count = buckets.stream().mapToInt(bucket -> (Integer) bucket.get("count")).sum();
+            total += count;
+
+            final SimpleOrderedMap<Object> terms_facet = new SimpleOrderedMap<>();
+            terms_facet.add("buckets", buckets);
+
+            final SimpleOrderedMap<Object> filter_facet = new SimpleOrderedMap<>();
+            filter_facet.add("count", count);
+            filter_facet.add(field, terms_facet);
+            narrowed.add(field.concat("_filter"), filter_facet);
+        }
+
+        narrowed.add("count", total > 0 ? facets.get("count") : 0);
+        return narrowed;
+    }
+
+    private String key(String[] fields, String[] fqs, String df, int termLimit, long version) {
+        return version + Arrays.toString(fields) + '\u0000' + (fqs != null ? Arrays.toString(fqs) : "") + '\u0000'
+                + df + '\u0000' + termLimit + '\u0000';
+    }
+
+    private static class Entry {
+        private final SimpleOrderedMap facets;
+        private final boolean complete;
+
+        private Entry(SimpleOrderedMap facets, boolean complete) {
+            this.facets = facets;
+            this.complete = complete;
+        }
+    }
+}
@@ -22,11 +22,17 @@ import org.apache.solr.handler.component.SearchHandler;
 import org.apache.solr.request.LocalSolrQueryRequest;
 import org.apache.solr.request.SolrQueryRequest;
 import org.apache.solr.response.SolrQueryResponse;
+import org.apache.solr.search.SolrIndexSearcher;
+import org.apache.solr.util.RefCounted;
 import org.joda.time.DateTime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 /**
@@ -47,11 +53,29 @@ public class SuggestionService {
 
     private boolean spellcheck_enabled = false;
 
+    private boolean spellcheck_parallel = false;
+
+    private boolean parallel_fields = false;
+
+    private boolean index_enabled = false;
+
     private SolrCore solrCore;
 
+    private SuggestionIndexService indexService;
+
+    private SuggestionPrefixCache prefixCache;
+
+    private SuggestionWarmer warmer;
+
     private SearchHandler searchHandler;
 
+    private ExecutorService executor;
+
     public SuggestionService(SolrCore solrCore, NamedList args) {
+        this(solrCore, args, null);
+    }
+
+    public SuggestionService(SolrCore solrCore, NamedList args, ExecutorService executor) {
 
         NamedList l = new NamedList();
 
@@ -67,10 +91,45 @@ public class SuggestionService {
             internalFacetLimit = (String)((NamedList)args.get("defaults")).get(SuggestionRequestParams.SUGGESTION_INTERNAL_LIMIT);
         }
 
+        if(args.get("defaults") != null && ((NamedList)args.get("defaults")).get(SuggestionRequestParams.SUGGESTION_INDEX) != null) {
+            index_enabled = Boolean.parseBoolean((String)((NamedList)args.get("defaults")).get(SuggestionRequestParams.SUGGESTION_INDEX));
+        }
+
+        if(args.get("defaults") != null && ((NamedList)args.get("defaults")).get(SuggestionRequestParams.SUGGESTION_ANALYZER_CACHE_SIZE) != null) {
+            FieldAnalyzerService.setCacheSize(solrCore, Integer.parseInt((String)((NamedList)args.get("defaults")).get(SuggestionRequestParams.SUGGESTION_ANALYZER_CACHE_SIZE)));
+        }
+
+        if(args.get("defaults") != null && ((NamedList)args.get("defaults")).get(SuggestionRequestParams.SUGGESTION_SPELLCHECK_PARALLEL) != null) {
+            spellcheck_parallel = Boolean.parseBoolean((String)((NamedList)args.get("defaults")).get(SuggestionRequestParams.SUGGESTION_SPELLCHECK_PARALLEL));
+        }
+
+        if(args.get("defaults") != null && ((NamedList)args.get("defaults")).get(SuggestionRequestParams.SUGGESTION_PARALLEL_FIELDS) != null) {
+            parallel_fields = Boolean.parseBoolean((String)((NamedList)args.get("defaults")).get(SuggestionRequestParams.SUGGESTION_PARALLEL_FIELDS));
+        }
+
         this.solrCore = solrCore;
+        this.executor = executor;
         this.searchHandler = new SearchHandler();
         this.searchHandler.init(l);
         this.searchHandler.inform(solrCore);
+
+        //prefix indexes are rebuilt on every new searcher
+        this.indexService = new SuggestionIndexService(solrCore, (NamedList)args.get("defaults"), Integer.valueOf(internalFacetLimit));
+        this.solrCore.registerNewSearcherListener(indexService);
+
+        int prefixCacheSize = SuggestionPrefixCache.DEFAULT_SIZE;
+        if(args.get("defaults") != null && ((NamedList)args.get("defaults")).get(SuggestionRequestParams.SUGGESTION_PREFIX_CACHE_SIZE) != null) {
+            prefixCacheSize = Integer.parseInt((String)((NamedList)args.get("defaults")).get(SuggestionRequestParams.SUGGESTION_PREFIX_CACHE_SIZE));
+        }
+        this.prefixCache = new SuggestionPrefixCache(solrCore, prefixCacheSize, Integer.valueOf(internalFacetLimit));
+        this.solrCore.registerNewSearcherListener(prefixCache);
+
+        //warm configured and recent suggestion queries on every new searcher
+        this.warmer = new SuggestionWarmer(solrCore, this, (NamedList)args.get("defaults"));
+        if(index_enabled) {
+            this.indexService.register(warmer.getFields());
+        }
+        this.solrCore.registerNewSearcherListener(warmer);
     }
 
     public void run(SolrQueryResponse rsp, SolrParams params, String query, String df, String[] fields, String[] singlevalue_fields, String[] multivalue_fields, String[] fqs, int termLimit, int limit, SuggestionRequestHandler.LimitType limitType, SuggestionRequestHandler.Type type, SuggestionRequestHandler.Strategy strategy, String suggestionField, Map<String, Map<String,Object>> intervals) {
@@ -80,47 +139,102 @@ public class SuggestionService {
 
         SuggestionResult[] result = null;
 
-        Object spellcheck_result;
+        final boolean single_value = type == SuggestionRequestHandler.Type.single && (intervals == null || intervals.isEmpty());
+        final long version = getIndexVersion();
 
-        SolrQueryResponse response = query(query,params,df,fields,fqs,termLimit,suggestionField,intervals);
+        if(single_value) {
+            warmer.record(query, df, fields, fqs, termLimit);
+        }
 
-        if(response.getValues().get("facets") instanceof SimpleOrderedMap) {
-            SimpleOrderedMap facets = (SimpleOrderedMap) response.getValues().get("facets");
-            if((Integer) facets.get("count") > 0) {
-                result = createResults(response, singlevalue_fields, multivalue_fields, query, df,type,termLimit, limit, limitType, strategy,suggestionField,intervals);
+        //narrow down the cached facets of a shorter prefix
+        if(single_value && prefixCache.isEnabled()) {
+            SimpleOrderedMap cached_facets = prefixCache.get(query, fields, fqs, df, termLimit, version);
+            if(cached_facets != null && (Integer) cached_facets.get("count") > 0) {
+                SolrQueryResponse cached_response = new SolrQueryResponse();
+                cached_response.add("facets", cached_facets);
+                result = createResults(cached_response, singlevalue_fields, multivalue_fields, query, df,type,termLimit, limit, limitType, strategy,suggestionField,intervals);
             }
-        } else {
-            SolrDocumentList doclist = (SolrDocumentList) response.getValues().get("facet");
-            if(doclist.getNumFound() > 0) {
-                result = createResults(response, singlevalue_fields, multivalue_fields, query, df,type,termLimit, limit, limitType, strategy,suggestionField,intervals);
+            if(result != null) {
+                if(result[0] != null) rsp.add(SuggestionResultParams.SUGGESTIONS, result[0].write());
+                return;
+            }
+        }
+
+        //try the in-memory prefix index first, the regex facet query is the fallback
+        if(single_value && params.getBool(SuggestionRequestParams.SUGGESTION_INDEX, index_enabled)) {
+            SolrQueryResponse index_response = indexService.query(query, fields, fqs, termLimit);
+            if(index_response != null) {
+                SimpleOrderedMap facets = (SimpleOrderedMap) index_response.getValues().get("facets");
+                prefixCache.put(query, fields, fqs, df, termLimit, facets, version);
+                if((Integer) facets.get("count") > 0) {
+                    result = createResults(index_response, singlevalue_fields, multivalue_fields, query, df,type,termLimit, limit, limitType, strategy,suggestionField,intervals);
+                }
+            }
+            if(result != null) {
+                if(result[0] != null) rsp.add(SuggestionResultParams.SUGGESTIONS, result[0].write());
+                return;
+            }
+        }
+
+        //speculatively run the spellcheck and the query for its collation in parallel to the original query
+        //(a task, so cancelling it interrupts the thread running it)
+        FutureTask<SpellcheckedResponse> speculative_spellcheck = null;
+        if(spellcheck_enabled && executor != null && params.getBool(SuggestionRequestParams.SUGGESTION_SPELLCHECK_PARALLEL, spellcheck_parallel)) {
+            final String original_query = query;
+            final FutureTask<SpellcheckedResponse> task = new FutureTask<>(() ->
+                    querySpellchecked(spellcheck(original_query, params, fqs, termLimit), params, df, fields, fqs, termLimit, suggestionField, intervals));
+            try {
+                executor.execute(task);
+                speculative_spellcheck = task;
+            } catch (RejectedExecutionException e) {
+                log.debug("Suggestion executor rejected speculative spellcheck, running it with the original query");
             }
         }
 
+        //the original query only runs the spellcheck component if it is not run speculatively
+        SolrQueryResponse response = query(query,params,df,fields,fqs,termLimit,suggestionField,intervals,spellcheck_enabled && speculative_spellcheck == null);
+
+        if(single_value && response.getValues().get("facets") instanceof SimpleOrderedMap) {
+            prefixCache.put(query, fields, fqs, df, termLimit, (SimpleOrderedMap) response.getValues().get("facets"), version);
+        }
+
+        if(hasResults(response)) {
+            result = createResults(response, singlevalue_fields, multivalue_fields, query, df,type,termLimit, limit, limitType, strategy,suggestionField,intervals);
+        }
+
         //if no results, try spellcheck (if defined and if spellchecked query differs from original)
         if(result == null && spellcheck_enabled) {
-            String spellchecked_query = getSpellcheckedQuery(response);
-            spellcheck_result = response.getValues().get("spellcheck");
+            SpellcheckedResponse spellchecked = null;
+            if(speculative_spellcheck != null) {
+                //run the task in this thread if it has not been picked up yet
+                speculative_spellcheck.run();
+                try {
+                    spellchecked = speculative_spellcheck.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SolrException(SolrException.ErrorCode.SERVER_ERROR,"suggestion query interrupted", e);
+                } catch (ExecutionException e) {
+                    log.warn("Speculative spellcheck suggestion query failed, retrying sequentially: {}", e.getCause().getMessage());
+                    spellchecked = querySpellchecked(spellcheck(query, params, fqs, termLimit), params, df, fields, fqs, termLimit, suggestionField, intervals);
+                }
+            } else {
+                spellchecked = querySpellchecked(response, params, df, fields, fqs, termLimit, suggestionField, intervals);
+            }
 
             //query with spellchecked query
-            if(spellchecked_query != null) {
-                SolrQueryResponse spellcheck_response = query(spellchecked_query,params,df,fields,fqs,termLimit,suggestionField,intervals);
-                if(spellcheck_response.getValues().get("facets") instanceof SimpleOrderedMap) {
-                    SimpleOrderedMap facets = (SimpleOrderedMap) spellcheck_response.getValues().get("facets");
-                    if((Integer) facets.get("count") > 0) {
-                        result = createResults(spellcheck_response, singlevalue_fields, multivalue_fields, spellchecked_query, df,type, termLimit, limit, limitType, strategy,suggestionField,intervals);
-                    }
-                } else {
-                    SolrDocumentList doclist = (SolrDocumentList) spellcheck_response.getValues().get("facet");
-                    if(doclist.getNumFound() > 0) {
-                        result = createResults(spellcheck_response, singlevalue_fields, multivalue_fields, spellchecked_query, df,type, termLimit, limit, limitType, strategy,suggestionField,intervals);
-                    }
+            if(spellchecked != null) {
+                if(hasResults(spellchecked.response)) {
+                    result = createResults(spellchecked.response, singlevalue_fields, multivalue_fields, spellchecked.query, df,type, termLimit, limit, limitType, strategy,suggestionField,intervals);
                 }
                 //add result of spellcheck component
-                if(spellcheck_result != null && result != null) {
+                if(spellchecked.spellcheck != null && result != null) {
                     //TODO remove * on last position of collation
-                    rsp.add("spellcheck",spellcheck_result);
+                    rsp.add("spellcheck",spellchecked.spellcheck);
                 }
             }
+        } else if(speculative_spellcheck != null) {
+            //the original query wins
+            speculative_spellcheck.cancel(true);
         }
 
         if(result == null) {
@@ -131,6 +245,110 @@ public class SuggestionService {
         if(result[1] != null) rsp.add(SuggestionResultParams.MULTI_SUGGESTIONS, result[1].write());
     }
 
+    /**
+     * runs a single value suggestion query on the given (new) searcher and caches its facets
+     * @param searcher the searcher to warm
+     * @param query the analyzed query
+     * @param df the field used for analysis
+     * @param fields the suggestion fields
+     * @param fqs the filter queries (may be null)
+     * @param termLimit the maximum number of terms considered
+     */
+    public void warm(SolrIndexSearcher searcher, String query, String df, String[] fields, String[] fqs, int termLimit) {
+        final SolrQueryResponse response = query(query, new ModifiableSolrParams(), df, fields, fqs, termLimit, null, Collections.emptyMap(), false, searcher);
+        if(response.getValues().get("facets") instanceof SimpleOrderedMap) {
+            prefixCache.put(query, fields, fqs, df, termLimit, (SimpleOrderedMap) response.getValues().get("facets"), searcher.getIndexReader().getVersion());
+        }
+    }
+
+    public SuggestionPrefixCache getPrefixCache() {
+        return prefixCache;
+    }
+
+    SuggestionWarmer getWarmer() {
+        return warmer;
+    }
+
+    private long getIndexVersion() {
+        final RefCounted<SolrIndexSearcher> searcher = solrCore.getSearcher();
+        try {
+            return searcher.get().getIndexReader().getVersion();
+        } finally {
+            searcher.decref();
+        }
+    }
+
+    private boolean hasResults(SolrQueryResponse response) {
+        if(response.getValues().get("facets") instanceof SimpleOrderedMap) {
+            SimpleOrderedMap facets = (SimpleOrderedMap) response.getValues().get("facets");
+            return (Integer) facets.get("count") > 0;
+        } else {
+            SolrDocumentList doclist = (SolrDocumentList) response.getValues().get("facet");
+            return doclist.getNumFound() > 0;
+        }
+    }
+
+    /**
+     * runs the suggestion query for the spellcheck collation contained in a response
+     * @return the response for the spellchecked query or null if there is no collation
+     */
+    private SpellcheckedResponse querySpellchecked(SolrQueryResponse spellcheck_response, SolrParams params, String df, String[] fields, String[] fqs, int termLimit, String suggestionField, Map<String,Map<String,Object>> intervals) {
+        String spellchecked_query = getSpellcheckedQuery(spellcheck_response);
+        if(spellchecked_query == null) return null;
+
+        return new SpellcheckedResponse(
+                spellchecked_query,
+                spellcheck_response.getValues().get("spellcheck"),
+                query(spellchecked_query,params,df,fields,fqs,termLimit,suggestionField,intervals,false));
+    }
+
+    /**
+     * runs the spellcheck component only, without any facets
+     */
+    private SolrQueryResponse spellcheck(String query, SolrParams original_params, String[] fqs, int termLimit) {
+        SolrQueryResponse rsp = new SolrQueryResponse();
+
+        ModifiableSolrParams params = new ModifiableSolrParams();
+        SolrQueryRequest req = new LocalSolrQueryRequest( solrCore, params );
+        params.set(CommonParams.Q, "*:*");
+        params.set(CommonParams.ROWS, 0);
+        if(fqs != null) {
+            for(String fq : fqs) {
+                params.add(CommonParams.FQ,fq);
+            }
+        }
+        params.add("spellcheck","true");
+        params.add("spellcheck.q",String.join(" ",SuggestionIndexService.getTerms(query, termLimit)).concat("*"));
+        params.add("spellcheck.collate","true");
+        final String accuarcy = original_params.get("spellcheck.accuracy");
+        if(Objects.nonNull(accuarcy)) {
+            params.add("spellcheck.accuracy", accuarcy);
+        }
+
+        try {
+            searchHandler.handleRequestBody(req, rsp);
+            return rsp;
+        } catch (SolrException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new SolrException(SolrException.ErrorCode.SERVER_ERROR,"internal server error", e);
+        } finally {
+            req.close();
+        }
+    }
+
+    private static class SpellcheckedResponse {
+        private final String query;
+        private final Object spellcheck;
+        private final SolrQueryResponse response;
+
+        private SpellcheckedResponse(String query, Object spellcheck, SolrQueryResponse response) {
+            this.query = query;
+            this.spellcheck = spellcheck;
+            this.response = response;
+        }
+    }
+
     private SuggestionResult[] createEmptyResults(SuggestionRequestHandler.Type type, int limit, SuggestionRequestHandler.LimitType limitType) {
         SuggestionResult[] result = new SuggestionResult[2];
         switch (type) {
@@ -182,6 +400,71 @@ public class SuggestionService {
     }
 
     private SolrQueryResponse query(String query, SolrParams original_params, String df, String[] fields, String[] fqs, int termLimit, String suggestionField, Map<String,Map<String,Object>> intervals) {
+        return query(query, original_params, df, fields, fqs, termLimit, suggestionField, intervals, spellcheck_enabled);
+    }
+
+    private SolrQueryResponse query(String query, SolrParams original_params, String df, String[] fields, String[] fqs, int termLimit, String suggestionField, Map<String,Map<String,Object>> intervals, boolean spellcheck) {
+        if(fields.length > 1 && executor != null && original_params.getBool(SuggestionRequestParams.SUGGESTION_PARALLEL_FIELDS, parallel_fields)) {
+            return queryParallel(query, original_params, df, fields, fqs, termLimit, suggestionField, intervals, spellcheck);
+        }
+        return query(query, original_params, df, fields, fqs, termLimit, suggestionField, intervals, spellcheck, null);
+    }
+
+    /**
+     * evaluates the facet filter of each field in a request of its own on the executor and merges the facets
+     * into the response of the first field, which is evaluated in the calling thread and carries the spellcheck if requested
+     */
+    private SolrQueryResponse queryParallel(String query, SolrParams original_params, String df, String[] fields, String[] fqs, int termLimit, String suggestionField, Map<String,Map<String,Object>> intervals, boolean spellcheck) {
+        final List<FutureTask<SolrQueryResponse>> tasks = new ArrayList<>();
+        for(int i = 1; i < fields.length; i++) {
+            final String[] field = {fields[i]};
+            final FutureTask<SolrQueryResponse> task = new FutureTask<>(() -> query(query, original_params, df, field, fqs, termLimit, suggestionField, intervals, false, null));
+            tasks.add(task);
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                log.debug("Suggestion executor rejected facet query for field {}, running it in the request thread", field[0]);
+            }
+        }
+
+        final SolrQueryResponse rsp = query(query, original_params, df, new String[]{fields[0]}, fqs, termLimit, suggestionField, intervals, spellcheck, null);
+        final NamedList facets = (NamedList) rsp.getValues().get("facets");
+
+        for(FutureTask<SolrQueryResponse> task : tasks) {
+            //run the task in this thread if it has not been picked up yet, so a saturated executor cannot block the request
+            task.run();
+            try {
+                mergeFacets(facets, (NamedList) task.get().getValues().get("facets"));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SolrException(SolrException.ErrorCode.SERVER_ERROR,"suggestion query interrupted", e);
+            } catch (ExecutionException e) {
+                if(e.getCause() instanceof SolrException) {
+                    throw (SolrException) e.getCause();
+                }
+                throw new SolrException(SolrException.ErrorCode.SERVER_ERROR,"internal server error", e.getCause());
+            }
+        }
+        return rsp;
+    }
+
+    private void mergeFacets(NamedList target, NamedList source) {
+        if(target == null || source == null) return;
+        for(int i = 0; i < source.size(); i++) {
+            final String name = source.getName(i);
+            final Object value = source.getVal(i);
+            if("count".equals(name)) continue;
+            //each field has a filter facet of its own, with the interval facets nested inside, so the facets of
+            //different fields are just added; facets of the same name are merged
+            if(value instanceof NamedList && target.get(name) instanceof NamedList) {
+                mergeFacets((NamedList) target.get(name), (NamedList) value);
+            } else {
+                target.add(name, value);
+            }
+        }
+    }
+
+    private SolrQueryResponse query(String query, SolrParams original_params, String df, String[] fields, String[] fqs, int termLimit, String suggestionField, Map<String,Map<String,Object>> intervals, boolean spellcheck, SolrIndexSearcher searcher) {
 
         SolrQueryResponse rsp = new SolrQueryResponse();
 
@@ -220,7 +503,12 @@ public class SuggestionService {
         //params.add(original_params);
 
         //add other params
-        SolrQueryRequest req = new LocalSolrQueryRequest( solrCore, params );
+        SolrQueryRequest req = searcher == null ? new LocalSolrQueryRequest( solrCore, params ) : new LocalSolrQueryRequest( solrCore, params ) {
+            @Override
+            public SolrIndexSearcher getSearcher() {
+                return searcher;
+            }
+        };
         params.set(CommonParams.Q, "*:*");
         params.set(CommonParams.DF, df);
         params.set("q.op", "AND");
@@ -261,29 +549,32 @@ public class SuggestionService {
             final Map<String,Object> filterMap = new HashMap<>();
             filterMap.put("type", Pivot.facetType.query.name());
             filterMap.put("q",fieldQueryRegex);
-            filterMap.put("facet",fieldMapNamed);
+
+            //////////////////
+            //Adding Intervals
+            //////////////////
+            //the intervals are nested into the field filter, so the regex is evaluated once per field
+            if(original_params.getBool(SuggestionRequestParams.SUGGESTION_INTERVAL,false) && !intervals.isEmpty()){
+                final Map<String,Object> intervalsJson = new HashMap<>();
+                intervals.keySet().forEach(intervalKey -> {
+                    final Map<String, Object> intervalMap = intervals.get(intervalKey);
+                    final Map<String,Object> intervalJson = new HashMap<>();
+                    intervalJson.put("type", Pivot.facetType.query.name());
+                    intervalJson.put("q", String.format(INTERVAL_QUERY, suggestionField, intervalMap.get("start"), intervalMap.get("end")));
+                    intervalJson.put("facet",fieldMapNamed);
+
+                    intervalsJson.put(intervalKey, intervalJson);
+                });
+                filterMap.put("facet",intervalsJson);
+            } else {
+                filterMap.put("facet",fieldMapNamed);
+            }
 
             filterMapNamed.put(field.concat("_filter"),filterMap);
 
             queryRegex.add(fieldQueryRegex);
         }
 
-        //////////////////
-        //Adding Intervals
-        //////////////////
-        final Map<String,Object> intervalsJson = new HashMap<>();
-        if(original_params.getBool(SuggestionRequestParams.SUGGESTION_INTERVAL,false) && !intervals.isEmpty()){
-            intervals.keySet().forEach(intervalKey -> {
-                final Map<String, Object> intervalMap = intervals.get(intervalKey);
-                final Map<String,Object> intervalJson = new HashMap<>();
-                intervalJson.put("type", Pivot.facetType.query.name());
-                intervalJson.put("q", String.format(INTERVAL_QUERY, suggestionField, intervalMap.get("start"), intervalMap.get("end")));
-                intervalJson.put("facet",filterMapNamed);
-
-                intervalsJson.put(intervalKey, intervalJson);
-            });
-
-        }
         //Filtering here provides smaller response but takes more time, better skip this general query
         //final String prefixSolrQuery = String.join(" OR ", queryRegex.stream().map(term -> "("+term+")").collect(Collectors.toList()));
         //params.set(CommonParams.Q, prefixSolrQuery);
@@ -295,7 +586,7 @@ public class SuggestionService {
             }
         }
 
-        if(spellcheck_enabled) {
+        if(spellcheck) {
             params.add("spellcheck","true");
             params.add("spellcheck.q",String.join(" ",terms).concat("*") );
             params.add("spellcheck.collate","true");
@@ -306,13 +597,8 @@ public class SuggestionService {
         }
 
         final Map<String,Object> jsonFacet = new HashMap<>();
-        if(original_params.getBool(SuggestionRequestParams.SUGGESTION_INTERVAL, false) && !intervalsJson.isEmpty()){
-            jsonFacet.put("facet",intervalsJson);
-            req.setJSON(jsonFacet);
-        } else {
-            jsonFacet.put("facet", filterMapNamed);
-            req.setJSON(jsonFacet);
-        }
+        jsonFacet.put("facet", filterMapNamed);
+        req.setJSON(jsonFacet);
 
         try {
             log.info("internal request: {}", req.toString());
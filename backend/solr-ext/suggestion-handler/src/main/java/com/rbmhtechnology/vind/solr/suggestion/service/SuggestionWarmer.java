@@ -0,0 +1,148 @@
+package com.rbmhtechnology.vind.solr.suggestion.service;
+
+import com.rbmhtechnology.vind.solr.suggestion.params.SuggestionRequestParams;
+import org.apache.solr.common.util.NamedList;
+import org.apache.solr.core.AbstractSolrEventListener;
+import org.apache.solr.core.SolrCore;
+import org.apache.solr.search.SolrIndexSearcher;
+import org.apache.solr.util.ConcurrentLRUCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Warms the suggestion queries of a new searcher, so the first suggestion requests after a commit do not
+ * hit cold facet structures. Replays the configured prefixes on the configured fields and, optionally, the
+ * most recent distinct suggestion requests.
+ */
+public class SuggestionWarmer extends AbstractSolrEventListener {
+
+    private final Logger log = LoggerFactory.getLogger(this.getClass());
+
+    private static final int DEFAULT_TERM_LIMIT = 10;
+
+    private final SuggestionService suggestionService;
+
+    private final String df;
+    private final int termLimit;
+    private final String[] fields;
+    private final List<String> prefixes = new ArrayList<>();
+
+    private final int recentSize;
+    //most recently used requests, null if disabled
+    private final ConcurrentLRUCache<RecentQuery,Boolean> recent;
+
+    public SuggestionWarmer(SolrCore core, SuggestionService suggestionService, NamedList defaults) {
+        super(core);
+        this.suggestionService = suggestionService;
+
+        final NamedList args = defaults != null ? defaults : new NamedList();
+
+        df = (String) args.get(SuggestionRequestParams.SUGGESTION_DF);
+        termLimit = args.get(SuggestionRequestParams.SUGGESTION_TERM_LIMIT) != null ?
+                Integer.parseInt((String) args.get(SuggestionRequestParams.SUGGESTION_TERM_LIMIT)) : DEFAULT_TERM_LIMIT;
+
+        final List<String> warm_fields = new ArrayList<>();
+        for(Object field : args.getAll(SuggestionRequestParams.SUGGESTION_WARM_FIELD)) {
+            warm_fields.add(field.toString());
+        }
+        fields = warm_fields.toArray(new String[warm_fields.size()]);
+
+        for(Object prefix : args.getAll(SuggestionRequestParams.SUGGESTION_WARM_PREFIX)) {
+            prefixes.add(prefix.toString());
+        }
+
+        recentSize = args.get(SuggestionRequestParams.SUGGESTION_WARM_RECENT) != null ?
+                Integer.parseInt((String) args.get(SuggestionRequestParams.SUGGESTION_WARM_RECENT)) : 0;
+        //the cache is swept down to the recent size once it holds twice as many requests
+        recent = recentSize > 0 ? new ConcurrentLRUCache<>(recentSize * 2, recentSize) : null;
+    }
+
+    public String[] getFields() {
+        return fields;
+    }
+
+    /**
+     * remembers a suggestion request to be replayed on the next new searcher
+     * @param query the analyzed query
+     * @param df the field used for analysis
+     * @param fields the suggestion fields
+     * @param fqs the filter queries (may be null)
+     * @param termLimit the maximum number of terms considered
+     */
+    public void record(String query, String df, String[] fields, String[] fqs, int termLimit) {
+        if(recent != null) {
+            recent.put(new RecentQuery(query, df, fields, fqs, termLimit), Boolean.TRUE);
+        }
+    }
+
+    @Override
+    public void newSearcher(SolrIndexSearcher newSearcher, SolrIndexSearcher currentSearcher) {
+        final long millis = System.currentTimeMillis();
+        int count = 0;
+
+        if(fields.length > 0 && df != null) {
+            for(String prefix : prefixes) {
+                final String query = FieldAnalyzerService.analyzeString(getCore(), df, prefix);
+                count += warm(newSearcher, query, df, fields, null, termLimit);
+            }
+        }
+
+        if(recent != null) {
+            for(RecentQuery q : recent.getLatestAccessedItems(recentSize).keySet()) {
+                count += warm(newSearcher, q.query, q.df, q.fields, q.fqs, q.termLimit);
+            }
+        }
+
+        if(count > 0) {
+            log.info("Warmed {} suggestion queries in {}ms", count, System.currentTimeMillis() - millis);
+        }
+    }
+
+    private int warm(SolrIndexSearcher searcher, String query, String df, String[] fields, String[] fqs, int termLimit) {
+        try {
+            suggestionService.warm(searcher, query, df, fields, fqs, termLimit);
+            return 1;
+        } catch (Exception e) {
+            log.warn("Could not warm suggestions for '{}' on fields {}: {}", query, Arrays.toString(fields), e.getMessage());
+            return 0;
+        }
+    }
+
+    private static class RecentQuery {
+        private final String query;
+        private final String df;
+        private final String[] fields;
+        private final String[] fqs;
+        private final int termLimit;
+
+        private RecentQuery(String query, String df, String[] fields, String[] fqs, int termLimit) {
+            this.query = query;
+            this.df = df;
+            this.fields = fields;
+            this.fqs = fqs;
+            this.termLimit = termLimit;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            RecentQuery that = (RecentQuery) o;
+            return termLimit == that.termLimit &&
+                    Objects.equals(query, that.query) &&
+                    Objects.equals(df, that.df) &&
+                    Arrays.equals(fields, that.fields) &&
+                    Arrays.equals(fqs, that.fqs);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(query, df, Arrays.hashCode(fields), Arrays.hashCode(fqs), termLimit);
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package com.rbmhtechnology.vind.solr.suggestion;
 import com.rbmhtechnology.vind.solr.suggestion.params.SuggestionRequestParams;
+import com.rbmhtechnology.vind.solr.suggestion.service.SuggestionPrefixCache;
 import io.redlink.utils.PathUtils;
 import io.redlink.utils.ResourceLoaderUtils;
 import org.apache.solr.SolrTestCaseJ4;
 import org.apache.solr.common.params.CommonParams;
 import org.apache.solr.common.params.ModifiableSolrParams;
+import org.apache.solr.common.util.NamedList;
 import org.apache.solr.core.SolrCore;
 import org.apache.solr.request.LocalSolrQueryRequest;
 import org.apache.solr.request.SolrQueryRequest;
@@ -13,6 +15,8 @@ import org.junit.*;
 import org.junit.rules.TemporaryFolder;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
 
 /**
  * http://svn.apache.org/viewvc/lucene/dev/trunk/solr/core/src/test/org/apache/solr/handler/MoreLikeThisHandlerTest.java?view=markup
@@ -189,6 +193,101 @@ public class SuggestionRequestHandlerTest extends SolrTestCaseJ4 {
 
     }
 
+    @Test
+    public void multiValueSuggestionTest() {
+
+        ModifiableSolrParams params = new ModifiableSolrParams();
+
+        params.add(SuggestionRequestParams.SUGGESTION,"true");
+        params.add(CommonParams.Q,"vettel");
+        params.add(CommonParams.QT,"/suggester");
+        params.add(SuggestionRequestParams.SUGGESTION_MULTIVALUE_FIELD,"dynamic_multi_stored_suggest_string_name");
+        params.add(SuggestionRequestParams.SUGGESTION_MULTIVALUE_FIELD,"dynamic_multi_stored_suggest_string_place");
+
+        SolrQueryRequest req = new LocalSolrQueryRequest( core, params );
+
+        assertQ("suggester - multi value suggestion for 'vettel'",req,
+                "//response/lst[@name='multisuggestions']/int[@name='suggestion_count'][.='1']",
+                "//response/lst[@name='multisuggestions']/lst[@name='suggestion_facets']/lst[@name='sebastian vettel']/int[@name='count'][.='2']");
+
+    }
+
+    @Test
+    public void parallelMultiFacetSuggestionTest() {
+
+        ModifiableSolrParams params = new ModifiableSolrParams();
+
+        params.add(SuggestionRequestParams.SUGGESTION,"true");
+        params.add(SuggestionRequestParams.SUGGESTION_PARALLEL_FIELDS,"true");
+        params.add(CommonParams.Q,"S");
+        params.add(CommonParams.QT,"/suggester");
+        params.add(SuggestionRequestParams.SUGGESTION_FIELD,"dynamic_multi_stored_suggest_string_place");
+        params.add(SuggestionRequestParams.SUGGESTION_FIELD,"dynamic_multi_stored_suggest_string_name");
+
+        SolrQueryRequest req = new LocalSolrQueryRequest( core, params );
+
+        assertQ("suggester - parallel facet suggestion for 'S'",req,
+                "//response/lst[@name='suggestions']/int[@name='suggestion_count'][.='3']",
+                "//response/lst[@name='suggestions']/lst[@name='suggestion_facets']/lst[@name='dynamic_multi_stored_suggest_string_name']/int[@name='sebastian vettel'][.='2']",
+                "//response/lst[@name='suggestions']/lst[@name='suggestion_facets']/lst[@name='dynamic_multi_stored_suggest_string_name']/int[@name='stefan Bradl'][.='1']",
+                "//response/lst[@name='suggestions']/lst[@name='suggestion_facets']/lst[@name='dynamic_multi_stored_suggest_string_place']/int[@name='suzuka'][.='2']");
+
+    }
+
+    @Test
+    public void intervalSuggestionTest() {
+        assertU(adoc("_id_", "7",
+                "_type_","Asset",
+                "dynamic_multi_stored_suggest_string_name", "sebastian loeb",
+                "dynamic_single_stored_suggest_string_team", "Sebring Rally",
+                "dynamic_single_stored_filter_date_created", "NOW-1DAY"));
+        assertU(adoc("_id_", "8",
+                "_type_","Asset",
+                "dynamic_multi_stored_suggest_string_name", "sebastian loeb",
+                "dynamic_single_stored_suggest_string_team", "Sebring Racing",
+                "dynamic_single_stored_filter_date_created", "NOW-30DAYS"));
+        assertU(commit());
+
+        try {
+            ModifiableSolrParams params = new ModifiableSolrParams();
+
+            params.add(SuggestionRequestParams.SUGGESTION,"true");
+            params.add(CommonParams.Q,"seb");
+            params.add(CommonParams.QT,"/suggester");
+            //a multi valued and a single valued field
+            params.add(SuggestionRequestParams.SUGGESTION_FIELD,"dynamic_multi_stored_suggest_string_name");
+            params.add(SuggestionRequestParams.SUGGESTION_FIELD,"dynamic_single_stored_suggest_string_team");
+            params.add(SuggestionRequestParams.SUGGESTION_INTERVAL,"true");
+            params.add(SuggestionRequestParams.SUGGESTION_INTERVAL_FIELD,"dynamic_single_stored_filter_date_created");
+            params.add(SuggestionRequestParams.SUGGESTION_INTERVAL_LABEL,"recent");
+            params.add(SuggestionRequestParams.SUGGESTION_INTERVAL_LABEL,"older");
+            params.add(String.format(SuggestionRequestParams.SUGGESTION_INTERVAL_RANGE_START,"recent"),"NOW-7DAYS");
+            params.add(String.format(SuggestionRequestParams.SUGGESTION_INTERVAL_RANGE_END,"recent"),"NOW");
+            params.add(String.format(SuggestionRequestParams.SUGGESTION_INTERVAL_RANGE_START,"older"),"NOW-1YEAR");
+            params.add(String.format(SuggestionRequestParams.SUGGESTION_INTERVAL_RANGE_END,"older"),"NOW-7DAYS");
+
+            //the facets of each interval are read from facets.<field>_filter.<interval>.<field>
+            final String[] expected = {
+                    "//response/lst[@name='suggestions']/lst[@name='suggestion_intervals']/lst[@name='recent']/int[@name='suggestion_count'][.='2']",
+                    "//response/lst[@name='suggestions']/lst[@name='suggestion_intervals']/lst[@name='recent']/lst[@name='suggestion_facets']/lst[@name='dynamic_multi_stored_suggest_string_name']/int[@name='sebastian loeb'][.='1']",
+                    "//response/lst[@name='suggestions']/lst[@name='suggestion_intervals']/lst[@name='recent']/lst[@name='suggestion_facets']/lst[@name='dynamic_single_stored_suggest_string_team']/int[@name='Sebring Rally'][.='1']",
+                    "//response/lst[@name='suggestions']/lst[@name='suggestion_intervals']/lst[@name='older']/int[@name='suggestion_count'][.='2']",
+                    "//response/lst[@name='suggestions']/lst[@name='suggestion_intervals']/lst[@name='older']/lst[@name='suggestion_facets']/lst[@name='dynamic_multi_stored_suggest_string_name']/int[@name='sebastian loeb'][.='1']",
+                    "//response/lst[@name='suggestions']/lst[@name='suggestion_intervals']/lst[@name='older']/lst[@name='suggestion_facets']/lst[@name='dynamic_single_stored_suggest_string_team']/int[@name='Sebring Racing'][.='1']"
+            };
+
+            assertQ("suggester - interval suggestion for 'seb'", new LocalSolrQueryRequest( core, params ), expected);
+
+            //the interval facets of fields queried in parallel are merged per field filter
+            params.add(SuggestionRequestParams.SUGGESTION_PARALLEL_FIELDS,"true");
+            assertQ("suggester - parallel interval suggestion for 'seb'", new LocalSolrQueryRequest( core, params ), expected);
+        } finally {
+            assertU(delI("7"));
+            assertU(delI("8"));
+            assertU(commit());
+        }
+    }
+
     @Test
     public void spellcheckSuggestionTest() {
 
@@ -209,6 +308,34 @@ public class SuggestionRequestHandlerTest extends SolrTestCaseJ4 {
 
     }
 
+    @Test
+    public void parallelSpellcheckSuggestionTest() {
+
+        ModifiableSolrParams params = new ModifiableSolrParams();
+
+        params.add(SuggestionRequestParams.SUGGESTION,"true");
+        params.add(SuggestionRequestParams.SUGGESTION_SPELLCHECK_PARALLEL,"true");
+        params.add(CommonParams.QT,"/suggester");
+        params.add(CommonParams.Q,"sepastian");
+        params.add(SuggestionRequestParams.SUGGESTION_FIELD,"dynamic_multi_stored_suggest_string_name");
+        params.add(SuggestionRequestParams.SUGGESTION_DF,"suggestions");
+
+        SolrQueryRequest req = new LocalSolrQueryRequest( core, params );
+
+        assertQ("suggester - parallel spellcheck suggestion for 'sepastian'",req,
+                "//response/lst[@name='suggestions']/int[@name='suggestion_count'][.='1']",
+                "//response/lst[@name='suggestions']/lst[@name='suggestion_facets']/lst[@name='dynamic_multi_stored_suggest_string_name']/int[@name='sebastian vettel'][.='2']",
+                "//response/lst[@name='spellcheck']/lst[@name='collations']/str[@name='collation'][.='sebastian*']");
+
+        params.set(CommonParams.Q, "vettel");
+        req = new LocalSolrQueryRequest( core, params );
+
+        assertQ("suggester - parallel spellcheck suggestion for 'vettel'",req,
+                "//response/lst[@name='suggestions']/int[@name='suggestion_count'][.='1']",
+                "//response/lst[@name='suggestions']/lst[@name='suggestion_facets']/lst[@name='dynamic_multi_stored_suggest_string_name']/int[@name='sebastian vettel'][.='2']",
+                "not(//response/lst[@name='spellcheck'])");
+    }
+
     @Test
     public void fqParameterTest() {
 
@@ -228,6 +355,111 @@ public class SuggestionRequestHandlerTest extends SolrTestCaseJ4 {
 
     }
 
+    @Test
+    public void prefixIndexTest() {
+
+        ModifiableSolrParams params = new ModifiableSolrParams();
+
+        params.add(SuggestionRequestParams.SUGGESTION,"true");
+        params.add(SuggestionRequestParams.SUGGESTION_INDEX,"true");
+        params.add(CommonParams.QT,"/suggester");
+        params.add(CommonParams.Q,"S");
+        params.add(SuggestionRequestParams.SUGGESTION_FIELD,"dynamic_multi_stored_suggest_string_name");
+
+        SolrQueryRequest req = new LocalSolrQueryRequest( core, params );
+
+        assertQ("suggester - prefix index suggestion for 'S'",req,
+                "//response/lst[@name='suggestions']/int[@name='suggestion_count'][.='2']",
+                "//response/lst[@name='suggestions']/lst[@name='suggestion_facets']/lst[@name='dynamic_multi_stored_suggest_string_name']/int[@name='sebastian vettel'][.='2']",
+                "//response/lst[@name='suggestions']/lst[@name='suggestion_facets']/lst[@name='dynamic_multi_stored_suggest_string_name']/int[@name='stefan Bradl'][.='1']");
+
+        params.set(CommonParams.Q, "vettel");
+        params.add(CommonParams.FQ,"dynamic_multi_stored_suggest_string_place:\"(1328869589310-619798898)\"");
+        req = new LocalSolrQueryRequest( core, params );
+
+        assertQ("suggester - prefix index suggestion for 'vettel' with fq",req,
+                "//response/lst[@name='suggestions']/int[@name='suggestion_count'][.='1']",
+                "//response/lst[@name='suggestions']/lst[@name='suggestion_facets']/lst[@name='dynamic_multi_stored_suggest_string_name']/int[@name='sebastian vettel'][.='1']");
+
+        //no match in the index falls back to the regex query and spellcheck
+        params.remove(CommonParams.FQ);
+        params.set(CommonParams.Q, "sepastian");
+        req = new LocalSolrQueryRequest( core, params );
+
+        assertQ("suggester - prefix index fallback for 'sepastian'",req,
+                "//response/lst[@name='suggestions']/int[@name='suggestion_count'][.='1']",
+                "//response/lst[@name='suggestions']/lst[@name='suggestion_facets']/lst[@name='dynamic_multi_stored_suggest_string_name']/int[@name='sebastian vettel'][.='2']");
+    }
+
+    @Test
+    public void prefixNarrowingTest() {
+        //a handler with prefix cache, which is disabled by default
+        final NamedList<Object> defaults = new NamedList<>();
+        defaults.add("echoParams", "explicit");
+        defaults.add(SuggestionRequestParams.SUGGESTION, "true");
+        defaults.add(SuggestionRequestParams.SUGGESTION_DF, "suggestions");
+        defaults.add(SuggestionRequestParams.SUGGESTION_TERM_LIMIT, "10");
+        defaults.add(SuggestionRequestParams.SUGGESTION_PREFIX_CACHE_SIZE, "100");
+        final NamedList<Object> args = new NamedList<>();
+        args.add("defaults", defaults);
+        args.add("first-components", new ArrayList<>(Collections.singletonList("spellcheck")));
+
+        final SuggestionRequestHandler handler = new SuggestionRequestHandler();
+        handler.init(args);
+        handler.inform(core);
+        core.registerRequestHandler("/suggester-cached", handler);
+        final SuggestionPrefixCache prefixCache = handler.getSuggestionService().getPrefixCache();
+        assertTrue(prefixCache.isEnabled());
+
+        ModifiableSolrParams params = new ModifiableSolrParams();
+
+        params.add(SuggestionRequestParams.SUGGESTION,"true");
+        params.add(CommonParams.QT,"/suggester-cached");
+        params.add(CommonParams.Q,"k");
+        params.add(SuggestionRequestParams.SUGGESTION_FIELD,"dynamic_multi_stored_suggest_string_place");
+
+        SolrQueryRequest req = new LocalSolrQueryRequest( core, params );
+
+        assertQ("suggester - prefix narrowing for 'k'",req,
+                "//response/lst[@name='suggestions']/int[@name='suggestion_count'][.='3']",
+                "//response/lst[@name='suggestions']/lst[@name='suggestion_facets']/lst[@name='dynamic_multi_stored_suggest_string_place']/int[@name='kuala Lumpur'][.='2']");
+        assertEquals(0, prefixCache.getNarrowings());
+
+        params.set(CommonParams.Q, "ku");
+        req = new LocalSolrQueryRequest( core, params );
+
+        assertQ("suggester - prefix narrowing for 'ku'",req,
+                "//response/lst[@name='suggestions']/int[@name='suggestion_count'][.='3']",
+                "//response/lst[@name='suggestions']/lst[@name='suggestion_facets']/lst[@name='dynamic_multi_stored_suggest_string_place']/int[@name='kuala Lumpur'][.='2']",
+                "//response/lst[@name='suggestions']/lst[@name='suggestion_facets']/lst[@name='dynamic_multi_stored_suggest_string_place']/int[@name='Havanna kuba'][.='1']");
+        assertEquals(1, prefixCache.getNarrowings());
+
+        params.set(CommonParams.Q, "kua");
+        req = new LocalSolrQueryRequest( core, params );
+
+        assertQ("suggester - prefix narrowing for 'kua'",req,
+                "//response/lst[@name='suggestions']/int[@name='suggestion_count'][.='1']",
+                "//response/lst[@name='suggestions']/lst[@name='suggestion_facets']/lst[@name='dynamic_multi_stored_suggest_string_place']/int[@name='kuala Lumpur'][.='2']");
+        assertEquals(2, prefixCache.getNarrowings());
+
+        params.set(CommonParams.Q, "kuala l");
+        req = new LocalSolrQueryRequest( core, params );
+
+        assertQ("suggester - prefix narrowing for 'kuala l'",req,
+                "//response/lst[@name='suggestions']/int[@name='suggestion_count'][.='1']",
+                "//response/lst[@name='suggestions']/lst[@name='suggestion_facets']/lst[@name='dynamic_multi_stored_suggest_string_place']/int[@name='kuala Lumpur'][.='2']");
+        assertEquals(3, prefixCache.getNarrowings());
+
+        //the narrowed results match the ones of the handler without cache
+        params.set(CommonParams.QT, "/suggester");
+        req = new LocalSolrQueryRequest( core, params );
+
+        assertQ("suggester - no prefix narrowing for 'kuala l'",req,
+                "//response/lst[@name='suggestions']/int[@name='suggestion_count'][.='1']",
+                "//response/lst[@name='suggestions']/lst[@name='suggestion_facets']/lst[@name='dynamic_multi_stored_suggest_string_place']/int[@name='kuala Lumpur'][.='2']");
+        assertEquals(3, prefixCache.getNarrowings());
+    }
+
     @Test
     public void testCharacterMapping() {
         ModifiableSolrParams params = new ModifiableSolrParams();
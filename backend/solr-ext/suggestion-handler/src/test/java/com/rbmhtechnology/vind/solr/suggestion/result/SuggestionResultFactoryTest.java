@@ -0,0 +1,111 @@
+package com.rbmhtechnology.vind.solr.suggestion.result;
+
+import com.rbmhtechnology.vind.solr.suggestion.SuggestionRequestHandler;
+import com.rbmhtechnology.vind.solr.suggestion.params.SuggestionResultParams;
+import org.apache.solr.common.util.NamedList;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+public class SuggestionResultFactoryTest {
+
+    @Test
+    public void testMultiSuggestionRanking() {
+        final List<List<Facet>> facets = Arrays.asList(
+                Arrays.asList(new Facet("name", "Vettel", 3), new Facet("name", "Webber", 5)),
+                Arrays.asList(new Facet("place", "Suzuka", 1), new Facet("place", "Japan", 4)));
+
+        final Map<String,Integer> suggestions = suggest(facets, 2);
+        assertEquals(Arrays.asList("webber japan", "vettel japan"), new ArrayList<>(suggestions.keySet()));
+        assertEquals(Arrays.asList(4, 3), new ArrayList<>(suggestions.values()));
+    }
+
+    @Test
+    public void testMultiSuggestionLimit() {
+        final List<Facet> names = new ArrayList<>();
+        for(int i = 0; i < 200; i++) {
+            names.add(new Facet("name", "name" + i, i + 1));
+        }
+
+        final Map<String,Integer> suggestions = suggest(Collections.singletonList(names), 3);
+        assertEquals(Arrays.asList("name199", "name198", "name197"), new ArrayList<>(suggestions.keySet()));
+
+        //without limit, the beam is bounded
+        assertEquals(100, suggest(Arrays.asList(names, names), Integer.MAX_VALUE).size());
+    }
+
+    @Test
+    public void testMultiSuggestionDeduplication() {
+        final List<Facet> facets = Arrays.asList(new Facet("name", "Vettel", 5), new Facet("name", "Webber", 3));
+
+        //vettel webber and webber vettel are the same combination
+        final Map<String,Integer> suggestions = suggest(Arrays.asList(facets, facets), 10);
+        assertEquals(3, suggestions.size());
+        assertEquals(Integer.valueOf(5), suggestions.get("vettel"));
+        assertEquals(Integer.valueOf(3), suggestions.get("vettel webber"));
+        assertEquals(Integer.valueOf(3), suggestions.get("webber"));
+    }
+
+    @Test
+    public void testMultiSuggestionsAreTheBestCombinations() {
+        final Random random = new Random(42);
+        for(int run = 0; run < 100; run++) {
+            final List<List<Facet>> facets = new ArrayList<>();
+            final int terms = 1 + random.nextInt(3);
+            for(int t = 0; t < terms; t++) {
+                final List<Facet> candidates = new ArrayList<>();
+                final int size = 1 + random.nextInt(6);
+                for(int i = 0; i < size; i++) {
+                    candidates.add(new Facet("name", "t" + t + "v" + i, 1 + random.nextInt(20)));
+                }
+                facets.add(candidates);
+            }
+
+            final int limit = 1 + random.nextInt(5);
+            final List<Integer> expected = bruteForce(facets).stream().limit(limit).collect(Collectors.toList());
+            assertEquals("run " + run, expected, new ArrayList<>(suggest(facets, limit).values()));
+        }
+    }
+
+    private static List<Integer> bruteForce(List<List<Facet>> facets) {
+        Set<Set<Facet>> combinations = Collections.singleton(Collections.emptySet());
+        for(List<Facet> candidates : facets) {
+            final Set<Set<Facet>> extended = new HashSet<>();
+            for(Set<Facet> combination : combinations) {
+                for(Facet facet : candidates) {
+                    final Set<Facet> c = new HashSet<>(combination);
+                    c.add(facet);
+                    extended.add(c);
+                }
+            }
+            combinations = extended;
+        }
+        return combinations.stream()
+                .map(c -> c.stream().mapToInt(Facet::getCount).min().getAsInt())
+                .sorted(Collections.reverseOrder())
+                .collect(Collectors.toList());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String,Integer> suggest(List<List<Facet>> facets, int limit) {
+        final SuggestionResultMulti result = new SuggestionResultMulti(limit, SuggestionRequestHandler.LimitType.all);
+        SuggestionResultFactory.getMultiSuggestions(result, facets, limit);
+
+        final NamedList<Map<String,Object>> written = (NamedList<Map<String,Object>>)
+                ((Map<String,Object>) result.write()).get(SuggestionResultParams.SUGGESTION_FACETS);
+        final Map<String,Integer> suggestions = new LinkedHashMap<>();
+        written.forEach(e -> suggestions.put(e.getKey(), (Integer) e.getValue().get("count")));
+        return suggestions;
+    }
+}
@@ -0,0 +1,53 @@
+package com.rbmhtechnology.vind.solr.suggestion.service;
+
+import io.redlink.utils.PathUtils;
+import io.redlink.utils.ResourceLoaderUtils;
+import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.core.SolrCore;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+public class FieldAnalyzerServiceTest extends SolrTestCaseJ4 {
+
+    @ClassRule
+    public static TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+
+        System.setProperty("runtimeLib","false");
+
+        final File solrhome = temporaryFolder.newFolder("solrhome");
+        PathUtils.copyRecursive(ResourceLoaderUtils.getResourceAsPath("solrhome").toAbsolutePath(), solrhome.toPath());
+
+        initCore("solrconfig.xml", "schema.xml", solrhome.getAbsolutePath(), "core");
+
+        System.getProperties().remove("runtimeLib");
+    }
+
+    @Test
+    public void testCachePerCore() throws Exception {
+        final SolrCore core = h.getCore();
+
+        FieldAnalyzerService.setCacheSize(core, 0);
+        final String analyzed = FieldAnalyzerService.analyzeString(core, "suggestions", "Sebastian Vettel");
+        assertEquals(0, FieldAnalyzerService.getCachedStrings(core));
+
+        FieldAnalyzerService.setCacheSize(core, 10);
+        assertEquals(analyzed, FieldAnalyzerService.analyzeString(core, "suggestions", "Sebastian Vettel"));
+        assertEquals(analyzed, FieldAnalyzerService.analyzeString(core, "suggestions", "Sebastian Vettel"));
+        assertEquals(1, FieldAnalyzerService.getCachedStrings(core));
+
+        //the cache of a closed core is dropped
+        h.reload();
+        assertEquals(0, FieldAnalyzerService.getCachedStrings(core));
+
+        final SolrCore reloaded = h.getCore();
+        assertEquals(analyzed, FieldAnalyzerService.analyzeString(reloaded, "suggestions", "Sebastian Vettel"));
+        assertEquals(1, FieldAnalyzerService.getCachedStrings(reloaded));
+    }
+}
@@ -0,0 +1,94 @@
+package com.rbmhtechnology.vind.solr.suggestion.service;
+
+import org.apache.lucene.analysis.core.KeywordAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class PrefixIndexTest {
+
+    private static final String FIELD = "name";
+
+    @Test
+    public void testLookup() throws Exception {
+        final PrefixIndex index = build("Sebastian Vettel", "Mark Webber", "vettel", "Ve");
+
+        assertEquals(Arrays.asList("Sebastian Vettel", "vettel"), values(index, Collections.singletonList("vet")));
+        assertEquals(Arrays.asList("Sebastian Vettel", "Ve", "vettel"), values(index, Collections.singletonList("VE")));
+        assertEquals(Collections.singletonList("Sebastian Vettel"), values(index, Arrays.asList("vet", "seb")));
+        //only word starts match
+        assertEquals(Collections.emptyList(), values(index, Collections.singletonList("ebastian")));
+        assertEquals(Collections.emptyList(), values(index, Collections.singletonList("vettels")));
+    }
+
+    @Test
+    public void testLookupMatchesFilter() throws Exception {
+        final Random random = new Random(42);
+        final String[] values = new String[500];
+        for(int i = 0; i < values.length; i++) {
+            values[i] = word(random) + " " + word(random) + (random.nextBoolean() ? " " + word(random) : "");
+        }
+        final PrefixIndex index = build(values);
+
+        for(int run = 0; run < 200; run++) {
+            final Collection<String> prefixes = random.nextBoolean()
+                    ? Collections.singletonList(word(random))
+                    : Arrays.asList(word(random).substring(0, 1), word(random).substring(0, 1));
+            final BitSet expected = new BitSet();
+            for(int ord = 0; ord < index.size(); ord++) {
+                if(PrefixIndex.matches(index.getValue(ord), prefixes)) {
+                    expected.set(ord);
+                }
+            }
+            assertEquals(prefixes.toString(), expected, index.lookup(prefixes));
+        }
+    }
+
+    private static String word(Random random) {
+        final char[] chars = new char[1 + random.nextInt(5)];
+        for(int i = 0; i < chars.length; i++) {
+            chars[i] = (char) ((random.nextBoolean() ? 'a' : 'A') + random.nextInt(4));
+        }
+        return new String(chars);
+    }
+
+    private static List<String> values(PrefixIndex index, Collection<String> prefixes) {
+        final List<String> values = new ArrayList<>();
+        index.lookup(prefixes).stream().forEach(ord -> values.add(index.getValue(ord)));
+        return values;
+    }
+
+    private static PrefixIndex build(String... values) throws IOException {
+        final Directory directory = new RAMDirectory();
+        try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(new KeywordAnalyzer()))) {
+            for(String value : values) {
+                final Document document = new Document();
+                document.add(new StringField(FIELD, value, Field.Store.NO));
+                writer.addDocument(document);
+            }
+            writer.forceMerge(1);
+        }
+        try (DirectoryReader reader = DirectoryReader.open(directory)) {
+            final LeafReader leaf = reader.leaves().get(0).reader();
+            return PrefixIndex.build(leaf, FIELD);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.rbmhtechnology.vind.solr.suggestion.service;
+
+import org.apache.solr.common.util.NamedList;
+import org.apache.solr.common.util.SimpleOrderedMap;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class SuggestionPrefixCacheTest {
+
+    private static final String FIELD = "place";
+    private static final String[] FIELDS = {FIELD};
+
+    @Test
+    public void testDisabledByDefault() {
+        final SuggestionPrefixCache cache = new SuggestionPrefixCache(null, SuggestionPrefixCache.DEFAULT_SIZE, 100);
+        assertFalse(cache.isEnabled());
+
+        cache.put("k", FIELDS, null, "suggestions", 10, facets("kuala lumpur", 2, "havanna kuba", 1), 1);
+        assertNull(cache.get("k", FIELDS, null, "suggestions", 10, 1));
+    }
+
+    @Test
+    public void testNarrowing() {
+        final SuggestionPrefixCache cache = new SuggestionPrefixCache(null, 10, 100);
+        cache.put("k", FIELDS, null, "suggestions", 10, facets("kuala lumpur", 2, "havanna kuba", 1, "japan", 1), 1);
+
+        final SimpleOrderedMap narrowed = cache.get("kua", FIELDS, null, "suggestions", 10, 1);
+        assertNotNull(narrowed);
+        final List buckets = (List) ((NamedList) ((NamedList) narrowed.get(FIELD + "_filter")).get(FIELD)).get("buckets");
+        assertEquals(1, buckets.size());
+        assertEquals("kuala lumpur", ((NamedList) buckets.get(0)).get("val"));
+
+        //facets of another index version are not used
+        assertNull(cache.get("kua", FIELDS, null, "suggestions", 10, 2));
+    }
+
+    @Test
+    public void testKey() {
+        final SuggestionPrefixCache cache = new SuggestionPrefixCache(null, 10, 100);
+        cache.put("k", FIELDS, new String[]{"type:Asset"}, "suggestions", 10, facets("kuala lumpur", 2), 1);
+
+        assertNotNull(cache.get("k", FIELDS, new String[]{"type:Asset"}, "suggestions", 10, 1));
+        assertNull(cache.get("k", FIELDS, null, "suggestions", 10, 1));
+        assertNull(cache.get("k", new String[]{"name"}, new String[]{"type:Asset"}, "suggestions", 10, 1));
+        assertNull(cache.get("k", FIELDS, new String[]{"type:Asset"}, "spellcheck", 10, 1));
+        assertNull(cache.get("k", FIELDS, new String[]{"type:Asset"}, "suggestions", 1, 1));
+    }
+
+    private static SimpleOrderedMap facets(Object... values) {
+        final List<NamedList> buckets = new ArrayList<>();
+        int count = 0;
+        for(int i = 0; i < values.length; i += 2) {
+            final SimpleOrderedMap<Object> bucket = new SimpleOrderedMap<>();
+            bucket.add("val", values[i]);
+            bucket.add("count", values[i + 1]);
+            buckets.add(bucket);
+            count += (Integer) values[i + 1];
+        }
+
+        final SimpleOrderedMap<Object> termsFacet = new SimpleOrderedMap<>();
+        termsFacet.add("buckets", buckets);
+
+        final SimpleOrderedMap<Object> filterFacet = new SimpleOrderedMap<>();
+        filterFacet.add("count", count);
+        filterFacet.add(FIELD, termsFacet);
+
+        final SimpleOrderedMap<Object> facets = new SimpleOrderedMap<>();
+        facets.add("count", count);
+        facets.add(FIELD + "_filter", filterFacet);
+        return facets;
+    }
+}
@@ -0,0 +1,80 @@
+package com.rbmhtechnology.vind.solr.suggestion.service;
+
+import com.rbmhtechnology.vind.solr.suggestion.params.SuggestionRequestParams;
+import io.redlink.utils.PathUtils;
+import io.redlink.utils.ResourceLoaderUtils;
+import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.common.util.NamedList;
+import org.apache.solr.core.SolrCore;
+import org.apache.solr.search.SolrIndexSearcher;
+import org.apache.solr.util.RefCounted;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+
+public class SuggestionWarmerTest extends SolrTestCaseJ4 {
+
+    private static final String DF = "suggestions";
+    private static final String[] FIELDS = {"dynamic_multi_stored_suggest_string_name"};
+
+    @ClassRule
+    public static TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+
+        System.setProperty("runtimeLib","false");
+
+        final File solrhome = temporaryFolder.newFolder("solrhome");
+        PathUtils.copyRecursive(ResourceLoaderUtils.getResourceAsPath("solrhome").toAbsolutePath(), solrhome.toPath());
+
+        initCore("solrconfig.xml", "schema.xml", solrhome.getAbsolutePath(), "core");
+
+        System.getProperties().remove("runtimeLib");
+    }
+
+    @Test
+    public void testWarmOnNewSearcher() throws Exception {
+        final SolrCore core = h.getCore();
+
+        final NamedList<Object> defaults = new NamedList<>();
+        defaults.add(SuggestionRequestParams.SUGGESTION_DF, DF);
+        defaults.add(SuggestionRequestParams.SUGGESTION_PREFIX_CACHE_SIZE, "100");
+        defaults.add(SuggestionRequestParams.SUGGESTION_WARM_FIELD, FIELDS[0]);
+        defaults.add(SuggestionRequestParams.SUGGESTION_WARM_PREFIX, "Seb");
+        defaults.add(SuggestionRequestParams.SUGGESTION_WARM_RECENT, "10");
+
+        final NamedList<Object> args = new NamedList<>();
+        args.add("defaults", defaults);
+        args.add("first-components", new ArrayList<String>());
+
+        final SuggestionService service = new SuggestionService(core, args);
+        final String seb = FieldAnalyzerService.analyzeString(core, DF, "Seb");
+        service.getWarmer().record("mark", DF, FIELDS, new String[]{"_type_:Asset"}, 10);
+
+        assertU(adoc("_id_", "1",
+                "_type_", "Asset",
+                "dynamic_multi_stored_suggest_string_name", "sebastian vettel",
+                "dynamic_multi_stored_suggest_string_name", "mark webber"));
+        assertU(commit());
+
+        final long version = getIndexVersion(core);
+        final SuggestionPrefixCache prefixCache = service.getPrefixCache();
+        assertNotNull(prefixCache.get(seb, FIELDS, null, DF, 10, version));
+        assertNotNull(prefixCache.get("mark", FIELDS, new String[]{"_type_:Asset"}, DF, 10, version));
+        assertNull(prefixCache.get("webber", FIELDS, null, DF, 10, version));
+    }
+
+    private static long getIndexVersion(SolrCore core) {
+        final RefCounted<SolrIndexSearcher> searcher = core.getSearcher();
+        try {
+            return searcher.get().getIndexReader().getVersion();
+        } finally {
+            searcher.decref();
+        }
+    }
+}
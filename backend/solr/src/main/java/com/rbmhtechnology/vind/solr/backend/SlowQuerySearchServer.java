@@ -0,0 +1,269 @@
+package com.rbmhtechnology.vind.solr.backend;
+
+import com.rbmhtechnology.vind.api.Document;
+import com.rbmhtechnology.vind.api.SearchServer;
+import com.rbmhtechnology.vind.api.ServiceProvider;
+import com.rbmhtechnology.vind.api.query.FulltextSearch;
+import com.rbmhtechnology.vind.api.query.delete.Delete;
+import com.rbmhtechnology.vind.api.query.get.RealTimeGet;
+import com.rbmhtechnology.vind.api.query.suggestion.ExecutableSuggestionSearch;
+import com.rbmhtechnology.vind.api.query.update.Update;
+import com.rbmhtechnology.vind.api.result.BeanSearchResult;
+import com.rbmhtechnology.vind.api.result.FacetResults;
+import com.rbmhtechnology.vind.api.result.GetResult;
+import com.rbmhtechnology.vind.api.result.SearchResult;
+import com.rbmhtechnology.vind.api.result.SuggestionResult;
+import com.rbmhtechnology.vind.configure.SearchConfiguration;
+import com.rbmhtechnology.vind.model.DocumentFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * {@link SearchServer} decorator recording the queries which take longer than a threshold. By default they are
+ * logged as warnings. If the decorated server is a {@link SolrSearchServer}, a slow query carries its
+ * {@link SolrQueryTrace}: the serialized Solr parameters, the {@code QTime}, and the times spent building the query,
+ * on the request and mapping results and facets. This tells whether Solr, the transport or the mapping is slow.
+ * Real-time gets are recorded without a trace; index operations are not recorded. The decorator should be closed
+ * when no longer used; otherwise its trace listener stays registered at the decorated server until the decorator is
+ * garbage collected.
+ */
+public class SlowQuerySearchServer extends SearchServer {
+
+    public static final String SEARCH_SLOW_QUERY_THRESHOLD = "search.slowQuery.threshold";
+
+    public static final int DEFAULT_THRESHOLD = 1000;
+
+    private static final Logger log = LoggerFactory.getLogger(SlowQuerySearchServer.class);
+
+    private final SearchServer server;
+    private final long threshold;
+    private final Consumer<SlowQuery> listener;
+
+    //holds the trace of the query executed by the current thread, only while recording
+    private final ThreadLocal<SolrQueryTrace[]> trace = new ThreadLocal<>();
+    private final TraceListener traceListener;
+
+    /**
+     * Creates a server logging the queries slower than {@code search.slowQuery.threshold} milliseconds.
+     * @param server the decorated server
+     */
+    public SlowQuerySearchServer(SearchServer server) {
+        this(server, Duration.ofMillis(SearchConfiguration.get(SEARCH_SLOW_QUERY_THRESHOLD, DEFAULT_THRESHOLD)), SlowQuerySearchServer::logSlowQuery);
+    }
+
+    /**
+     * @param server the decorated server
+     * @param threshold queries taking longer are recorded
+     * @param listener called with each slow query on the thread executing the query
+     */
+    public SlowQuerySearchServer(SearchServer server, Duration threshold, Consumer<SlowQuery> listener) {
+        this.server = server;
+        this.threshold = threshold.toNanos();
+        this.listener = listener;
+        if(server instanceof SolrSearchServer) {
+            this.traceListener = new TraceListener((SolrSearchServer) server, trace);
+            ((SolrSearchServer) server).addTraceListener(traceListener);
+        } else {
+            this.traceListener = null;
+        }
+    }
+
+    private <T> T record(String operation, Supplier<T> query) {
+        final SolrQueryTrace[] holder = new SolrQueryTrace[1];
+        trace.set(holder);
+        final long start = System.nanoTime();
+        try {
+            return query.get();
+        } finally {
+            final long duration = System.nanoTime() - start;
+            trace.remove();
+            if(duration > threshold) {
+                try {
+                    listener.accept(new SlowQuery(operation, Duration.ofNanos(duration), holder[0]));
+                } catch (RuntimeException e) {
+                    log.warn("Could not record slow query: {}", e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    private static void logSlowQuery(SlowQuery query) {
+        log.warn("{}", query);
+    }
+
+    @Override
+    public Object getBackend() {
+        return server.getBackend();
+    }
+
+    @Override
+    public void index(Document... docs) {
+        server.index(docs);
+    }
+
+    @Override
+    public void index(List<Document> docs) {
+        server.index(docs);
+    }
+
+    @Override
+    public void delete(Document doc) {
+        server.delete(doc);
+    }
+
+    @Override
+    public void execute(Update update, DocumentFactory factory) {
+        server.execute(update, factory);
+    }
+
+    @Override
+    public void execute(Delete delete, DocumentFactory factory) {
+        server.execute(delete, factory);
+    }
+
+    @Override
+    public void commit(boolean optimize) {
+        server.commit(optimize);
+    }
+
+    @Override
+    public <T> BeanSearchResult<T> execute(FulltextSearch search, Class<T> c) {
+        return record("fulltext", () -> server.execute(search, c));
+    }
+
+    @Override
+    public SearchResult execute(FulltextSearch search, DocumentFactory factory) {
+        return record("fulltext", () -> server.execute(search, factory));
+    }
+
+    @Override
+    public long count(FulltextSearch search, DocumentFactory factory) {
+        return record("count", () -> server.count(search, factory));
+    }
+
+    @Override
+    public FacetResults facets(FulltextSearch search, DocumentFactory factory) {
+        return record("facets", () -> server.facets(search, factory));
+    }
+
+    @Override
+    public <T> SuggestionResult execute(ExecutableSuggestionSearch search, Class<T> c) {
+        return record("suggestion", () -> server.execute(search, c));
+    }
+
+    @Override
+    public SuggestionResult execute(ExecutableSuggestionSearch search, DocumentFactory assets) {
+        return record("suggestion", () -> server.execute(search, assets));
+    }
+
+    @Override
+    public SuggestionResult execute(ExecutableSuggestionSearch search, DocumentFactory assets, DocumentFactory childFactory) {
+        return record("suggestion", () -> server.execute(search, assets, childFactory));
+    }
+
+    @Override
+    public <T> GetResult execute(RealTimeGet search, Class<T> c) {
+        return record("get", () -> server.execute(search, c));
+    }
+
+    @Override
+    public GetResult execute(RealTimeGet search, DocumentFactory assets) {
+        return record("get", () -> server.execute(search, assets));
+    }
+
+    @Override
+    public void clearIndex() {
+        server.clearIndex();
+    }
+
+    @Override
+    public void close() {
+        if(traceListener != null) {
+            traceListener.remove();
+        }
+        server.close();
+    }
+
+    @Override
+    public Class<ServiceProvider> getServiceProviderClass() {
+        return server.getServiceProviderClass();
+    }
+
+    /**
+     * Passes the traces to the decorator recording on the current thread. Only weakly references the decorator's
+     * state, so a decorator which is not closed does not stay registered at the decorated server: the listener
+     * removes itself with the next query once the decorator is garbage collected.
+     */
+    private static class TraceListener implements Consumer<SolrQueryTrace> {
+
+        private final SolrSearchServer server;
+        private final WeakReference<ThreadLocal<SolrQueryTrace[]>> trace;
+
+        private TraceListener(SolrSearchServer server, ThreadLocal<SolrQueryTrace[]> trace) {
+            this.server = server;
+            this.trace = new WeakReference<>(trace);
+        }
+
+        @Override
+        public void accept(SolrQueryTrace solrTrace) {
+            final ThreadLocal<SolrQueryTrace[]> recording = trace.get();
+            if(recording == null) {
+                remove();
+                return;
+            }
+            final SolrQueryTrace[] holder = recording.get();
+            if(holder != null) {
+                holder[0] = solrTrace;
+            }
+        }
+
+        private void remove() {
+            server.removeTraceListener(this);
+        }
+    }
+
+    /**
+     * A query which took longer than the threshold.
+     */
+    public static class SlowQuery {
+
+        private final String operation;
+        private final Duration duration;
+        private final SolrQueryTrace trace;
+
+        SlowQuery(String operation, Duration duration, SolrQueryTrace trace) {
+            this.operation = operation;
+            this.duration = duration;
+            this.trace = trace;
+        }
+
+        public String getOperation() {
+            return operation;
+        }
+
+        /**
+         * @return the time the decorated server took for the query
+         */
+        public Duration getDuration() {
+            return duration;
+        }
+
+        /**
+         * @return the phases of the query, or null if not executed by a {@link SolrSearchServer}
+         */
+        public SolrQueryTrace getTrace() {
+            return trace;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Slow %s query took %dms%s", operation, duration.toMillis(), trace != null ? " - " + trace : "");
+        }
+    }
+}
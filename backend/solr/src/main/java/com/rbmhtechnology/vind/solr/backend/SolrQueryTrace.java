@@ -0,0 +1,91 @@
+package com.rbmhtechnology.vind.solr.backend;
+
+import org.apache.solr.common.params.SolrParams;
+
+import java.time.Duration;
+
+/**
+ * The phases of a query executed by a {@link SolrSearchServer}, passed to its trace listeners (see
+ * {@link SolrSearchServer#addTraceListener(java.util.function.Consumer)}) on the thread executing the query. The
+ * request time is measured by the client and covers the Solr {@code QTime} as well as the transport and the parsing
+ * of the response; additional queries, e.g. for child counts, are included.
+ */
+public class SolrQueryTrace {
+
+    private final String operation;
+    private final SolrParams query;
+    private String params;
+    private final int qTime;
+    private final long build;
+    private final long request;
+    private final long resultMapping;
+    private final long facetMapping;
+
+    SolrQueryTrace(String operation, SolrParams query, int qTime, long build, long request, long resultMapping, long facetMapping) {
+        this.operation = operation;
+        this.query = query;
+        this.qTime = qTime;
+        this.build = build;
+        this.request = request;
+        this.resultMapping = resultMapping;
+        this.facetMapping = facetMapping;
+    }
+
+    /**
+     * @return the kind of query, one of {@code fulltext}, {@code count}, {@code facets} and {@code suggestion}
+     */
+    public String getOperation() {
+        return operation;
+    }
+
+    /**
+     * @return the serialized Solr parameters of the query, only serialized on the first call
+     */
+    public String getParams() {
+        if(params == null) {
+            params = query.toString();
+        }
+        return params;
+    }
+
+    /**
+     * @return the time Solr reports for processing the query
+     */
+    public Duration getQTime() {
+        return Duration.ofMillis(qTime);
+    }
+
+    /**
+     * @return the time to build the Solr query from the search
+     */
+    public Duration getBuildTime() {
+        return Duration.ofNanos(build);
+    }
+
+    /**
+     * @return the time from sending the request until the response was parsed
+     */
+    public Duration getRequestTime() {
+        return Duration.ofNanos(request);
+    }
+
+    /**
+     * @return the time to map the Solr documents (or suggestions) to results
+     */
+    public Duration getResultMappingTime() {
+        return Duration.ofNanos(resultMapping);
+    }
+
+    /**
+     * @return the time to map the Solr facets to facet results
+     */
+    public Duration getFacetMappingTime() {
+        return Duration.ofNanos(facetMapping);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: build=%.3fms, request=%.3fms (QTime=%dms), resultMapping=%.3fms, facetMapping=%.3fms, params=%s",
+                operation, build / 1e6, request / 1e6, qTime, resultMapping / 1e6, facetMapping / 1e6, getParams());
+    }
+}
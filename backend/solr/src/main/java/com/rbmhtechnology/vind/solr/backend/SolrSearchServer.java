@@ -1,5 +1,6 @@
 package com.rbmhtechnology.vind.solr.backend;
 
+import com.google.common.collect.Lists;
 import com.google.common.io.Resources;
 import com.rbmhtechnology.vind.SearchServerException;
 import com.rbmhtechnology.vind.annotations.AnnotationUtil;
@@ -29,6 +30,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.http.util.Asserts;
 import org.apache.solr.client.solrj.SolrClient;
 import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.SolrRequest;
 import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.request.schema.SchemaRequest;
 import org.apache.solr.client.solrj.response.QueryResponse;
@@ -36,6 +38,7 @@ import org.apache.solr.client.solrj.response.SolrPingResponse;
 import org.apache.solr.client.solrj.response.schema.SchemaResponse;
 import org.apache.solr.client.solrj.util.ClientUtils;
 import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
 import org.apache.solr.common.SolrInputDocument;
 import org.apache.solr.common.params.*;
 import org.apache.solr.common.util.DateUtil;
@@ -49,6 +52,12 @@ import java.nio.file.Path;
 import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -64,9 +73,12 @@ public class SolrSearchServer extends SearchServer {
     private static final Logger solrClientLogger = LoggerFactory.getLogger(log.getName() + "#solrClient");
     public static final String SOLR_WILDCARD = "*";
     public static final String SUGGESTION_DF_FIELD = "suggestions";
+    private static final int REALTIME_GET_MAX_URL_IDS = 100;
 
     private ServiceProvider serviceProviderClass;
     private final SolrClient solrClient;
+    private ExecutorService realTimeGetExecutor;
+    private final List<Consumer<SolrQueryTrace>> traceListeners = new CopyOnWriteArrayList<>();
 
     public SolrSearchServer() {
         // this is mainly used with the ServiceLoader infrastructure
@@ -129,6 +141,34 @@ public class SolrSearchServer extends SearchServer {
         return solrClient;
     }
 
+    /**
+     * Adds a listener which is called with the phases of each fulltext, count, facet and suggestion query, on the
+     * thread executing the query and after it succeeded.
+     * @param listener the listener
+     */
+    public void addTraceListener(Consumer<SolrQueryTrace> listener) {
+        traceListeners.add(Objects.requireNonNull(listener));
+    }
+
+    public void removeTraceListener(Consumer<SolrQueryTrace> listener) {
+        traceListeners.remove(listener);
+    }
+
+    private void trace(String operation, SolrQuery query, QueryResponse response, long start, long built, long requested, long resultsMapped, long facetsMapped) {
+        if(traceListeners.isEmpty()) {
+            return;
+        }
+        final SolrQueryTrace trace = new SolrQueryTrace(operation, query, response.getQTime(),
+                built - start, requested - built, resultsMapped - requested, facetsMapped - resultsMapped);
+        for(Consumer<SolrQueryTrace> listener : traceListeners) {
+            try {
+                listener.accept(trace);
+            } catch (RuntimeException e) {
+                log.warn("Query trace listener failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
     @Override
     public void index(Document ... docs) {
         Asserts.notNull(docs,"Document to index should not be null.");
@@ -279,27 +319,37 @@ public class SolrSearchServer extends SearchServer {
 
     @Override
     public SearchResult execute(FulltextSearch search, DocumentFactory factory) {
+        final long start = System.nanoTime();
         final SolrQuery query = buildSolrQuery(search, factory);
+        final long built = System.nanoTime();
         //query
         try {
             solrClientLogger.debug(">>> query({})", query.toString());
             final QueryResponse response = solrClient.query(query);
             if(response!=null){
 
-                final Map<String,Integer> childCounts = SolrUtils.getChildCounts(response);
+                final Map<String,Integer> childCounts = search.isChildrenSearchEnabled() ? getChildCounts(search, factory, response.getResults()) : null;
+                final long requested = System.nanoTime();
 
                 final List<Document> documents = SolrUtils.Result.buildResultList(response.getResults(), childCounts, factory, search.getSearchContext());
+                final long resultsMapped = System.nanoTime();
                 final FacetResults facetResults = SolrUtils.Result.buildFacetResult(response, factory,search.getFacets(),search.getSearchContext());
+                trace("fulltext", query, response, start, built, requested, resultsMapped, System.nanoTime());
+
+                final boolean partialResults = SolrUtils.isPartialResults(response);
+                if(partialResults) {
+                    log.warn("Search exceeded its timeout of {}ms, returning partial results", search.getTimeout() != null ? search.getTimeout().toMillis() : null);
+                }
 
                 switch(search.getResultSet().getType()) {
                     case page:{
-                        return new PageResult(response.getResults().getNumFound(), documents, search, facetResults, this, factory);
+                        return new PageResult(response.getResults().getNumFound(), documents, search, facetResults, this, factory).setPartialResults(partialResults);
                     }
                     case slice: {
-                        return new SliceResult(response.getResults().getNumFound(), documents, search, facetResults, this, factory);
+                        return new SliceResult(response.getResults().getNumFound(), documents, search, facetResults, this, factory).setPartialResults(partialResults);
                     }
                     default:
-                        return new PageResult(response.getResults().getNumFound(), documents, search, facetResults, this, factory);
+                        return new PageResult(response.getResults().getNumFound(), documents, search, facetResults, this, factory).setPartialResults(partialResults);
                 }
             }else {
                 throw new SolrServerException("Null result from SolrClient");
@@ -310,6 +360,78 @@ public class SolrSearchServer extends SearchServer {
         }
     }
 
+    @Override
+    public long count(FulltextSearch search, DocumentFactory factory) {
+        final long start = System.nanoTime();
+        final SolrQuery query = buildSolrQuery(search, factory);
+        toLightweightQuery(query);
+        //facets are not needed to count
+        query.setFacet(false);
+        query.remove("json.facet");
+        query.remove(StatsParams.STATS);
+        final long built = System.nanoTime();
+        try {
+            solrClientLogger.debug(">>> query({})", query.toString());
+            final QueryResponse response = solrClient.query(query);
+            if(response!=null){
+                final long requested = System.nanoTime();
+                trace("count", query, response, start, built, requested, requested, requested);
+                return response.getResults().getNumFound();
+            }else {
+                throw new SolrServerException("Null result from SolrClient");
+            }
+        } catch (SolrServerException | IOException e) {
+            throw new SearchServerException("Cannot issue count query", e);
+        }
+    }
+
+    @Override
+    public FacetResults facets(FulltextSearch search, DocumentFactory factory) {
+        final long start = System.nanoTime();
+        final SolrQuery query = buildSolrQuery(search, factory);
+        toLightweightQuery(query);
+        final long built = System.nanoTime();
+        try {
+            solrClientLogger.debug(">>> query({})", query.toString());
+            final QueryResponse response = solrClient.query(query);
+            if(response!=null){
+                final long requested = System.nanoTime();
+                final FacetResults facetResults = SolrUtils.Result.buildFacetResult(response, factory, search.getFacets(), search.getSearchContext());
+                trace("facets", query, response, start, built, requested, requested, System.nanoTime());
+                return facetResults;
+            }else {
+                throw new SolrServerException("Null result from SolrClient");
+            }
+        } catch (SolrServerException | IOException e) {
+            throw new SearchServerException("Cannot issue facet query", e);
+        }
+    }
+
+    /**
+     * Changes the query to not retrieve, score or sort any document.
+     */
+    private void toLightweightQuery(SolrQuery query) {
+        query.setStart(0);
+        query.setRows(0);
+        query.set(CommonParams.FL, SolrUtils.Fieldname.ID);
+        query.remove(CommonParams.SORT);
+        query.remove(DisMaxParams.BF);
+    }
+
+    private Map<String,Integer> getChildCounts(FulltextSearch search, DocumentFactory factory, SolrDocumentList results) throws SolrServerException, IOException {
+        if(results.isEmpty()) {
+            return new HashMap<>();
+        }
+        final List<String> parentIds = results.stream()
+                .map(doc -> (String) doc.getFieldValue(SolrUtils.Fieldname.ID))
+                .collect(Collectors.toList());
+
+        final SolrQuery query = SolrUtils.Query.buildChildCountQuery(search, factory, parentIds, search.getSearchContext());
+        solrClientLogger.debug(">>> query({})", query.toString());
+        final Map<String,Integer> childCounts = SolrUtils.getChildCounts(solrClient.query(query, SolrRequest.METHOD.POST));
+        return childCounts != null ? childCounts : new HashMap<>();
+    }
+
     protected SolrQuery buildSolrQuery(FulltextSearch search, DocumentFactory factory) {
         //build query
         final SolrQuery query = new SolrQuery();
@@ -322,6 +444,10 @@ public class SolrSearchServer extends SearchServer {
         // fulltext search
         query.set(CommonParams.Q, search.getSearchString());
 
+        if(search.hasTimeout()) {
+            query.setTimeAllowed((int) Math.min(search.getTimeout().toMillis(), Integer.MAX_VALUE));
+        }
+
         if(SearchConfiguration.get(SearchConfiguration.SEARCH_RESULT_SHOW_SCORE, true)) {
             query.set(CommonParams.FL, "*,score");
         } else {
@@ -648,13 +774,19 @@ public class SolrSearchServer extends SearchServer {
 
     @Override
     public SuggestionResult execute(ExecutableSuggestionSearch search, DocumentFactory assets,DocumentFactory childFactory) {
+        final long start = System.nanoTime();
         SolrQuery query = buildSolrQuery(search, assets, childFactory);
+        final long built = System.nanoTime();
 
         try {
             log.debug(">>> query({})", query.toString());
             QueryResponse response = solrClient.query(query);
             if(response!=null){
-                return SolrUtils.Result.buildSuggestionResult(response, assets, childFactory, search.getSearchContext());
+                final long requested = System.nanoTime();
+                final SuggestionResult result = SolrUtils.Result.buildSuggestionResult(response, assets, childFactory, search.getSearchContext());
+                final long resultsMapped = System.nanoTime();
+                trace("suggestion", query, response, start, built, requested, resultsMapped, resultsMapped);
+                return result;
             }else {
                 log.error("Null result from SolrClient");
                 throw new SolrServerException("Null result from SolrClient");
@@ -743,13 +875,38 @@ public class SolrSearchServer extends SearchServer {
 
     @Override
     public GetResult execute(RealTimeGet search, DocumentFactory assets) {
-        SolrQuery query = buildSolrQuery(search, assets);
+        final List<String> ids = SolrUtils.Result.getRealTimeGetIds(search);
+
+        final List<List<String>> chunks = Lists.partition(ids, search.getChunkSize());
+        final SolrDocumentList documents = new SolrDocumentList();
+        if (chunks.size() == 1) {
+            documents.addAll(executeRealTimeGet(buildSolrQuery(chunks.get(0))));
+        } else if (chunks.size() > 1) {
+            final List<CompletableFuture<SolrDocumentList>> futures = chunks.stream()
+                    .map(chunk -> CompletableFuture.supplyAsync(() -> executeRealTimeGet(buildSolrQuery(chunk)), getRealTimeGetExecutor()))
+                    .collect(Collectors.toList());
+            try {
+                futures.forEach(future -> documents.addAll(future.join()));
+            } catch (CompletionException e) {
+                futures.forEach(future -> future.cancel(true));
+                if (e.getCause() instanceof SearchServerException) {
+                    throw (SearchServerException) e.getCause();
+                }
+                throw new SearchServerException("Cannot execute realTime get query", e.getCause());
+            }
+        }
+        return SolrUtils.Result.buildRealTimeGetResult(documents, ids, search, assets);
+    }
 
+    private SolrDocumentList executeRealTimeGet(SolrQuery query) {
         try {
             log.debug(">>> query({})", query.toString());
-            QueryResponse response = solrClient.query(query);
+            //large id lists exceed the URL length limits
+            final String[] ids = query.getParams("id");
+            final SolrRequest.METHOD method = ids != null && ids.length > REALTIME_GET_MAX_URL_IDS ? SolrRequest.METHOD.POST : SolrRequest.METHOD.GET;
+            QueryResponse response = solrClient.query(query, method);
             if(response!=null){
-                return SolrUtils.Result.buildRealTimeGetResult(response, search, assets);
+                return SolrUtils.Result.getRealTimeGetDocuments(response);
             }else {
                 log.error("Null result from SolrClient");
                 throw new SolrServerException("Null result from SolrClient");
@@ -761,6 +918,17 @@ public class SolrSearchServer extends SearchServer {
         }
     }
 
+    private synchronized ExecutorService getRealTimeGetExecutor() {
+        if (realTimeGetExecutor == null) {
+            realTimeGetExecutor = Executors.newFixedThreadPool(SearchConfiguration.get(SearchConfiguration.SEARCH_GET_THREADS, 4), r -> {
+                final Thread thread = new Thread(r, "vind-realtime-get");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return realTimeGetExecutor;
+    }
+
     @Override
     public void clearIndex() {
         try {
@@ -773,15 +941,25 @@ public class SolrSearchServer extends SearchServer {
     }
 
     protected SolrQuery buildSolrQuery(RealTimeGet search, DocumentFactory assets) {
+        return buildSolrQuery(SolrUtils.Result.getRealTimeGetIds(search));
+    }
+
+    protected SolrQuery buildSolrQuery(List<String> ids) {
         SolrQuery query = new SolrQuery();
         query.setRequestHandler("/get");
 
-        search.getValues().forEach(v -> query.add("id" , v.toString()));
+        ids.forEach(id -> query.add("id" , id));
         return query;
     }
 
     @Override
     public void close() {
+        synchronized (this) {
+            if (realTimeGetExecutor != null) {
+                realTimeGetExecutor.shutdownNow();
+                realTimeGetExecutor = null;
+            }
+        }
         if (solrClient != null) try {
             solrClient.close();
         } catch (IOException e) {
@@ -83,6 +83,16 @@ public class SolrUtils {
 
     private static final String INTERNAL_CONTEXT_PREFIX = "(%s_)?";
 
+    public static boolean isPartialResults(SolrResponse response) {
+        if (Objects.nonNull(response.getResponse())) {
+            final Object header = response.getResponse().get("responseHeader");
+            if (header instanceof NamedList) {
+                return Boolean.TRUE.equals(((NamedList) header).get("partialResults"));
+            }
+        }
+        return false;
+    }
+
     public static Map<String,Integer> getChildCounts(SolrResponse response) {
 
         //check if there are subdocs
@@ -368,35 +378,10 @@ public class SolrUtils {
                     .map(genericFacet -> (Facet.SubdocumentFacet) genericFacet)
                     .map(facet -> {
                         final String type = facet.getName();
-                        final String filter;
-                        final String childrenFilterSerialized;
-                        if(Objects.nonNull(search.getChildrenSearchString().hasFilter())){
-                          //filter = search.getFilter().accept(new SolrChildrenSerializerVisitor(factory,search.getChildrenFactory(),searchContext)).replaceAll("\\+_type_:" + type + " \\+","").replaceAll("\"", "")+ " AND " + search.getSearchString();
-                            childrenFilterSerialized = serializeFacetFilter(search.getChildrenSearchString().getFilter(), search.getChildrenFactory(), searchContext, search.getStrict()).replaceAll("\"", "\\\\\"");;
-                            filter = childrenFilterSerialized + " AND " + search.getSearchString();
-                        } else {
-                            childrenFilterSerialized ="";
-                            filter = search.getSearchString();
-                        }
-                        //TODO this should be done by an inner component (paging!!)
+                        final String filter = buildChildrenFacetFilter(search, searchContext);
+                        //the per parent child counts are computed for the returned page only (see buildChildCountQuery)
                         return String.format(
                                 "{" +
-                                    "parent_facet:{" +
-                                        "type:terms," +
-                                        "field:%s," +
-                                        "limit:999999999," +
-                                        "mincount:1," +
-                                        "sort:{index:asc}," +
-                                        "domain:{blockParent:\"%s:%s\"}," +
-                                        "facet:{" +
-                                            "children_facet:{" +
-                                                "type:query," +
-                                                "q:\"%s\"," +
-                                                "domain:{blockChildren:\"%s:%s\"}" +
-                                            "}" +
-                                        "}" +
-                                    "}," +
-
                                     "childrenCount:{" +
                                         "type:query," +
                                         "mincount:1," +
@@ -410,11 +395,95 @@ public class SolrUtils {
                                             "}" +
                                         "}" +
                                     "}" +
-
-                                "}", Fieldname.ID, Fieldname.TYPE, type, filter, Fieldname.TYPE, type, filter, Fieldname.TYPE, type, Fieldname.TYPE, type);
+                                "}", filter, Fieldname.TYPE, type, Fieldname.TYPE, type);
                     }).findAny();
             return facetOptional.orElse(null);
         }
+
+        private static final String CHILD_COUNT_IDS_PARAM = "vind.childCount.ids";
+        private static final String CHILD_COUNT_ID_PARAM = "vind.childCount.id.";
+        private static final String CHILD_COUNT_SEPARATOR_PARAM = "vind.childCount.separator";
+        private static final String TERMS_SEPARATOR_CANDIDATES = ",|;#~^";
+
+        /**
+         * Builds a query counting the matching children of the given parent documents, so the block join is
+         * evaluated for the documents of the returned page instead of for the whole result set.
+         * The response can be parsed with {@link SolrUtils#getChildCounts(SolrResponse)}; as the query holds all ids
+         * of the page, it should be sent by POST.
+         * @param search the fulltext search holding the children search string and filters.
+         * @param factory the parent document factory.
+         * @param parentIds the ids of the parent documents to count the children for.
+         * @param searchContext the search context.
+         * @return a {@link SolrQuery} which does not return any documents but the child count facet.
+         */
+        public static SolrQuery buildChildCountQuery(FulltextSearch search, DocumentFactory factory, Collection<String> parentIds, String searchContext) {
+            final String type = factory.getType();
+            final String filter = buildChildrenFacetFilter(search, searchContext);
+
+            final SolrQuery query = new SolrQuery();
+            //the ids are passed as separate parameters so they do not need escaping
+            final String separator = getTermsSeparator(parentIds);
+            if(separator != null) {
+                //a terms query is not limited by maxBooleanClauses
+                query.set(CommonParams.Q, "{!terms f=" + Fieldname.ID + " separator=$" + CHILD_COUNT_SEPARATOR_PARAM + " v=$" + CHILD_COUNT_IDS_PARAM + "}");
+                query.set(CHILD_COUNT_SEPARATOR_PARAM, separator);
+                query.set(CHILD_COUNT_IDS_PARAM, String.join(separator, parentIds));
+            } else {
+                //every separator is part of an id, so each id is matched by a term query of its own
+                final List<String> clauses = new ArrayList<>(parentIds.size());
+                int i = 0;
+                for(String id : parentIds) {
+                    clauses.add("_query_:\"{!term f=" + Fieldname.ID + " v=$" + CHILD_COUNT_ID_PARAM + i + "}\"");
+                    query.set(CHILD_COUNT_ID_PARAM + i, id);
+                    i++;
+                }
+                query.set(CommonParams.Q, String.join(" OR ", clauses));
+            }
+            query.add(CommonParams.FQ, Fieldname.TYPE + ":" + type);
+            query.setRows(0);
+            if(search.getTimeout() != null) {
+                query.setTimeAllowed((int) Math.min(search.getTimeout().toMillis(), Integer.MAX_VALUE));
+            }
+            query.set("json.facet", String.format(
+                    "{" +
+                        "parent_facet:{" +
+                            "type:terms," +
+                            "field:%s," +
+                            "limit:%d," +
+                            "mincount:1," +
+                            "facet:{" +
+                                "children_facet:{" +
+                                    "type:query," +
+                                    "q:\"%s\"," +
+                                    "domain:{blockChildren:\"%s:%s\"}" +
+                                "}" +
+                            "}" +
+                        "}" +
+                    "}", Fieldname.ID, parentIds.size(), filter, Fieldname.TYPE, type));
+            return query;
+        }
+
+        /**
+         * @return a separator which is not part of any id, or null if every candidate is
+         */
+        private static String getTermsSeparator(Collection<String> ids) {
+            for(char candidate : TERMS_SEPARATOR_CANDIDATES.toCharArray()) {
+                final String separator = String.valueOf(candidate);
+                if(ids.stream().noneMatch(id -> id.contains(separator))) {
+                    return separator;
+                }
+            }
+            return null;
+        }
+
+        private static String buildChildrenFacetFilter(FulltextSearch search, String searchContext) {
+            if(Objects.nonNull(search.getChildrenSearchString().hasFilter())){
+                final String childrenFilterSerialized = serializeFacetFilter(search.getChildrenSearchString().getFilter(), search.getChildrenFactory(), searchContext, search.getStrict()).replaceAll("\"", "\\\\\"");
+                return childrenFilterSerialized + " AND " + search.getSearchString();
+            } else {
+                return search.getSearchString();
+            }
+        }
     }
 
     public static final class FieldValue {
@@ -1255,26 +1324,61 @@ public class SolrUtils {
         }
 
         public static GetResult buildRealTimeGetResult(QueryResponse response, RealTimeGet query, DocumentFactory factory) {
-            final String DOC = "doc";
+            return buildRealTimeGetResult(getRealTimeGetDocuments(response), getRealTimeGetIds(query), query, factory);
+        }
+
+        /**
+         * @param query the real time get query.
+         * @return the distinct ids of the query, in the requested order.
+         */
+        public static List<String> getRealTimeGetIds(RealTimeGet query) {
+            return ((List<Object>) query.getValues()).stream()
+                    .map(Object::toString)
+                    .distinct()
+                    .collect(Collectors.toList());
+        }
+
+        /**
+         * Builds the result of a real time get, keeping the order of the requested ids.
+         * @param documents the documents returned by the search server (in any order).
+         * @param ids the requested ids.
+         * @param query the real time get query.
+         * @param factory document factory to parse the documents with.
+         * @return {@link GetResult} with the found documents and the ids not found.
+         */
+        public static GetResult buildRealTimeGetResult(SolrDocumentList documents, List<String> ids, RealTimeGet query, DocumentFactory factory) {
+            final Map<String, SolrDocument> documentsById = new HashMap<>();
+            documents.forEach(doc -> documentsById.putIfAbsent((String) doc.getFieldValue(Fieldname.ID), doc));
+
+            final SolrDocumentList orderedDocuments = new SolrDocumentList();
+            final List<String> missingIds = new ArrayList<>();
+            for (String id : ids) {
+                final SolrDocument doc = documentsById.get(id);
+                if (doc != null) {
+                    orderedDocuments.add(doc);
+                } else {
+                    missingIds.add(id);
+                }
+            }
 
-            long nResults = 0;
-            List<Document> docResults = new ArrayList<>();
+            final List<Document> docResults = buildResultList(orderedDocuments, null, factory, null);
+            return new GetResult(docResults.size(), docResults, query, factory, missingIds);
+        }
+
+        public static SolrDocumentList getRealTimeGetDocuments(QueryResponse response) {
+            final String DOC = "doc";
 
             final SolrDocumentList results = response.getResults();
             if(results != null && results.size() >0){
-                docResults = buildResultList(results, null, factory, null);
-                nResults = docResults.size();
+                return results;
             } else {
+                final SolrDocumentList solrDocuments = new SolrDocumentList();
                 final SolrDocument solrDoc = (SolrDocument)response.getResponse().get(DOC);
                 if(solrDoc != null) {
-                    final SolrDocumentList solrDocuments = new SolrDocumentList();
                     solrDocuments.add(solrDoc);
-                    docResults = buildResultList(solrDocuments, null, factory, null);
-                    nResults = 1;
                 }
+                return solrDocuments;
             }
-
-            return new GetResult(nResults,docResults,query,factory);
         }
 
     }
@@ -1,20 +1,25 @@
 package com.rbmhtechnology.vind.solr.backend;
 
+import com.rbmhtechnology.vind.api.CompletableSearchServer;
 import com.rbmhtechnology.vind.api.Document;
 import com.rbmhtechnology.vind.api.SearchServer;
 import com.rbmhtechnology.vind.api.query.Search;
 import com.rbmhtechnology.vind.api.query.sort.Sort;
+import com.rbmhtechnology.vind.api.result.FacetResults;
+import com.rbmhtechnology.vind.api.result.GetResult;
 import com.rbmhtechnology.vind.api.result.SearchResult;
 import com.rbmhtechnology.vind.model.*;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.solr.client.solrj.SolrClient;
 import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.SolrRequest;
 import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.client.solrj.response.SolrPingResponse;
 import org.apache.solr.common.SolrDocumentList;
 import org.apache.solr.common.SolrInputDocument;
 import org.apache.solr.common.SolrInputField;
+import org.apache.solr.common.util.NamedList;
 import org.hamcrest.*;
 import org.junit.Before;
 import org.junit.Test;
@@ -23,16 +28,28 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static com.rbmhtechnology.vind.api.query.filter.Filter.eq;
 import static com.rbmhtechnology.vind.api.query.filter.Filter.or;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -94,6 +111,155 @@ public class SolrSearchServerTest {
     }
 
 
+    @Test
+    public void testSearchTimeout() throws Exception {
+
+        final DocumentFactory documents = new DocumentFactoryBuilder("asset").build();
+
+        final SearchResult result = server.execute(Search.fulltext("hello*").timeout(Duration.ofMillis(200)), documents);
+
+        ArgumentCaptor<SolrQuery> argument = ArgumentCaptor.forClass(SolrQuery.class);
+
+        verify(solrClient).query(argument.capture());
+
+        assertEquals(Integer.valueOf(200), argument.getValue().getTimeAllowed());
+        assertFalse(result.isPartialResults());
+    }
+
+    @Test
+    public void testRealTimeGet() throws Exception {
+        when(solrClient.query(any(SolrQuery.class), any(SolrRequest.METHOD.class))).thenReturn(response);
+        when(response.getResponse()).thenReturn(new NamedList<>());
+        final DocumentFactory documents = new DocumentFactoryBuilder("asset").build();
+
+        //a single chunk is requested like each of many chunks, with the distinct ids
+        final GetResult result = server.execute(Search.getById("1", "2", "1"), documents);
+        assertEquals(Arrays.asList("1", "2"), result.getMissingIds());
+
+        final ArgumentCaptor<SolrQuery> argument = ArgumentCaptor.forClass(SolrQuery.class);
+        verify(solrClient).query(argument.capture(), any(SolrRequest.METHOD.class));
+        assertEquals("/get", argument.getValue().getRequestHandler());
+        assertEquals(Arrays.asList("1", "2"), Arrays.asList(argument.getValue().getParams("id")));
+    }
+
+    @Test
+    public void testPartialResults() throws Exception {
+        final NamedList<Object> header = new NamedList<>();
+        header.add("partialResults", true);
+        final NamedList<Object> solrResponse = new NamedList<>();
+        solrResponse.add("responseHeader", header);
+        when(response.getResponse()).thenReturn(solrResponse);
+
+        final DocumentFactory documents = new DocumentFactoryBuilder("asset").build();
+
+        assertTrue(SolrUtils.isPartialResults(response));
+        assertTrue(server.execute(Search.fulltext("hello*").timeout(Duration.ofMillis(200)), documents).isPartialResults());
+        assertTrue(server.execute(Search.fulltext("hello*").timeout(Duration.ofMillis(200)).slice(0, 10), documents).isPartialResults());
+    }
+
+    @Test
+    public void testCancelAsyncSearch() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        when(solrClient.query(any())).thenAnswer(invocation -> {
+            started.countDown();
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw new SolrServerException(e);
+            }
+            return response;
+        });
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final CompletableSearchServer completableServer = new CompletableSearchServer(server, executor);
+            final CompletableFuture<SearchResult> future = completableServer.executeAsync(Search.fulltext("hello"), new DocumentFactoryBuilder("asset").build());
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+
+            //cancelling interrupts the running search
+            future.cancel(true);
+            assertTrue(future.isCancelled());
+            assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+
+    @Test
+    public void testCount() throws Exception {
+
+        final FieldDescriptor<String> descriptor = new FieldDescriptorBuilder<String>().setFacet(true).buildTextField("text");
+        final DocumentFactory documents = new DocumentFactoryBuilder("asset").addField(descriptor).build();
+
+        assertEquals(0, server.count(Search.fulltext("hello world").facet(descriptor).sort("id", Sort.Direction.Desc), documents));
+
+        ArgumentCaptor<SolrQuery> argument = ArgumentCaptor.forClass(SolrQuery.class);
+
+        verify(solrClient).query(argument.capture());
+
+        SolrQuery query = argument.getValue();
+        assertEquals(Integer.valueOf(0), query.getRows());
+        assertEquals(SolrUtils.Fieldname.ID, query.getFields());
+        assertNull(query.getSortField());
+        assertNull(query.getFacetFields());
+    }
+
+
+    @Test
+    public void testFacets() throws Exception {
+
+        final FieldDescriptor<String> descriptor = new FieldDescriptorBuilder<String>().setFacet(true).buildTextField("text");
+        final DocumentFactory documents = new DocumentFactoryBuilder("asset").addField(descriptor).build();
+
+        final FacetResults facets = server.facets(Search.fulltext("hello world").facet(descriptor).sort("id", Sort.Direction.Desc), documents);
+        assertNotNull(facets);
+
+        ArgumentCaptor<SolrQuery> argument = ArgumentCaptor.forClass(SolrQuery.class);
+
+        verify(solrClient).query(argument.capture());
+
+        SolrQuery query = argument.getValue();
+        assertEquals(Integer.valueOf(0), query.getRows());
+        assertEquals(SolrUtils.Fieldname.ID, query.getFields());
+        assertNull(query.getSortField());
+        assertEquals(1, query.getFacetFields().length);
+    }
+
+
+    @Test
+    public void testSlowQueries() throws Exception {
+        when(response.getQTime()).thenReturn(42);
+        final DocumentFactory documents = new DocumentFactoryBuilder("asset").build();
+
+        final List<SlowQuerySearchServer.SlowQuery> slowQueries = new ArrayList<>();
+        final SearchServer slowQueryServer = new SlowQuerySearchServer(server, Duration.ZERO, slowQueries::add);
+        slowQueryServer.execute(Search.fulltext("hello"), documents);
+        slowQueryServer.count(Search.fulltext("hello"), documents);
+
+        assertEquals(2, slowQueries.size());
+        assertEquals("fulltext", slowQueries.get(0).getOperation());
+        final SolrQueryTrace trace = slowQueries.get(0).getTrace();
+        assertEquals("fulltext", trace.getOperation());
+        assertEquals(Duration.ofMillis(42), trace.getQTime());
+        assertTrue(trace.getParams().contains("q=hello"));
+        assertTrue(trace.getBuildTime().plus(trace.getRequestTime()).plus(trace.getResultMappingTime()).plus(trace.getFacetMappingTime())
+                .compareTo(slowQueries.get(0).getDuration()) <= 0);
+        assertEquals("count", slowQueries.get(1).getTrace().getOperation());
+
+        //queries not executed through the decorator are not traced
+        server.execute(Search.fulltext("hello"), documents);
+        assertEquals(2, slowQueries.size());
+
+        try (SearchServer fastQueryServer = new SlowQuerySearchServer(server, Duration.ofHours(1), slowQueries::add)) {
+            fastQueryServer.execute(Search.fulltext("hello"), documents);
+        }
+        assertEquals(2, slowQueries.size());
+        slowQueryServer.close();
+    }
+
     @Test
     public void testIndex() throws Exception {
 
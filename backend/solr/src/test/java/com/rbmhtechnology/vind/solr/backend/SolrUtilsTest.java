@@ -1,13 +1,22 @@
 package com.rbmhtechnology.vind.solr.backend;
 
+import com.rbmhtechnology.vind.api.query.FulltextSearch;
+import com.rbmhtechnology.vind.api.query.Search;
+import com.rbmhtechnology.vind.model.DocumentFactory;
+import com.rbmhtechnology.vind.model.DocumentFactoryBuilder;
 import com.rbmhtechnology.vind.model.FieldDescriptor;
 import com.rbmhtechnology.vind.model.FieldDescriptorBuilder;
 import com.rbmhtechnology.vind.solr.backend.SolrUtils;
+import org.apache.solr.client.solrj.SolrQuery;
 import org.junit.Test;
 
+import java.time.Duration;
+import java.util.Arrays;
+
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 
 /**
@@ -38,4 +47,23 @@ public class SolrUtilsTest {
 
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testChildCountQuery() {
+        final DocumentFactory parent = new DocumentFactoryBuilder("parent").build();
+        final DocumentFactory child = new DocumentFactoryBuilder("child").build();
+        final FulltextSearch search = Search.fulltext().orChildrenSearch(child).timeout(Duration.ofMillis(300));
+
+        final SolrQuery query = SolrUtils.Query.buildChildCountQuery(search, parent, Arrays.asList("a,1", "b|2"), null);
+        assertEquals(Integer.valueOf(300), query.getTimeAllowed());
+        assertEquals("{!terms f=_id_ separator=$vind.childCount.separator v=$vind.childCount.ids}", query.getQuery());
+        assertEquals(";", query.get("vind.childCount.separator"));
+        assertEquals("a,1;b|2", query.get("vind.childCount.ids"));
+
+        final SolrQuery fallback = SolrUtils.Query.buildChildCountQuery(search, parent, Arrays.asList(",|;#~^", "b"), null);
+        assertEquals("_query_:\"{!term f=_id_ v=$vind.childCount.id.0}\" OR _query_:\"{!term f=_id_ v=$vind.childCount.id.1}\"", fallback.getQuery());
+        assertEquals(",|;#~^", fallback.get("vind.childCount.id.0"));
+        assertEquals("b", fallback.get("vind.childCount.id.1"));
+        assertNull(fallback.get("vind.childCount.ids"));
+    }
+
+}
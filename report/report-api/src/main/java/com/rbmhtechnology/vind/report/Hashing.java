@@ -0,0 +1,39 @@
+package com.rbmhtechnology.vind.report;
+
+/**
+ * Hash functions for sampling and sketching report entries.
+ */
+public final class Hashing {
+
+    private Hashing() {
+    }
+
+    /**
+     * 64-bit hash of a string: unlike {@link String#hashCode()}, strings like "Aa" and "BB" do not collide.
+     * @param value the string
+     * @return the hash, spread over all bits
+     */
+    public static long hash64(CharSequence value) {
+        //FNV-1a over the characters
+        long h = 0xcbf29ce484222325L;
+        for(int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mix64(h);
+    }
+
+    /**
+     * murmur3 finalizer, spreads the bits of a hash over all bits
+     * @param h the hash
+     * @return the mixed hash
+     */
+    public static long mix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,135 @@
+package com.rbmhtechnology.vind.report;
+
+import com.rbmhtechnology.vind.configure.SearchConfiguration;
+import com.rbmhtechnology.vind.report.metrics.SearchMetrics.Operation;
+import com.rbmhtechnology.vind.report.model.application.Application;
+import com.rbmhtechnology.vind.report.model.application.InterfaceApplication;
+import com.rbmhtechnology.vind.report.model.application.SimpleApplication;
+import com.rbmhtechnology.vind.report.model.session.Session;
+import com.rbmhtechnology.vind.report.model.session.SimpleSession;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides which report entries are written. Every operation is sampled with its own rate; if sessions are
+ * sampled, the decision is derived from the session id, so the entries of a session are either all kept or all
+ * dropped (head-based), consistently across servers. Queries without results and slow queries are always kept.
+ * <p>
+ * The rate of an operation is configured by {@code reporting.sampling.rate.<operation>}, defaulting to
+ * {@link #REPORTING_SAMPLING_RATE}, and multiplied by the rate of the application, configured by
+ * {@code reporting.sampling.rate.application.<id>}.
+ */
+public class ReportSampler {
+
+    public static final String REPORTING_SAMPLING_RATE = "reporting.sampling.rate";
+    public static final String REPORTING_SAMPLING_APPLICATION_RATE = "reporting.sampling.rate.application";
+    public static final String REPORTING_SAMPLING_SESSION = "reporting.sampling.session";
+    public static final String REPORTING_SAMPLING_KEEP_ZERO_RESULTS = "reporting.sampling.keepZeroResults";
+    public static final String REPORTING_SAMPLING_SLOW_QUERY = "reporting.sampling.slowQuery";
+
+    public static final int DEFAULT_SLOW_QUERY = 1000;
+
+    /**
+     * keeps all entries
+     */
+    public static final ReportSampler ALL = new ReportSampler(new EnumMap<>(Operation.class), false, true, Duration.ZERO);
+
+    private final double[] rates = new double[Operation.values().length];
+    private final boolean sessions;
+    private final boolean keepZeroResults;
+    private final long slowQuery;
+
+    /**
+     * Creates a sampler configured by the {@code reporting.sampling.*} properties.
+     * @param application the application whose entries are sampled
+     */
+    public ReportSampler(Application application) {
+        this(configuredRates(application),
+                SearchConfiguration.get(REPORTING_SAMPLING_SESSION, true),
+                SearchConfiguration.get(REPORTING_SAMPLING_KEEP_ZERO_RESULTS, true),
+                Duration.ofMillis(SearchConfiguration.get(REPORTING_SAMPLING_SLOW_QUERY, DEFAULT_SLOW_QUERY)));
+    }
+
+    /**
+     * @param rates the rates of the operations between 0 and 1, operations without a rate are always kept
+     * @param sessions whether whole sessions are sampled
+     * @param keepZeroResults whether queries without results are always kept
+     * @param slowQuery the latency from which queries are always kept, not applied if zero
+     */
+    public ReportSampler(Map<Operation, Double> rates, boolean sessions, boolean keepZeroResults, Duration slowQuery) {
+        for(Operation operation : Operation.values()) {
+            final double rate = rates.getOrDefault(operation, 1.0);
+            if(rate < 0 || rate > 1) {
+                throw new IllegalArgumentException("Sampling rate must be between 0 and 1, actually got: " + rate);
+            }
+            this.rates[operation.ordinal()] = rate;
+        }
+        this.sessions = sessions;
+        this.keepZeroResults = keepZeroResults;
+        this.slowQuery = slowQuery.isZero() ? Long.MAX_VALUE : slowQuery.toNanos();
+    }
+
+    private static Map<Operation, Double> configuredRates(Application application) {
+        final double rate = getRate(REPORTING_SAMPLING_RATE, 1);
+        final String applicationId = getApplicationId(application);
+        final double applicationRate = applicationId != null ? getRate(REPORTING_SAMPLING_APPLICATION_RATE + "." + applicationId, 1) : 1;
+
+        final Map<Operation, Double> rates = new EnumMap<>(Operation.class);
+        for(Operation operation : Operation.values()) {
+            rates.put(operation, getRate(REPORTING_SAMPLING_RATE + "." + operation.name().toLowerCase(), rate) * applicationRate);
+        }
+        return rates;
+    }
+
+    private static double getRate(String key, double defaultValue) {
+        final String value = SearchConfiguration.get(key);
+        return value != null ? Double.parseDouble(value) : defaultValue;
+    }
+
+    private static String getApplicationId(Application application) {
+        if(application instanceof SimpleApplication) {
+            return ((SimpleApplication) application).getId();
+        } else if(application instanceof InterfaceApplication) {
+            return ((InterfaceApplication) application).getName();
+        }
+        return null;
+    }
+
+    /**
+     * @param operation the operation
+     * @param session the session of the operation, may be null
+     * @param results the number of results
+     * @param latency the latency in nanoseconds
+     * @return the probability the entry was kept with, or 0 if the entry is dropped
+     */
+    public double sample(Operation operation, Session session, long results, long latency) {
+        final double rate = rates[operation.ordinal()];
+        if(rate >= 1 || (keepZeroResults && results == 0) || latency >= slowQuery) {
+            return 1;
+        }
+        if(rate <= 0) {
+            return 0;
+        }
+        final double position;
+        if(sessions && session instanceof SimpleSession && ((SimpleSession) session).getSessionId() != null) {
+            position = position(((SimpleSession) session).getSessionId());
+        } else {
+            position = ThreadLocalRandom.current().nextDouble();
+        }
+        return position < rate ? rate : 0;
+    }
+
+    public double getRate(Operation operation) {
+        return rates[operation.ordinal()];
+    }
+
+    /**
+     * maps the session id uniformly to [0,1)
+     */
+    static double position(String sessionId) {
+        return (Hashing.hash64(sessionId) >>> 11) * 0x1.0p-53;
+    }
+}
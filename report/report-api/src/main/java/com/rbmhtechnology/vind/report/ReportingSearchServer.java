@@ -7,9 +7,9 @@ import com.rbmhtechnology.vind.api.query.FulltextSearch;
 import com.rbmhtechnology.vind.api.query.delete.Delete;
 import com.rbmhtechnology.vind.api.query.get.RealTimeGet;
 import com.rbmhtechnology.vind.api.query.suggestion.ExecutableSuggestionSearch;
-import com.rbmhtechnology.vind.api.query.suggestion.SuggestionSearch;
 import com.rbmhtechnology.vind.api.query.update.Update;
 import com.rbmhtechnology.vind.api.result.BeanSearchResult;
+import com.rbmhtechnology.vind.api.result.FacetResults;
 import com.rbmhtechnology.vind.api.result.GetResult;
 import com.rbmhtechnology.vind.api.result.SearchResult;
 import com.rbmhtechnology.vind.api.result.SuggestionResult;
@@ -18,14 +18,20 @@ import com.rbmhtechnology.vind.model.DocumentFactory;
 import com.rbmhtechnology.vind.report.logger.entry.FullTextEntry;
 import com.rbmhtechnology.vind.report.model.application.Application;
 import com.rbmhtechnology.vind.report.model.application.SimpleApplication;
+import com.rbmhtechnology.vind.report.logger.AsyncReportWriter;
 import com.rbmhtechnology.vind.report.logger.Log;
 import com.rbmhtechnology.vind.report.logger.ReportWriter;
+import com.rbmhtechnology.vind.report.metrics.SearchMetrics;
+import com.rbmhtechnology.vind.report.metrics.SearchMetrics.Operation;
 import com.rbmhtechnology.vind.report.model.session.Session;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Instant;
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author Thomas Kurz (tkurz@apache.org)
@@ -48,18 +54,30 @@ public class ReportingSearchServer extends SearchServer {
 
     private final ReportWriter logger;
 
+    //only writers created by this server are closed with it
+    private final boolean closeLogger;
+
+    private final SearchMetrics metrics = new SearchMetrics();
+
+    private ReportSampler sampler;
+
     public ReportingSearchServer(SearchServer server) {
-        this(server, null, null, ReportWriter.getInstance()); //TODO should maybe replaced by service loader?
+        this(server, null, null, createReportWriter(), true); //TODO should maybe replaced by service loader?
     }
 
     public ReportingSearchServer(SearchServer server, Application application, Session session) {
-        this(server, application, session, ReportWriter.getInstance()); //TODO should maybe replaced by service loader?
+        this(server, application, session, createReportWriter(), true); //TODO should maybe replaced by service loader?
     }
 
     public ReportingSearchServer(SearchServer server, Application application, Session session, ReportWriter logger) {
+        this(server, application, session, logger, false);
+    }
+
+    private ReportingSearchServer(SearchServer server, Application application, Session session, ReportWriter logger, boolean closeLogger) {
         this.server = server;
         this.session = session;
         this.logger = logger;
+        this.closeLogger = closeLogger;
 
         if(application == null) {
             String applicationId = SearchConfiguration.get(APPLICATION_ID);
@@ -72,6 +90,12 @@ public class ReportingSearchServer extends SearchServer {
             application = new SimpleApplication(applicationId);
         }
         this.application = application;
+        this.sampler = new ReportSampler(application);
+    }
+
+    private static ReportWriter createReportWriter() {
+        final ReportWriter writer = ReportWriter.getInstance();
+        return SearchConfiguration.get(AsyncReportWriter.REPORTING_ASYNC, false) ? new AsyncReportWriter(writer) : writer;
     }
 
     @Override
@@ -81,100 +105,158 @@ public class ReportingSearchServer extends SearchServer {
 
     @Override
     public void index(Document... docs) {
+        final long start = System.nanoTime();
         server.index(docs);
+        metrics.record(Operation.INDEX, start);
     }
 
     @Override
     public void index(List<Document> docs) {
+        final long start = System.nanoTime();
         server.index(docs);
+        metrics.record(Operation.INDEX, start);
     }
 
     @Override
     public void execute(Update update, DocumentFactory factory) {
         //currently not logged
+        final long start = System.nanoTime();
         server.execute(update, factory);
+        metrics.record(Operation.UPDATE, start);
     }
 
     @Override
     public void execute(Delete delete, DocumentFactory factory) {
+        final long start = System.nanoTime();
         server.execute(delete,factory);
+        metrics.record(Operation.DELETE, start);
     }
 
     @Override
     public void delete(Document doc) {
         //currently not logged
+        final long start = System.nanoTime();
         server.delete(doc);
+        metrics.record(Operation.DELETE, start);
     }
 
     @Override
     public void commit(boolean optimize) {
         //currently not logged
+        final long start = System.nanoTime();
         server.commit(optimize);
+        metrics.record(Operation.COMMIT, start);
     }
 
     @Override
     public <T> BeanSearchResult<T> execute(FulltextSearch search, Class<T> c) {
-        final ZonedDateTime start = ZonedDateTime.now();
+        final long timestamp = System.currentTimeMillis();
+        final long start = System.nanoTime();
         final BeanSearchResult<T> result = server.execute(search, c);
-        final ZonedDateTime end = ZonedDateTime.now();
-        logger.log(new Log(new FullTextEntry(application, source ,search, result, start, end, session)));
+        final long latency = metrics.record(Operation.FULLTEXT, start);
+        final double rate = sampler.sample(Operation.FULLTEXT, session, result.getNumOfResults(), latency);
+        if(rate > 0) {
+            logger.log(new Log(new FullTextEntry(application, source ,search, result, toDateTime(timestamp), toMillis(latency), session)).setSampleRate(rate));
+        }
         return result;
     }
 
     @Override
     public SearchResult execute(FulltextSearch search, DocumentFactory factory) {
-        final ZonedDateTime start = ZonedDateTime.now();
+        final long timestamp = System.currentTimeMillis();
+        final long start = System.nanoTime();
         final SearchResult result = server.execute(search, factory);
-        final ZonedDateTime end = ZonedDateTime.now();
-        logger.log(new Log(new FullTextEntry(application, source ,search, result, start, end, session)));
+        final long latency = metrics.record(Operation.FULLTEXT, start);
+        final double rate = sampler.sample(Operation.FULLTEXT, session, result.getNumOfResults(), latency);
+        if(rate > 0) {
+            logger.log(new Log(new FullTextEntry(application, source ,search, result, toDateTime(timestamp), toMillis(latency), session)).setSampleRate(rate));
+        }
         return result;
     }
 
+    @Override
+    public long count(FulltextSearch search, DocumentFactory factory) {
+        //currently not logged
+        final long start = System.nanoTime();
+        final long count = server.count(search, factory);
+        metrics.record(Operation.COUNT, start);
+        return count;
+    }
+
+    @Override
+    public FacetResults facets(FulltextSearch search, DocumentFactory factory) {
+        //currently not logged
+        final long start = System.nanoTime();
+        final FacetResults facets = server.facets(search, factory);
+        metrics.record(Operation.FACETS, start);
+        return facets;
+    }
+
     @Override
     public <T> SuggestionResult execute(ExecutableSuggestionSearch search, Class<T> c) {
-        final ZonedDateTime start = ZonedDateTime.now();
-        SuggestionResult result = server.execute(search, c);
-        final ZonedDateTime end = ZonedDateTime.now();
-        logger.log(new Log(application, (SuggestionSearch) search, result, start, end, session));
+        final long timestamp = System.currentTimeMillis();
+        final long start = System.nanoTime();
+        final SuggestionResult result = server.execute(search, c);
+        final long latency = metrics.record(Operation.SUGGESTION, start);
+        final double rate = sampler.sample(Operation.SUGGESTION, session, result.size(), latency);
+        if(rate > 0) {
+            logger.log(new Log(application, search, result, toDateTime(timestamp), toMillis(latency), session).setSampleRate(rate));
+        }
         return result;
     }
 
     @Override
     public SuggestionResult execute(ExecutableSuggestionSearch search, DocumentFactory assets) {
-        final ZonedDateTime start = ZonedDateTime.now();
+        final long timestamp = System.currentTimeMillis();
+        final long start = System.nanoTime();
         final SuggestionResult result = server.execute(search, assets);
-        final ZonedDateTime end = ZonedDateTime.now();
-        logger.log(new Log(application, (SuggestionSearch) search, result, start, end, session));
+        final long latency = metrics.record(Operation.SUGGESTION, start);
+        final double rate = sampler.sample(Operation.SUGGESTION, session, result.size(), latency);
+        if(rate > 0) {
+            logger.log(new Log(application, search, result, toDateTime(timestamp), toMillis(latency), session).setSampleRate(rate));
+        }
         return result;
     }
 
     @Override
     public SuggestionResult execute(ExecutableSuggestionSearch search, DocumentFactory assets, DocumentFactory childFactory) {
-        final ZonedDateTime start = ZonedDateTime.now();
+        final long timestamp = System.currentTimeMillis();
+        final long start = System.nanoTime();
         final SuggestionResult result = server.execute(search, assets, childFactory);
-        final ZonedDateTime end = ZonedDateTime.now();
-        logger.log(new Log(application, (SuggestionSearch) search, result, start, end, session));
+        final long latency = metrics.record(Operation.SUGGESTION, start);
+        final double rate = sampler.sample(Operation.SUGGESTION, session, result.size(), latency);
+        if(rate > 0) {
+            logger.log(new Log(application, search, result, toDateTime(timestamp), toMillis(latency), session).setSampleRate(rate));
+        }
         return result;
     }
 
     @Override
     public <T> GetResult execute(RealTimeGet search, Class<T> c) {
-        final ZonedDateTime start = ZonedDateTime.now();
+        final long start = System.nanoTime();
         final GetResult result = server.execute(search, c);
-        final ZonedDateTime end = ZonedDateTime.now();
+        metrics.record(Operation.GET, start);
         //TODO log
         return result;
     }
 
     @Override
     public GetResult execute(RealTimeGet search, DocumentFactory assets) {
-        final ZonedDateTime start = ZonedDateTime.now();
+        final long start = System.nanoTime();
         final GetResult result = server.execute(search, assets);
-        final ZonedDateTime end = ZonedDateTime.now();
+        metrics.record(Operation.GET, start);
         //TODO log
         return result;
     }
 
+    private static ZonedDateTime toDateTime(long millis) {
+        return ZonedDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
     @Override
     public void clearIndex() {
         server.clearIndex();
@@ -182,7 +264,13 @@ public class ReportingSearchServer extends SearchServer {
 
     @Override
     public void close() {
-        server.close();
+        try {
+            server.close();
+        } finally {
+            if(closeLogger) {
+                logger.close();
+            }
+        }
     }
 
     @Override
@@ -190,6 +278,21 @@ public class ReportingSearchServer extends SearchServer {
         return this.server.getServiceProviderClass();
     }
 
+    /**
+     * @return the latency histograms and rates of the operations executed by this server
+     */
+    public SearchMetrics getMetrics() {
+        return metrics;
+    }
+
+    public ReportSampler getSampler() {
+        return sampler;
+    }
+
+    public void setSampler(ReportSampler sampler) {
+        this.sampler = sampler;
+    }
+
     public void setSession(Session session) {
         this.session = session;
     }
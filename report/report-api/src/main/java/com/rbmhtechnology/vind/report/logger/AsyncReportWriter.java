@@ -0,0 +1,231 @@
+package com.rbmhtechnology.vind.report.logger;
+
+import com.rbmhtechnology.vind.configure.SearchConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A {@link ReportWriter} which takes report entries off the request thread: entries are put into a bounded
+ * lock-free ring buffer and written in batches to the wrapped writer by a background thread. If the buffer is
+ * full, entries are either dropped ({@link OverflowPolicy#DROP}) or the request thread waits for free space
+ * ({@link OverflowPolicy#BLOCK}). Dropped and failed entries are counted, as well as entries logged after
+ * the writer has been closed.
+ */
+public class AsyncReportWriter extends ReportWriter {
+
+    public static final String REPORTING_ASYNC = "reporting.async";
+    public static final String REPORTING_ASYNC_CAPACITY = "reporting.async.capacity";
+    public static final String REPORTING_ASYNC_BATCH_SIZE = "reporting.async.batchSize";
+    public static final String REPORTING_ASYNC_POLICY = "reporting.async.policy";
+
+    public static final int DEFAULT_CAPACITY = 8192;
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    private static final long CLOSE_TIMEOUT = TimeUnit.SECONDS.toMillis(10);
+
+    public enum OverflowPolicy {
+        DROP,
+        BLOCK
+    }
+
+    private final Logger log = LoggerFactory.getLogger(AsyncReportWriter.class);
+
+    private final ReportWriter writer;
+    private final RingBuffer<Log> buffer;
+    private final int batchSize;
+    private final OverflowPolicy policy;
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private final Thread drainer;
+    private final Queue<Thread> blocked = new ConcurrentLinkedQueue<>();
+    private volatile boolean idle = false;
+    private volatile boolean running = true;
+    private boolean closed = false;
+
+    /**
+     * Creates an asynchronous writer configured by {@link #REPORTING_ASYNC_CAPACITY}, {@link #REPORTING_ASYNC_BATCH_SIZE}
+     * and {@link #REPORTING_ASYNC_POLICY}.
+     * @param writer the writer to write the entries to
+     */
+    public AsyncReportWriter(ReportWriter writer) {
+        this(writer,
+                SearchConfiguration.get(REPORTING_ASYNC_CAPACITY, DEFAULT_CAPACITY),
+                SearchConfiguration.get(REPORTING_ASYNC_BATCH_SIZE, DEFAULT_BATCH_SIZE),
+                OverflowPolicy.valueOf(SearchConfiguration.get(REPORTING_ASYNC_POLICY, OverflowPolicy.DROP.name()).toUpperCase()));
+    }
+
+    /**
+     * @param writer the writer to write the entries to
+     * @param capacity the number of entries buffered at most
+     * @param batchSize the number of entries written at most at once
+     * @param policy what to do with entries if the buffer is full
+     */
+    public AsyncReportWriter(ReportWriter writer, int capacity, int batchSize, OverflowPolicy policy) {
+        if(batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive, actually got: " + batchSize);
+        }
+        this.writer = writer;
+        this.buffer = new RingBuffer<>(capacity);
+        this.batchSize = batchSize;
+        this.policy = policy;
+
+        this.drainer = new Thread(this::drain, "vind-report-writer");
+        this.drainer.setDaemon(true);
+        this.drainer.start();
+    }
+
+    @Override
+    public void log(Log log) {
+        if(!running) {
+            dropped.incrementAndGet();
+            return;
+        }
+        if(buffer.offer(log)) {
+            published();
+            return;
+        }
+        if(policy == OverflowPolicy.BLOCK) {
+            final Thread current = Thread.currentThread();
+            blocked.add(current);
+            try {
+                while(running) {
+                    //re-check after registering, so space freed in between is not missed
+                    if(buffer.offer(log)) {
+                        published();
+                        return;
+                    }
+                    LockSupport.park(this);
+                }
+            } finally {
+                blocked.remove(current);
+            }
+        }
+        dropped.incrementAndGet();
+    }
+
+    private void published() {
+        if(running) {
+            if(idle) {
+                LockSupport.unpark(drainer);
+            }
+            return;
+        }
+        //raced with close, the drainer may have exited before the entry was published
+        synchronized (this) {
+            if(closed && !drainer.isAlive()) {
+                dropped.addAndGet(buffer.drain(new ArrayList<>(), Integer.MAX_VALUE));
+            }
+        }
+    }
+
+    private void drain() {
+        final List<Log> batch = new ArrayList<>(batchSize);
+        while(running || !buffer.isEmpty()) {
+            if(buffer.drain(batch, batchSize) == 0) {
+                if(running && buffer.isEmpty()) {
+                    idle = true;
+                    //re-check after announcing, so an entry offered in between is not missed
+                    if(running && buffer.isEmpty()) {
+                        LockSupport.park(this);
+                    }
+                    idle = false;
+                } else {
+                    //an entry is reserved but not yet published
+                    Thread.yield();
+                }
+                continue;
+            }
+            blocked.forEach(LockSupport::unpark);
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<Log> batch) {
+        try {
+            writer.log(batch);
+            written.addAndGet(batch.size());
+        } catch (Exception e) {
+            failed.addAndGet(batch.size());
+            log.warn("Could not write {} report entries: {}", batch.size(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Writes all buffered entries and closes the wrapped writer.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(drainer);
+        blocked.forEach(LockSupport::unpark);
+        try {
+            drainer.join(CLOSE_TIMEOUT);
+            if(drainer.isAlive()) {
+                log.warn("Report writer did not write all buffered entries within {}ms, {} entries pending", CLOSE_TIMEOUT, buffer.size());
+            }
+        } catch (InterruptedException e) {
+            log.warn("Got interrupted while writing the buffered report entries.", e);
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            if(!drainer.isAlive()) {
+                //entries published by request threads racing with close after the drainer exited
+                final List<Log> remaining = new ArrayList<>();
+                buffer.drain(remaining, Integer.MAX_VALUE);
+                if(!remaining.isEmpty()) {
+                    write(remaining);
+                }
+            }
+            closed = true;
+        }
+        writer.close();
+    }
+
+    /**
+     * @return the number of entries written to the wrapped writer
+     */
+    public long getWritten() {
+        return written.get();
+    }
+
+    /**
+     * @return the number of entries dropped because the buffer was full
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * @return the number of entries the wrapped writer failed to write
+     */
+    public long getFailed() {
+        return failed.get();
+    }
+
+    /**
+     * @return the number of buffered entries not yet written
+     */
+    public int getPending() {
+        return buffer.size();
+    }
+
+    public int getCapacity() {
+        return buffer.capacity();
+    }
+
+    public OverflowPolicy getPolicy() {
+        return policy;
+    }
+}
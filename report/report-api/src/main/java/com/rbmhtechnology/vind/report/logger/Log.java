@@ -1,10 +1,14 @@
 package com.rbmhtechnology.vind.report.logger;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.rbmhtechnology.vind.api.query.FulltextSearch;
 import com.rbmhtechnology.vind.api.query.division.Page;
 import com.rbmhtechnology.vind.api.query.division.ResultSubset;
 import com.rbmhtechnology.vind.api.query.division.Slice;
+import com.rbmhtechnology.vind.api.query.suggestion.ExecutableSuggestionSearch;
 import com.rbmhtechnology.vind.api.query.suggestion.SuggestionSearch;
 import com.rbmhtechnology.vind.api.result.SearchResult;
 import com.rbmhtechnology.vind.api.result.SuggestionResult;
@@ -16,30 +20,47 @@ import com.rbmhtechnology.vind.report.model.request.SuggestionRequest;
 import com.rbmhtechnology.vind.report.model.response.Response;
 import com.rbmhtechnology.vind.report.model.session.Session;
 
-import java.time.ZoneOffset;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
+ * A report entry. Entries are serialized as JSON objects by a streaming generator of a shared, preconfigured
+ * mapper, so serializers of the model beans are resolved once and no intermediate trees are built.
+ *
  * @author Thomas Kurz (tkurz@apache.org)
  * @since 13.07.16.
  */
 public class Log {
 
-    public static final String SOLR_DATE_TIME_FORMAT = "yyyy-MM-dd'T'hh:mm:ss'Z'";
-    private ObjectMapper mapper = new ObjectMapper();
+    public static final String SOLR_DATE_TIME_FORMAT = "yyyy-MM-dd'T'HH:mm:ss'Z'";
 
-    private Map<String,Object> values;
+
+    //closing the generator only empties its buffer into the target, flushing the target is up to the caller
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM)
+            .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+    //reused per thread, so converting to a string only allocates the string itself
+    private static final int MAX_BUFFER_SIZE = 64 * 1024;
+    private static final ThreadLocal<StringBuilderWriter> BUFFER = ThreadLocal.withInitial(StringBuilderWriter::new);
+
+    private final Map<String,Object> values = new LinkedHashMap<>(16);
+
+    private final ZonedDateTime timestamp;
 
     public Log(FullTextEntry logEntry) {
-        values = new HashMap<>();
+        timestamp = logEntry.getTimeStamp();
         values.put("application", logEntry.getApplication());
         values.put("session", logEntry.getSession());
         //values.put("module", module);
-        values.put("timestamp", DateTimeFormatter.ofPattern(SOLR_DATE_TIME_FORMAT).format(logEntry.getTimeStamp().withZoneSameInstant(ZoneOffset.UTC)));
+        values.put("timestamp", formatTimestamp(logEntry.getTimeStamp()));
         values.put("type","fulltext");
         values.put("request",logEntry.getRequest());
         values.put("sorting", logEntry.getSorting());
@@ -48,40 +69,168 @@ public class Log {
     }
 
     public Log(Application application, SuggestionSearch search, SuggestionResult result, ZonedDateTime start, ZonedDateTime end, Session session) {
-        values = new HashMap<>();
+        this(application, search, result, start, start.until(end, ChronoUnit.MILLIS), session);
+    }
+
+    public Log(Application application, ExecutableSuggestionSearch search, SuggestionResult result, ZonedDateTime start, ZonedDateTime end, Session session) {
+        this(application, search, result, start, start.until(end, ChronoUnit.MILLIS), session);
+    }
+
+    /**
+     * @param queryTime the query time in milliseconds
+     */
+    public Log(Application application, SuggestionSearch search, SuggestionResult result, ZonedDateTime start, long queryTime, Session session) {
+        this(application, new SuggestionRequest(search, "suggestion"), result, start, queryTime, session);
+    }
+
+    /**
+     * @param queryTime the query time in milliseconds
+     */
+    public Log(Application application, ExecutableSuggestionSearch search, SuggestionResult result, ZonedDateTime start, long queryTime, Session session) {
+        this(application, new SuggestionRequest(search, "suggestion"), result, start, queryTime, session);
+    }
+
+    private Log(Application application, SuggestionRequest request, SuggestionResult result, ZonedDateTime start, long queryTime, Session session) {
+        timestamp = start;
         values.put("application", application);
         values.put("session", session);
         //values.put("module", module);
-        values.put("timestamp", DateTimeFormatter.ofPattern(SOLR_DATE_TIME_FORMAT).format(start.withZoneSameInstant(ZoneOffset.UTC)));
+        values.put("timestamp", formatTimestamp(start));
         values.put("type","suggestion");
-        values.put("request",new SuggestionRequest(search, "suggestion"));
-        values.put("response",new Response(result.size(), result.getSuggestedFields().size() ,start.until(end, ChronoUnit.MILLIS)));
+        values.put("request",request);
+        values.put("response",new Response(result.size(), result.getSuggestedFields().size(), queryTime));
     }
 
     public Log(Application application, Interaction interaction, ZonedDateTime start, Session session) {
-        values = new HashMap<>();
+        timestamp = start;
         values.put("application", application);
         values.put("session", session);
         //values.put("module", module);
-        values.put("timestamp", DateTimeFormatter.ofPattern(SOLR_DATE_TIME_FORMAT).format(start.withZoneSameInstant(ZoneOffset.UTC)));
+        values.put("timestamp", formatTimestamp(start));
         values.put("type","interaction");
         values.put("request", interaction);
     }
 
+    /**
+     * Formats timestamps in UTC with millisecond resolution (e.g. {@code 2016-07-13T10:00:00.125Z}), so the timing
+     * of requests within a second is kept; Solr accepts the fraction of a second in dates.
+     */
+    private static String formatTimestamp(ZonedDateTime timestamp) {
+        return DateTimeFormatter.ISO_INSTANT.format(timestamp.toInstant().truncatedTo(ChronoUnit.MILLIS));
+    }
+
     public String toJson() {
+        final StringBuilderWriter buffer = BUFFER.get();
         try {
-            return mapper.writeValueAsString(values);
-        } catch (Exception e) {
-            throw new RuntimeException();
+            writeJson(buffer);
+            return buffer.toString();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not serialize report entry", e);
+        } finally {
+            buffer.reset(MAX_BUFFER_SIZE);
+        }
+    }
+
+    /**
+     * Writes the entry as JSON object, without flushing or closing the writer.
+     * @param writer the target
+     * @throws IOException if writing fails
+     */
+    public void writeJson(Writer writer) throws IOException {
+        try (JsonGenerator generator = MAPPER.getFactory().createGenerator(writer)) {
+            writeJson(generator);
+        }
+    }
+
+    /**
+     * Writes the entry as UTF-8 encoded JSON object, without flushing or closing the stream.
+     * @param out the target
+     * @throws IOException if writing fails
+     */
+    public void writeJson(OutputStream out) throws IOException {
+        try (JsonGenerator generator = MAPPER.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            writeJson(generator);
+        }
+    }
+
+    private void writeJson(JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        for(Map.Entry<String,Object> value : values.entrySet()) {
+            generator.writeFieldName(value.getKey());
+            generator.writeObject(value.getValue());
         }
+        generator.writeEndObject();
+    }
+
+    /**
+     * Records the probability the entry was sampled with, so aggregations can weight it accordingly. Entries
+     * without sample rate were not sampled.
+     * @param rate the sample rate, not recorded if 1
+     * @return this entry
+     */
+    public Log setSampleRate(double rate) {
+        if(rate < 1) {
+            values.put("sampleRate", rate);
+        } else {
+            values.remove("sampleRate");
+        }
+        return this;
     }
 
     public Map<String,Object> getValues() {
         return values;
     }
 
+    /**
+     * @return the start of the reported request or the time of the interaction
+     */
+    public ZonedDateTime getTimestamp() {
+        return timestamp;
+    }
+
     @Override
     public String toString() {
         return toJson();
     }
+
+    private static final class StringBuilderWriter extends Writer {
+
+        private StringBuilder builder = new StringBuilder(512);
+
+        @Override
+        public void write(char[] chars, int offset, int length) {
+            builder.append(chars, offset, length);
+        }
+
+        @Override
+        public void write(String string, int offset, int length) {
+            builder.append(string, offset, offset + length);
+        }
+
+        @Override
+        public void write(int c) {
+            builder.append((char) c);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        private void reset(int maxCapacity) {
+            if(builder.capacity() > maxCapacity) {
+                builder = new StringBuilder(512);
+            } else {
+                builder.setLength(0);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return builder.toString();
+        }
+    }
 }
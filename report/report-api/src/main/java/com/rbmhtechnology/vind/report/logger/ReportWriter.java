@@ -3,13 +3,14 @@ package com.rbmhtechnology.vind.report.logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Iterator;
+import java.util.List;
 import java.util.ServiceLoader;
 
 /**
  * @author Thomas Kurz (tkurz@apache.org)
  * @since 13.07.16.
  */
-public abstract class ReportWriter { //TODO could be an interface
+public abstract class ReportWriter implements AutoCloseable { //TODO could be an interface
 
     public static ReportWriter getInstance() {
         ServiceLoader<ReportWriter> loader = ServiceLoader.load(ReportWriter.class);
@@ -28,4 +29,20 @@ public abstract class ReportWriter { //TODO could be an interface
 
     public abstract void log(Log log);
 
+    /**
+     * Writes a batch of report entries. Writers which can write batches more efficiently than single entries
+     * should override this method.
+     * @param logs the report entries
+     */
+    public void log(List<Log> logs) {
+        logs.forEach(this::log);
+    }
+
+    /**
+     * Releases the resources of the writer, entries written afterwards may get lost.
+     */
+    @Override
+    public void close() {
+    }
+
 }
@@ -0,0 +1,108 @@
+package com.rbmhtechnology.vind.report.logger;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded lock-free ring buffer for many producers and a single consumer. Every slot carries a sequence
+ * number telling whether it is free for the producer of a position or filled for the consumer, so producers
+ * only compete by a compare-and-set on the tail position and never wait for each other.
+ */
+class RingBuffer<E> {
+
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * @param capacity the minimal capacity, rounded up to the next power of two
+     */
+    RingBuffer(int capacity) {
+        if(capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive, actually got: " + capacity);
+        }
+        final int size = capacity < 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for(int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * @param e the element
+     * @return false if the buffer is full
+     */
+    boolean offer(E e) {
+        long position = tail.get();
+        while(true) {
+            final int index = (int) (position & mask);
+            final long difference = sequences.get(index) - position;
+            if(difference == 0) {
+                if(tail.compareAndSet(position, position + 1)) {
+                    elements.lazySet(index, e);
+                    //publishes the element to the consumer
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if(difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * must only be called by the single consumer
+     * @return the oldest element or null if the buffer is empty
+     */
+    E poll() {
+        final long position = head.get();
+        final int index = (int) (position & mask);
+        if(sequences.get(index) != position + 1) {
+            return null;
+        }
+        final E e = elements.get(index);
+        elements.lazySet(index, null);
+        head.lazySet(position + 1);
+        //frees the slot for the producer of the next round
+        sequences.set(index, position + mask + 1);
+        return e;
+    }
+
+    /**
+     * must only be called by the single consumer
+     * @param target the collection to add the elements to
+     * @param max the maximum number of elements
+     * @return the number of drained elements
+     */
+    int drain(Collection<? super E> target, int max) {
+        int count = 0;
+        E e;
+        while(count < max && (e = poll()) != null) {
+            target.add(e);
+            count++;
+        }
+        return count;
+    }
+
+    int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+}
@@ -32,21 +32,35 @@ public class FullTextEntry implements LogEntry{
 
 
     public FullTextEntry(Application application, String source, FulltextSearch search, SearchResult result, ZonedDateTime start, ZonedDateTime end, Session session) {
+        this(application, source, search, result, start, start.until(end, ChronoUnit.MILLIS), session);
+    }
+
+    /**
+     * @param queryTime the query time in milliseconds
+     */
+    public FullTextEntry(Application application, String source, FulltextSearch search, SearchResult result, ZonedDateTime start, long queryTime, Session session) {
         this.application = application;
         this.session = session;
         this.timeStamp = start;
         this.request = new FullTextRequest(search,source);
-        this.response = new Response(result.getNumOfResults(), start.until(end, ChronoUnit.MILLIS));
+        this.response = new Response(result.getNumOfResults(), queryTime);
         this.sorting = search.getSorting().toString();
         this.paging = new Paging(search.getResultSet());
     }
 
     public FullTextEntry(Application application, String source, FulltextSearch search, BeanSearchResult result, ZonedDateTime start, ZonedDateTime end, Session session) {
+        this(application, source, search, result, start, start.until(end, ChronoUnit.MILLIS), session);
+    }
+
+    /**
+     * @param queryTime the query time in milliseconds
+     */
+    public FullTextEntry(Application application, String source, FulltextSearch search, BeanSearchResult result, ZonedDateTime start, long queryTime, Session session) {
         this.application = application;
         this.session = session;
         this.timeStamp = start;
         this.request = new FullTextRequest(search,source);
-        this.response = new Response(result.getNumOfResults(), start.until(end, ChronoUnit.MILLIS));
+        this.response = new Response(result.getNumOfResults(), queryTime);
         this.sorting = search.getSorting().toString();
     }
 
@@ -0,0 +1,111 @@
+package com.rbmhtechnology.vind.report.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free latency histogram with log-linear buckets, similar to an HdrHistogram: values below
+ * {@value #SUB_BUCKETS} are counted exactly, larger values in {@value #SUB_BUCKETS} linear sub-buckets per power of
+ * two, so a recorded value is off by less than 1/{@value #SUB_BUCKETS} (~1.6%). Recording is a single atomic
+ * increment of the bucket and does not allocate. Values are nanoseconds and capped at 2^43-1 ns (~147 minutes).
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 6;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 42;
+
+    static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(index(MAX_VALUE) + 1);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * @param nanos the latency in nanoseconds, negative values are recorded as 0
+     */
+    public void record(long nanos) {
+        final long value = nanos < 0 ? 0 : Math.min(nanos, MAX_VALUE);
+        buckets.incrementAndGet(index(value));
+        count.increment();
+        total.add(value);
+        if(value > max.get()) {
+            max.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    /**
+     * Clears the histogram. Values recorded concurrently may be partially cleared.
+     */
+    public void reset() {
+        for(int i = 0; i < buckets.length(); i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        total.reset();
+        max.set(0);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Copies the current state of the histogram; values recorded concurrently may be missing.
+     * @param interval the time over which the values were recorded, used to compute the rate
+     * @return the snapshot
+     */
+    public LatencySnapshot snapshot(long interval) {
+        final long[] counts = new long[buckets.length()];
+        long sum = 0;
+        for(int i = 0; i < counts.length; i++) {
+            counts[i] = buckets.get(i);
+            sum += counts[i];
+        }
+        final long maximum = max.get();
+        return new LatencySnapshot(sum,
+                interval > 0 ? sum * 1e9 / interval : 0,
+                sum > 0 ? total.sum() / sum : 0,
+                maximum,
+                percentile(counts, sum, maximum, 50),
+                percentile(counts, sum, maximum, 90),
+                percentile(counts, sum, maximum, 99),
+                percentile(counts, sum, maximum, 99.9));
+    }
+
+    private static long percentile(long[] counts, long sum, long max, double percentile) {
+        if(sum == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(sum * percentile / 100));
+        long seen = 0;
+        for(int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if(seen >= rank) {
+                return Math.min(highestEquivalentValue(i), max);
+            }
+        }
+        return max;
+    }
+
+    static int index(long value) {
+        if(value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        final int shift = exponent - SUB_BUCKET_BITS;
+        //the top bits of the value without the leading one select the sub-bucket
+        return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    static long highestEquivalentValue(int index) {
+        if(index < SUB_BUCKETS) {
+            return index;
+        }
+        final int shift = index / SUB_BUCKETS - 1;
+        final long lowest = (long) (index % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,73 @@
+package com.rbmhtechnology.vind.report.metrics;
+
+import java.time.Duration;
+
+/**
+ * The latency distribution and rate of an operation at the time of the snapshot.
+ */
+public class LatencySnapshot {
+
+    private final long count;
+    private final double rate;
+    private final long mean;
+    private final long max;
+    private final long p50;
+    private final long p90;
+    private final long p99;
+    private final long p999;
+
+    LatencySnapshot(long count, double rate, long mean, long max, long p50, long p90, long p99, long p999) {
+        this.count = count;
+        this.rate = rate;
+        this.mean = mean;
+        this.max = max;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+        this.p999 = p999;
+    }
+
+    /**
+     * @return the number of recorded operations
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the average number of operations per second
+     */
+    public double getRate() {
+        return rate;
+    }
+
+    public Duration getMean() {
+        return Duration.ofNanos(mean);
+    }
+
+    public Duration getMax() {
+        return Duration.ofNanos(max);
+    }
+
+    public Duration getP50() {
+        return Duration.ofNanos(p50);
+    }
+
+    public Duration getP90() {
+        return Duration.ofNanos(p90);
+    }
+
+    public Duration getP99() {
+        return Duration.ofNanos(p99);
+    }
+
+    public Duration getP999() {
+        return Duration.ofNanos(p999);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d, rate=%.2f/s, mean=%.3fms, p50=%.3fms, p90=%.3fms, p99=%.3fms, p999=%.3fms, max=%.3fms",
+                count, rate, mean / 1e6, p50 / 1e6, p90 / 1e6, p99 / 1e6, p999 / 1e6, max / 1e6);
+    }
+}
@@ -0,0 +1,72 @@
+package com.rbmhtechnology.vind.report.metrics;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Latency histograms and rates per {@link Operation} of a search server. Latencies are measured with
+ * {@link System#nanoTime()}; rates are averaged since the metrics were created or last reset.
+ */
+public class SearchMetrics {
+
+    public enum Operation {
+        FULLTEXT,
+        SUGGESTION,
+        GET,
+        COUNT,
+        FACETS,
+        INDEX,
+        UPDATE,
+        DELETE,
+        COMMIT
+    }
+
+    private final EnumMap<Operation, LatencyHistogram> histograms = new EnumMap<>(Operation.class);
+
+    private volatile long started = System.nanoTime();
+
+    public SearchMetrics() {
+        for(Operation operation : Operation.values()) {
+            histograms.put(operation, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * Records an operation which started at the given time.
+     * @param operation the operation
+     * @param start the start of the operation as given by {@link System#nanoTime()}
+     * @return the latency of the operation in nanoseconds
+     */
+    public long record(Operation operation, long start) {
+        final long latency = System.nanoTime() - start;
+        histograms.get(operation).record(latency);
+        return latency;
+    }
+
+    /**
+     * @param operation the operation
+     * @return the current latencies and rate of the operation
+     */
+    public LatencySnapshot snapshot(Operation operation) {
+        return histograms.get(operation).snapshot(System.nanoTime() - started);
+    }
+
+    /**
+     * @return the current latencies and rates of all operations
+     */
+    public Map<Operation, LatencySnapshot> snapshot() {
+        final long interval = System.nanoTime() - started;
+        final EnumMap<Operation, LatencySnapshot> snapshots = new EnumMap<>(Operation.class);
+        histograms.forEach((operation, histogram) -> snapshots.put(operation, histogram.snapshot(interval)));
+        return Collections.unmodifiableMap(snapshots);
+    }
+
+    /**
+     * Clears all histograms and restarts the rate measurement.
+     */
+    public void reset() {
+        histograms.values().forEach(LatencyHistogram::reset);
+        started = System.nanoTime();
+    }
+}
@@ -32,4 +32,16 @@ public class Paging {
             default: break;
         }
     }
+
+    public long getIndex() {
+        return index;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public ResultSubset.DivisionType getType() {
+        return type;
+    }
 }
@@ -4,17 +4,22 @@
 package com.rbmhtechnology.vind.report.model.request;
 
 import com.rbmhtechnology.vind.api.query.filter.Filter;
+import com.rbmhtechnology.vind.api.query.suggestion.DescriptorSuggestionSearch;
+import com.rbmhtechnology.vind.api.query.suggestion.ExecutableSuggestionSearch;
+import com.rbmhtechnology.vind.api.query.suggestion.StringSuggestionSearch;
 import com.rbmhtechnology.vind.api.query.suggestion.SuggestionSearch;
+import com.rbmhtechnology.vind.model.FieldDescriptor;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Objects;
+import java.util.stream.Collectors;
 
 /**
  * Created on 02.10.17.
  */
 public class SuggestionRequest implements SearchRequest {
 
-    private SuggestionSearch search;
     private String query;
     private Collection<String> suggestionFields;
     private Filter filter;
@@ -22,11 +27,27 @@ public class SuggestionRequest implements SearchRequest {
     private String source;
 
     public SuggestionRequest(SuggestionSearch search, String source) {
-        this.search = search;
-        this.query = this.search.getInput();
-        this.suggestionFields = this.search.getSuggestionStringFields();
-        if (Objects.nonNull(this.search.getFilter())) {
-            this.filter = this.search.getFilter();
+        this.query = search.getInput();
+        this.suggestionFields = search.getSuggestionStringFields();
+        if (Objects.nonNull(search.getFilter())) {
+            this.filter = search.getFilter();
+        }
+        this.source = source;
+    }
+
+    public SuggestionRequest(ExecutableSuggestionSearch search, String source) {
+        this.query = search.getInput();
+        if (search instanceof StringSuggestionSearch) {
+            this.suggestionFields = ((StringSuggestionSearch) search).getSuggestionFields();
+        } else if (search instanceof DescriptorSuggestionSearch) {
+            this.suggestionFields = ((DescriptorSuggestionSearch) search).getSuggestionFields().stream()
+                    .map(FieldDescriptor::getName)
+                    .collect(Collectors.toList());
+        } else {
+            this.suggestionFields = Collections.emptyList();
+        }
+        if (Objects.nonNull(search.getFilter())) {
+            this.filter = search.getFilter();
         }
         this.source = source;
     }
@@ -38,7 +59,7 @@ public class SuggestionRequest implements SearchRequest {
 
     @Override
     public Filter getFilter() {
-        return null;
+        return this.filter;
     }
 
     public Collection<String> getSuggestionFields() {
@@ -0,0 +1,263 @@
+package com.rbmhtechnology.vind.report.replay;
+
+import com.rbmhtechnology.vind.api.SearchServer;
+import com.rbmhtechnology.vind.model.DocumentFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Warms the caches of a search server, e.g. after a restart or a collection swap, by replaying the most frequent
+ * recent requests of report files (see {@link RecordedRequest}) before the server takes traffic. Requests are
+ * replayed most frequent first by a bounded number of threads; requests which cannot be reconstructed or fail
+ * are counted and skipped.
+ * <pre>
+ * final CacheWarmer.Result result = new CacheWarmer(server, factory)
+ *         .setSince(Instant.now().minus(Duration.ofHours(1)))
+ *         .setLimit(500)
+ *         .warmUp(reportFile);
+ * </pre>
+ */
+public class CacheWarmer {
+
+    public static final int DEFAULT_CONCURRENCY = 4;
+    public static final int DEFAULT_LIMIT = 1000;
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofMinutes(5);
+
+    private final Logger log = LoggerFactory.getLogger(CacheWarmer.class);
+
+    private final SearchServer server;
+    private final DocumentFactory factory;
+
+    private int concurrency = DEFAULT_CONCURRENCY;
+    private int limit = DEFAULT_LIMIT;
+    private Instant since = null;
+    private Duration timeout = DEFAULT_TIMEOUT;
+
+    /**
+     * @param server the server to warm up
+     * @param factory the factory of the searched documents
+     */
+    public CacheWarmer(SearchServer server, DocumentFactory factory) {
+        this.server = server;
+        this.factory = factory;
+    }
+
+    /**
+     * @param concurrency the number of requests executed at once
+     * @return this
+     */
+    public CacheWarmer setConcurrency(int concurrency) {
+        if(concurrency < 1) {
+            throw new IllegalArgumentException("Concurrency must be positive, actually got: " + concurrency);
+        }
+        this.concurrency = concurrency;
+        return this;
+    }
+
+    /**
+     * @param limit the number of distinct requests replayed at most
+     * @return this
+     */
+    public CacheWarmer setLimit(int limit) {
+        this.limit = limit;
+        return this;
+    }
+
+    /**
+     * @param since requests before are ignored, as well as requests without timestamp
+     * @return this
+     */
+    public CacheWarmer setSince(Instant since) {
+        this.since = since;
+        return this;
+    }
+
+    /**
+     * @param timeout the time after which pending requests are cancelled
+     * @return this
+     */
+    public CacheWarmer setTimeout(Duration timeout) {
+        this.timeout = timeout;
+        return this;
+    }
+
+    /**
+     * @param files report files, optionally gzip compressed
+     * @return the result of the warm-up
+     * @throws IOException if a file cannot be read
+     */
+    public Result warmUp(Path... files) throws IOException {
+        final Map<String, Candidate> candidates = new HashMap<>();
+        final AtomicInteger ignored = new AtomicInteger();
+        for(Path file : files) {
+            try (Stream<RecordedRequest> requests = RecordedRequest.read(file)) {
+                requests.forEach(request -> count(candidates, request, ignored));
+            }
+        }
+        return replay(candidates, ignored.get());
+    }
+
+    /**
+     * @param requests the recorded requests
+     * @return the result of the warm-up
+     */
+    public Result warmUp(Stream<RecordedRequest> requests) {
+        final Map<String, Candidate> candidates = new HashMap<>();
+        final AtomicInteger ignored = new AtomicInteger();
+        requests.forEach(request -> count(candidates, request, ignored));
+        return replay(candidates, ignored.get());
+    }
+
+    private void count(Map<String, Candidate> candidates, RecordedRequest request, AtomicInteger ignored) {
+        if(since != null && (request.getTimestamp() == null || request.getTimestamp().isBefore(since))) {
+            ignored.incrementAndGet();
+            return;
+        }
+        candidates.computeIfAbsent(request.getKey(), key -> new Candidate(request)).count++;
+    }
+
+    private Result replay(Map<String, Candidate> candidates, int ignored) {
+        final List<Candidate> selected = candidates.values().stream()
+                .sorted(Comparator.comparingLong((Candidate c) -> c.count).reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+
+        final long start = System.nanoTime();
+        final AtomicInteger replayed = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+
+        final List<Callable<Void>> tasks = new ArrayList<>(selected.size());
+        for(Candidate candidate : selected) {
+            tasks.add(() -> {
+                try {
+                    candidate.request.execute(server, factory);
+                    replayed.incrementAndGet();
+                } catch (Exception e) {
+                    failed.incrementAndGet();
+                    log.debug("Could not replay request {}: {}", candidate.request, e.getMessage());
+                }
+                return null;
+            });
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(concurrency, r -> {
+            final Thread thread = new Thread(r, "vind-cache-warmer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        int cancelled = 0;
+        try {
+            //tasks are started in the order of the list, so the most frequent requests first
+            for(Future<Void> future : executor.invokeAll(tasks, timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                try {
+                    future.get();
+                } catch (CancellationException e) {
+                    cancelled++;
+                } catch (ExecutionException e) {
+                    failed.incrementAndGet();
+                }
+            }
+        } catch (InterruptedException e) {
+            log.warn("Got interrupted while warming up the caches.", e);
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        final Result result = new Result(candidates.size(), replayed.get(), failed.get(), cancelled, ignored,
+                Duration.ofNanos(System.nanoTime() - start));
+        log.info("Warmed up caches: {}", result);
+        return result;
+    }
+
+    private static class Candidate {
+
+        private final RecordedRequest request;
+        private long count = 0;
+
+        private Candidate(RecordedRequest request) {
+            this.request = request;
+        }
+    }
+
+    public static class Result {
+
+        private final int distinct;
+        private final int replayed;
+        private final int failed;
+        private final int cancelled;
+        private final int ignored;
+        private final Duration duration;
+
+        Result(int distinct, int replayed, int failed, int cancelled, int ignored, Duration duration) {
+            this.distinct = distinct;
+            this.replayed = replayed;
+            this.failed = failed;
+            this.cancelled = cancelled;
+            this.ignored = ignored;
+            this.duration = duration;
+        }
+
+        /**
+         * @return the number of distinct recent requests
+         */
+        public int getDistinct() {
+            return distinct;
+        }
+
+        public int getReplayed() {
+            return replayed;
+        }
+
+        /**
+         * @return the number of requests which could not be reconstructed or failed
+         */
+        public int getFailed() {
+            return failed;
+        }
+
+        /**
+         * @return the number of requests cancelled by the timeout
+         */
+        public int getCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * @return the number of requests older than the configured time
+         */
+        public int getIgnored() {
+            return ignored;
+        }
+
+        public Duration getDuration() {
+            return duration;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d of %d distinct requests replayed in %dms, %d failed, %d cancelled, %d ignored",
+                    replayed, distinct, duration.toMillis(), failed, cancelled, ignored);
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.rbmhtechnology.vind.report.replay;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rbmhtechnology.vind.api.SearchServer;
+import com.rbmhtechnology.vind.api.query.FulltextSearch;
+import com.rbmhtechnology.vind.api.query.Search;
+import com.rbmhtechnology.vind.api.query.filter.Filter;
+import com.rbmhtechnology.vind.api.query.sort.Sort;
+import com.rbmhtechnology.vind.api.query.suggestion.ExecutableSuggestionSearch;
+import com.rbmhtechnology.vind.model.DocumentFactory;
+import com.rbmhtechnology.vind.report.logger.entry.LogEntry.EntryType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * A fulltext or suggestion request read from a JSON report entry, as written by the report writers, which can
+ * be executed again. The search is reconstructed from the logged request model: query, term facets, field
+ * sorting and paging as well as term, prefix, numeric and combined filters are supported; entries with other
+ * filters cannot be reconstructed.
+ */
+public class RecordedRequest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final EntryType type;
+    private final Instant timestamp;
+    private final JsonNode entry;
+    private final String key;
+
+    private RecordedRequest(EntryType type, Instant timestamp, JsonNode entry) {
+        this.type = type;
+        this.timestamp = timestamp;
+        this.entry = entry;
+        this.key = type + "|" + entry.path("request") + "|" + entry.path("sorting") + "|" + entry.path("paging");
+    }
+
+    /**
+     * @param line a report entry, optionally prefixed (e.g. by a log pattern)
+     * @return the request, or null if the line is no fulltext or suggestion entry
+     */
+    public static RecordedRequest parse(String line) {
+        final int start = line.indexOf('{');
+        if(start < 0) {
+            return null;
+        }
+        final JsonNode entry;
+        try {
+            entry = MAPPER.readTree(line.substring(start));
+        } catch (IOException e) {
+            return null;
+        }
+        if(entry == null || !entry.path("request").isObject()) {
+            return null;
+        }
+        final EntryType type;
+        switch (entry.path("type").asText()) {
+            case "fulltext": type = EntryType.fulltext; break;
+            case "suggestion": type = EntryType.suggestion; break;
+            default: return null;
+        }
+        Instant timestamp = null;
+        if(entry.hasNonNull("timestamp")) {
+            try {
+                timestamp = Instant.parse(entry.get("timestamp").asText());
+            } catch (DateTimeParseException e) {
+                //kept without timestamp
+            }
+        }
+        return new RecordedRequest(type, timestamp, entry);
+    }
+
+    /**
+     * Reads the requests of a report file; files ending with {@code .gz} are decompressed. The stream has to be
+     * closed.
+     * @param file the report file, one entry per line
+     * @return the requests in the order of the file
+     * @throws IOException if the file cannot be opened
+     */
+    public static Stream<RecordedRequest> read(Path file) throws IOException {
+        InputStream in = Files.newInputStream(file);
+        try {
+            if(file.getFileName().toString().endsWith(".gz")) {
+                in = new GZIPInputStream(in, 64 * 1024);
+            }
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        return reader.lines()
+                .map(RecordedRequest::parse)
+                .filter(Objects::nonNull)
+                .onClose(() -> {
+                    try {
+                        reader.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * Executes the reconstructed search.
+     * @param server the server
+     * @param factory the factory of the searched documents
+     * @return the number of results
+     */
+    public long execute(SearchServer server, DocumentFactory factory) {
+        switch (type) {
+            case fulltext:
+                return server.execute(toFulltextSearch(), factory).getNumOfResults();
+            default:
+                return server.execute(toSuggestionSearch(), factory).size();
+        }
+    }
+
+    public FulltextSearch toFulltextSearch() {
+        if(type != EntryType.fulltext) {
+            throw new IllegalStateException("Not a fulltext request but " + type);
+        }
+        final JsonNode request = entry.path("request");
+        final FulltextSearch search = Search.fulltext(request.path("query").asText("*"));
+
+        if(request.path("filter").isObject()) {
+            search.filter(toFilter(request.get("filter")));
+        }
+        //only term facets are reconstructed
+        for(JsonNode facet : request.path("facets")) {
+            if(facet.path("fieldDescriptor").hasNonNull("name")) {
+                search.facet(facet.get("fieldDescriptor").get("name").asText());
+            }
+        }
+
+        final String sorting = entry.path("sorting").asText(null);
+        if(sorting != null) {
+            try {
+                for(JsonNode sort : MAPPER.readTree(sorting)) {
+                    search.sort(Sort.field(sort.path("field").asText(), Sort.Direction.valueOf(sort.path("direction").asText())));
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                throw new IllegalStateException("Cannot reconstruct sorting " + sorting, e);
+            }
+        }
+
+        final JsonNode paging = entry.path("paging");
+        if(paging.isObject()) {
+            switch (paging.path("type").asText()) {
+                case "page":
+                    search.page(paging.path("index").asInt(), paging.path("size").asInt());
+                    break;
+                case "slice":
+                    search.slice(paging.path("index").asInt(), paging.path("size").asInt());
+                    break;
+                default: break;
+            }
+        }
+        return search;
+    }
+
+    public ExecutableSuggestionSearch toSuggestionSearch() {
+        if(type != EntryType.suggestion) {
+            throw new IllegalStateException("Not a suggestion request but " + type);
+        }
+        final JsonNode request = entry.path("request");
+        final List<String> fields = new ArrayList<>();
+        request.path("suggestionFields").forEach(field -> fields.add(field.asText()));
+        final ExecutableSuggestionSearch search = Search.suggest(request.path("query").asText(""))
+                .fields(fields.toArray(new String[fields.size()]));
+        if(request.path("filter").isObject()) {
+            search.filter(toFilter(request.get("filter")));
+        }
+        return search;
+    }
+
+    private static Filter toFilter(JsonNode filter) {
+        final String type = filter.path("type").asText();
+        switch (type) {
+            case "AndFilter":
+                return toFilters(filter.path("children")).stream().collect(Filter.AndCollector);
+            case "OrFilter":
+                return toFilters(filter.path("children")).stream().collect(Filter.OrCollector);
+            case "NotFilter":
+                return Filter.not(toFilter(filter.path("delegate")));
+            case "TermFilter":
+                return Filter.eq(filter.path("field").asText(), filter.path("term").asText());
+            case "DescriptorFilter":
+                return Filter.eq(filter.path("descriptor").path("name").asText(), filter.path("term").asText());
+            case "PrefixFilter":
+                return Filter.prefix(filter.path("field").asText(), filter.path("term").asText());
+            case "BetweenNumericFilter":
+                return Filter.between(filter.path("field").asText(), filter.path("start").numberValue(), filter.path("end").numberValue());
+            case "GreaterThanFilter":
+                return Filter.greaterThan(filter.path("field").asText(), filter.path("number").numberValue());
+            case "LowerThanFilter":
+                return Filter.lesserThan(filter.path("field").asText(), filter.path("number").numberValue());
+            default:
+                throw new IllegalStateException("Cannot reconstruct filter of type '" + type + "'");
+        }
+    }
+
+    private static List<Filter> toFilters(JsonNode children) {
+        final List<Filter> filters = new ArrayList<>();
+        for(Iterator<JsonNode> it = children.elements(); it.hasNext();) {
+            filters.add(toFilter(it.next()));
+        }
+        return filters;
+    }
+
+    public EntryType getType() {
+        return type;
+    }
+
+    /**
+     * @return the time of the request, or null if not known
+     */
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return the query time in milliseconds, or -1 if not known
+     */
+    public long getQueryTime() {
+        return entry.path("response").path("query_time").asLong(-1);
+    }
+
+    /**
+     * @return a key which is equal for requests reconstructed to equal searches
+     */
+    public String getKey() {
+        return key;
+    }
+
+    @Override
+    public String toString() {
+        return key;
+    }
+}
@@ -0,0 +1,65 @@
+package com.rbmhtechnology.vind.report;
+
+import com.rbmhtechnology.vind.configure.SearchConfiguration;
+import com.rbmhtechnology.vind.report.metrics.SearchMetrics.Operation;
+import com.rbmhtechnology.vind.report.model.application.SimpleApplication;
+import com.rbmhtechnology.vind.report.model.session.SimpleSession;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class ReportSamplerTest {
+
+    @Test
+    public void testSessionSampling() {
+        final Map<Operation, Double> rates = new EnumMap<>(Operation.class);
+        rates.put(Operation.FULLTEXT, 0.1);
+        rates.put(Operation.SUGGESTION, 0.0);
+        final ReportSampler sampler = new ReportSampler(rates, true, true, Duration.ofSeconds(1));
+
+        int kept = 0;
+        for(int i = 0; i < 10000; i++) {
+            final SimpleSession session = new SimpleSession("session-" + i);
+            final double rate = sampler.sample(Operation.FULLTEXT, session, 10, 0);
+            if(rate > 0) {
+                assertEquals(0.1, rate, 0);
+                kept++;
+            }
+            //whole sessions are kept or dropped
+            for(int j = 0; j < 3; j++) {
+                assertEquals(rate, sampler.sample(Operation.FULLTEXT, session, 10, 0), 0);
+            }
+            assertEquals(0, sampler.sample(Operation.SUGGESTION, session, 10, 0), 0);
+        }
+        assertEquals(1000, kept, 100);
+
+        //operations without rate are not sampled
+        assertEquals(1, sampler.sample(Operation.GET, new SimpleSession("s"), 10, 0), 0);
+    }
+
+    @Test
+    public void testKeepZeroResultsAndSlowQueries() {
+        final ReportSampler sampler = new ReportSampler(Collections.singletonMap(Operation.FULLTEXT, 0.0), true, true, Duration.ofMillis(500));
+
+        assertEquals(0, sampler.sample(Operation.FULLTEXT, new SimpleSession("s"), 10, TimeUnit.MILLISECONDS.toNanos(499)), 0);
+        assertEquals(1, sampler.sample(Operation.FULLTEXT, new SimpleSession("s"), 0, 0), 0);
+        assertEquals(1, sampler.sample(Operation.FULLTEXT, null, 10, TimeUnit.MILLISECONDS.toNanos(500)), 0);
+
+        final ReportSampler unforced = new ReportSampler(Collections.singletonMap(Operation.FULLTEXT, 0.0), false, false, Duration.ZERO);
+        assertEquals(0, unforced.sample(Operation.FULLTEXT, null, 0, TimeUnit.HOURS.toNanos(1)), 0);
+    }
+
+    @Test
+    public void testConfiguration() {
+        SearchConfiguration.set(ReportSampler.REPORTING_SAMPLING_APPLICATION_RATE + ".sampled", "0.25");
+
+        assertEquals(0.25, new ReportSampler(new SimpleApplication("sampled")).getRate(Operation.FULLTEXT), 0);
+        assertEquals(1, new ReportSampler(new SimpleApplication("other")).getRate(Operation.FULLTEXT), 0);
+    }
+}
@@ -7,7 +7,10 @@ import com.rbmhtechnology.vind.model.*;
 import com.rbmhtechnology.vind.report.model.application.SimpleApplication;
 import com.rbmhtechnology.vind.report.logger.Log;
 import com.rbmhtechnology.vind.report.logger.ReportWriter;
+import com.rbmhtechnology.vind.report.metrics.LatencySnapshot;
+import com.rbmhtechnology.vind.report.metrics.SearchMetrics;
 import com.rbmhtechnology.vind.report.model.request.SearchRequest;
+import com.rbmhtechnology.vind.report.model.request.SuggestionRequest;
 import com.rbmhtechnology.vind.report.model.session.SimpleSession;
 import com.rbmhtechnology.vind.test.SearchTestcase;
 import org.junit.Rule;
@@ -16,9 +19,13 @@ import org.junit.rules.ExpectedException;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Map;
 
 import static com.rbmhtechnology.vind.api.query.filter.Filter.*;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author Thomas Kurz (tkurz@apache.org)
@@ -64,6 +71,56 @@ public class ReportingSearchServerTest extends SearchTestcase {
         assertEquals("Hello World", ((SearchRequest)logger.logs.get(1).getValues().get("request")).getQuery());
     }
 
+    @Test
+    public void testSuggestionReporting() {
+        final TestReportWriter logger = new TestReportWriter();
+        final ReportingSearchServer server = new ReportingSearchServer(testSearchServer.getSearchServer(), new SimpleApplication("app"), new SimpleSession("123"), logger);
+
+        final SingleValueFieldDescriptor.TextFieldDescriptor<String> textField = new FieldDescriptorBuilder<String>()
+                .setSuggest(true)
+                .buildTextField("textField");
+
+        final DocumentFactory factory = new DocumentFactoryBuilder("asset")
+                .addField(textField)
+                .build();
+
+        server.execute(Search.suggest("hel").fields("textField").filter(eq(textField, "world")), factory);
+        server.execute(Search.suggest("hel").fields(textField), factory);
+
+        assertEquals(2, logger.logs.size());
+        final SuggestionRequest request = (SuggestionRequest) logger.logs.get(0).getValues().get("request");
+        assertEquals("suggestion", logger.logs.get(0).getValues().get("type"));
+        assertEquals("hel", request.getQuery());
+        assertEquals(Collections.singletonList("textField"), new ArrayList<>(request.getSuggestionFields()));
+        assertNotNull(request.getFilter());
+        assertEquals(Collections.singletonList("textField"), new ArrayList<>(((SuggestionRequest) logger.logs.get(1).getValues().get("request")).getSuggestionFields()));
+        assertEquals(2, server.getMetrics().snapshot(SearchMetrics.Operation.SUGGESTION).getCount());
+    }
+
+    @Test
+    public void testMetrics() {
+        final TestReportWriter logger = new TestReportWriter();
+        final ReportingSearchServer server = new ReportingSearchServer(testSearchServer.getSearchServer(), new SimpleApplication("app"), new SimpleSession("123"), logger);
+
+        final DocumentFactory factory = new DocumentFactoryBuilder("asset").build();
+
+        server.index(factory.createDoc("1"), factory.createDoc("2"));
+        server.commit();
+        server.execute(Search.fulltext(), factory);
+        server.execute(Search.fulltext("Hello World"), factory);
+
+        final Map<SearchMetrics.Operation, LatencySnapshot> snapshot = server.getMetrics().snapshot();
+        assertEquals(1, snapshot.get(SearchMetrics.Operation.INDEX).getCount());
+        assertEquals(1, snapshot.get(SearchMetrics.Operation.COMMIT).getCount());
+        assertEquals(2, snapshot.get(SearchMetrics.Operation.FULLTEXT).getCount());
+        assertEquals(0, snapshot.get(SearchMetrics.Operation.SUGGESTION).getCount());
+        assertTrue(snapshot.get(SearchMetrics.Operation.FULLTEXT).getP99().compareTo(snapshot.get(SearchMetrics.Operation.FULLTEXT).getMax()) <= 0);
+        assertEquals(2, logger.logs.size());
+
+        server.getMetrics().reset();
+        assertEquals(0, server.getMetrics().snapshot(SearchMetrics.Operation.FULLTEXT).getCount());
+    }
+
     public class TestReportWriter extends ReportWriter {
 
         public ArrayList<Log> logs = new ArrayList<>();
@@ -0,0 +1,205 @@
+package com.rbmhtechnology.vind.report.logger;
+
+import com.rbmhtechnology.vind.report.model.application.SimpleApplication;
+import com.rbmhtechnology.vind.report.model.interaction.SelectInteraction;
+import com.rbmhtechnology.vind.report.model.session.SimpleSession;
+import org.junit.Test;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AsyncReportWriterTest {
+
+    @Test
+    public void testBatchedWriting() throws Exception {
+        final TestReportWriter target = new TestReportWriter();
+        final AsyncReportWriter writer = new AsyncReportWriter(target, 16, 4, AsyncReportWriter.OverflowPolicy.BLOCK);
+
+        final List<Thread> threads = new ArrayList<>();
+        for(int t = 0; t < 4; t++) {
+            final Thread thread = new Thread(() -> {
+                for(int i = 0; i < 250; i++) {
+                    writer.log(log(String.valueOf(i)));
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for(Thread thread : threads) {
+            thread.join();
+        }
+        writer.close();
+
+        assertEquals(1000, target.logs.size());
+        assertEquals(1000, writer.getWritten());
+        assertEquals(0, writer.getDropped());
+        assertEquals(0, writer.getPending());
+        assertTrue(target.closed);
+        assertTrue(target.batches.stream().allMatch(size -> size <= 4));
+    }
+
+    @Test
+    public void testDropOnOverflow() throws Exception {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final TestReportWriter target = new TestReportWriter() {
+            @Override
+            public void log(List<Log> logs) {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.log(logs);
+            }
+        };
+        final AsyncReportWriter writer = new AsyncReportWriter(target, 4, 1, AsyncReportWriter.OverflowPolicy.DROP);
+
+        //the first entry blocks the drain thread
+        writer.log(log("0"));
+        assertTrue(blocked.await(10, TimeUnit.SECONDS));
+
+        for(int i = 1; i <= 10; i++) {
+            writer.log(log(String.valueOf(i)));
+        }
+        assertEquals(4, writer.getPending());
+        assertEquals(6, writer.getDropped());
+
+        release.countDown();
+        writer.close();
+
+        assertEquals(5, target.logs.size());
+        assertEquals(5, writer.getWritten());
+
+        //entries logged after closing are dropped
+        writer.log(log("11"));
+        assertEquals(7, writer.getDropped());
+    }
+
+    @Test
+    public void testBlockUntilDrained() throws Exception {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final TestReportWriter target = new TestReportWriter() {
+            @Override
+            public void log(List<Log> logs) {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.log(logs);
+            }
+        };
+        final AsyncReportWriter writer = new AsyncReportWriter(target, 2, 2, AsyncReportWriter.OverflowPolicy.BLOCK);
+
+        writer.log(log("0"));
+        assertTrue(blocked.await(10, TimeUnit.SECONDS));
+        writer.log(log("1"));
+        writer.log(log("2"));
+
+        //the buffer is full, so the producer waits until the drain thread takes the next batch
+        final Thread producer = new Thread(() -> writer.log(log("3")));
+        producer.start();
+        producer.join(100);
+        assertTrue(producer.isAlive());
+
+        release.countDown();
+        producer.join(TimeUnit.SECONDS.toMillis(10));
+        assertFalse(producer.isAlive());
+
+        writer.close();
+        assertEquals(4, writer.getWritten());
+        assertEquals(0, writer.getDropped());
+    }
+
+    @Test
+    public void testLogRacingClose() throws Exception {
+        for(int run = 0; run < 20; run++) {
+            final TestReportWriter target = new TestReportWriter();
+            final AsyncReportWriter writer = new AsyncReportWriter(target, 1024, 16, AsyncReportWriter.OverflowPolicy.DROP);
+
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Thread> threads = new ArrayList<>();
+            for(int t = 0; t < 4; t++) {
+                final Thread thread = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    for(int i = 0; i < 500; i++) {
+                        writer.log(log(String.valueOf(i)));
+                    }
+                });
+                thread.start();
+                threads.add(thread);
+            }
+            start.countDown();
+            writer.close();
+            for(Thread thread : threads) {
+                thread.join();
+            }
+
+            //every entry is either written or counted as dropped
+            assertEquals("run " + run, 2000, writer.getWritten() + writer.getDropped());
+            assertEquals("run " + run, writer.getWritten(), target.logs.size());
+        }
+    }
+
+    @Test
+    public void testRingBuffer() {
+        final RingBuffer<Integer> buffer = new RingBuffer<>(3);
+        assertEquals(4, buffer.capacity());
+
+        for(int round = 0; round < 3; round++) {
+            for(int i = 0; i < 4; i++) {
+                assertTrue(buffer.offer(i));
+            }
+            assertFalse(buffer.offer(4));
+
+            final List<Integer> drained = new ArrayList<>();
+            assertEquals(4, buffer.drain(drained, 10));
+            assertEquals(Arrays.asList(0, 1, 2, 3), drained);
+            assertTrue(buffer.isEmpty());
+        }
+    }
+
+    private static Log log(String id) {
+        return new Log(new SimpleApplication("app"), new SelectInteraction(id), ZonedDateTime.now(), new SimpleSession("session"));
+    }
+
+    private static class TestReportWriter extends ReportWriter {
+
+        private final List<Log> logs = Collections.synchronizedList(new ArrayList<>());
+        private final List<Integer> batches = Collections.synchronizedList(new ArrayList<>());
+        private volatile boolean closed = false;
+
+        @Override
+        public void log(Log log) {
+            logs.add(log);
+        }
+
+        @Override
+        public void log(List<Log> logs) {
+            batches.add(logs.size());
+            super.log(logs);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
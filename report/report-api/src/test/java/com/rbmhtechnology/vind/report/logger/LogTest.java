@@ -0,0 +1,86 @@
+package com.rbmhtechnology.vind.report.logger;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rbmhtechnology.vind.report.model.application.SimpleApplication;
+import com.rbmhtechnology.vind.report.model.interaction.SelectInteraction;
+import com.rbmhtechnology.vind.report.model.session.SimpleSession;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+public class LogTest {
+
+    @Test
+    public void testJsonSerialization() throws Exception {
+        final ZonedDateTime start = ZonedDateTime.of(2017, 10, 3, 8, 15, 30, 0, ZoneId.of("Europe/Vienna"));
+        final Log log = new Log(new SimpleApplication("app"), new SelectInteraction("doc-1"), start, new SimpleSession("123"));
+
+        final String json = log.toJson();
+        final JsonNode node = new ObjectMapper().readTree(json);
+
+        final List<String> fields = new ArrayList<>();
+        final Iterator<String> names = node.fieldNames();
+        names.forEachRemaining(fields::add);
+        assertEquals(Arrays.asList("application", "session", "timestamp", "type", "request"), fields);
+
+        assertEquals("app", node.get("application").get("id").asText());
+        assertEquals("123", node.get("session").get("sessionId").asText());
+        assertEquals("2017-10-03T06:15:30Z", node.get("timestamp").asText());
+        assertEquals("interaction", node.get("type").asText());
+        assertEquals("select", node.get("request").get("action").asText());
+
+        //the thread local buffer is reset
+        assertEquals(json, log.toJson());
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        log.writeJson(out);
+        assertEquals(json, new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testTimestampResolution() throws Exception {
+        final ZonedDateTime start = ZonedDateTime.of(2017, 10, 3, 8, 15, 30, 125_999_999, ZoneId.of("Europe/Vienna"));
+        final Log log = new Log(new SimpleApplication("app"), new SelectInteraction("doc-1"), start, new SimpleSession("123"));
+
+        assertEquals("2017-10-03T06:15:30.125Z", log.getValues().get("timestamp"));
+    }
+
+    @Test
+    public void testJsonSerializationDoesNotFlush() throws Exception {
+        final Log log = new Log(new SimpleApplication("app"), new SelectInteraction("doc-1"), ZonedDateTime.now(), new SimpleSession("123"));
+
+        final AtomicInteger flushes = new AtomicInteger();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                flushes.incrementAndGet();
+            }
+        };
+        log.writeJson(out);
+        log.writeJson(out);
+        assertEquals(0, flushes.get());
+        assertEquals(log.toJson() + log.toJson(), new String(out.toByteArray(), StandardCharsets.UTF_8));
+
+        final StringWriter writer = new StringWriter() {
+            @Override
+            public void flush() {
+                flushes.incrementAndGet();
+            }
+        };
+        log.writeJson(writer);
+        assertEquals(0, flushes.get());
+        assertEquals(log.toJson(), writer.toString());
+    }
+}
@@ -0,0 +1,66 @@
+package com.rbmhtechnology.vind.report.metrics;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBuckets() {
+        long previous = -1;
+        for(int index = 0; index <= LatencyHistogram.index(LatencyHistogram.MAX_VALUE); index++) {
+            final long highest = LatencyHistogram.highestEquivalentValue(index);
+            assertEquals(index, LatencyHistogram.index(highest));
+            assertEquals(index, LatencyHistogram.index(previous + 1));
+            previous = highest;
+        }
+        assertEquals(LatencyHistogram.MAX_VALUE, previous);
+    }
+
+    @Test
+    public void testPercentiles() throws Exception {
+        final LatencyHistogram histogram = new LatencyHistogram();
+
+        //1..10000 microseconds, recorded concurrently
+        final List<Thread> threads = new ArrayList<>();
+        for(int t = 0; t < 4; t++) {
+            final int offset = t;
+            final Thread thread = new Thread(() -> {
+                for(int i = 1 + offset; i <= 10000; i += 4) {
+                    histogram.record(TimeUnit.MICROSECONDS.toNanos(i));
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for(Thread thread : threads) {
+            thread.join();
+        }
+
+        final LatencySnapshot snapshot = histogram.snapshot(TimeUnit.SECONDS.toNanos(2));
+        assertEquals(10000, snapshot.getCount());
+        assertEquals(5000, snapshot.getRate(), 0.001);
+        assertEquals(TimeUnit.MICROSECONDS.toNanos(10000), snapshot.getMax().toNanos());
+
+        assertAccurate(5000, snapshot.getP50().toNanos());
+        assertAccurate(9000, snapshot.getP90().toNanos());
+        assertAccurate(9900, snapshot.getP99().toNanos());
+        assertAccurate(9990, snapshot.getP999().toNanos());
+        assertAccurate(5000.5, snapshot.getMean().toNanos());
+
+        histogram.reset();
+        assertEquals(0, histogram.snapshot(1).getCount());
+        assertEquals(0, histogram.snapshot(1).getP99().toNanos());
+    }
+
+    private static void assertAccurate(double expectedMicros, long actualNanos) {
+        final double expected = expectedMicros * 1000;
+        assertTrue("expected ~" + expected + " but was " + actualNanos, Math.abs(actualNanos - expected) / expected < 1.0 / LatencyHistogram.SUB_BUCKETS);
+    }
+}
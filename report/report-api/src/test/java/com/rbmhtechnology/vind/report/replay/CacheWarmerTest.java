@@ -0,0 +1,130 @@
+package com.rbmhtechnology.vind.report.replay;
+
+import com.rbmhtechnology.vind.api.query.FulltextSearch;
+import com.rbmhtechnology.vind.api.query.Search;
+import com.rbmhtechnology.vind.api.query.filter.Filter;
+import com.rbmhtechnology.vind.api.query.sort.Sort;
+import com.rbmhtechnology.vind.model.DocumentFactory;
+import com.rbmhtechnology.vind.model.DocumentFactoryBuilder;
+import com.rbmhtechnology.vind.model.FieldDescriptorBuilder;
+import com.rbmhtechnology.vind.model.SingleValueFieldDescriptor;
+import com.rbmhtechnology.vind.report.ReportingSearchServer;
+import com.rbmhtechnology.vind.report.logger.Log;
+import com.rbmhtechnology.vind.report.logger.ReportWriter;
+import com.rbmhtechnology.vind.report.model.application.SimpleApplication;
+import com.rbmhtechnology.vind.report.model.interaction.SelectInteraction;
+import com.rbmhtechnology.vind.report.model.request.FullTextRequest;
+import com.rbmhtechnology.vind.report.model.request.Paging;
+import com.rbmhtechnology.vind.report.model.session.SimpleSession;
+import com.rbmhtechnology.vind.test.SearchTestcase;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.rbmhtechnology.vind.api.query.filter.Filter.*;
+import static org.junit.Assert.assertEquals;
+
+public class CacheWarmerTest extends SearchTestcase {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testWarmUp() throws Exception {
+        final SingleValueFieldDescriptor.TextFieldDescriptor<String> title = new FieldDescriptorBuilder<String>()
+                .setFullText(true)
+                .setFacet(true)
+                .buildTextField("title");
+        final SingleValueFieldDescriptor.NumericFieldDescriptor<Integer> num = new FieldDescriptorBuilder<Integer>()
+                .setFacet(true)
+                .buildNumericField("num", Integer.class);
+        final DocumentFactory factory = new DocumentFactoryBuilder("asset").addField(title, num).build();
+
+        final List<String> lines = new ArrayList<>();
+        final ReportingSearchServer recording = new ReportingSearchServer(testSearchServer.getSearchServer(),
+                new SimpleApplication("app"), new SimpleSession("s"), new TestReportWriter(lines));
+        recording.index(factory.createDoc("1").setValue(title, "hello world").setValue(num, 1));
+        recording.commit();
+
+        final FulltextSearch frequent = Search.fulltext("hello")
+                .filter(and(eq(title, "hello world"), or(prefix("title", "hel"), not(Filter.between("num", 2, 5)))))
+                .facet(title)
+                .sort(Sort.desc("num"))
+                .page(2, 5);
+        for(int i = 0; i < 3; i++) {
+            recording.execute(frequent, factory);
+        }
+        recording.execute(Search.fulltext("world"), factory);
+        recording.execute(Search.fulltext("rare"), factory);
+        lines.add(new Log(new SimpleApplication("app"), new SelectInteraction("1"), ZonedDateTime.now(), new SimpleSession("s")).toJson());
+        lines.add("no report entry");
+
+        final Path file = folder.getRoot().toPath().resolve("report.ndjson");
+        Files.write(file, lines);
+
+        final List<Log> replayed = new ArrayList<>();
+        final ReportingSearchServer server = new ReportingSearchServer(testSearchServer.getSearchServer(),
+                new SimpleApplication("warmer"), new SimpleSession("w"), new ReportWriter() {
+                    @Override
+                    public synchronized void log(Log log) {
+                        replayed.add(log);
+                    }
+                });
+
+        final CacheWarmer.Result result = new CacheWarmer(server, factory).setLimit(2).setConcurrency(1).warmUp(file);
+        assertEquals(3, result.getDistinct());
+        assertEquals(2, result.getReplayed());
+        assertEquals(0, result.getFailed());
+        assertEquals(0, result.getIgnored());
+
+        //the most frequent request is replayed first and reconstructed completely
+        final FullTextRequest request = (FullTextRequest) replayed.get(0).getValues().get("request");
+        assertEquals("hello", request.getQuery());
+        //the order of combined filters is not significant
+        assertEquals(normalize(frequent.getFilter()), normalize(request.getFilter()));
+        assertEquals(1, request.getFacets().size());
+        assertEquals(2, ((Paging) replayed.get(0).getValues().get("paging")).getIndex());
+        assertEquals(5, ((Paging) replayed.get(0).getValues().get("paging")).getSize());
+        assertEquals(frequent.getSorting().toString(), replayed.get(0).getValues().get("sorting"));
+
+        //requests before the given time are ignored
+        final CacheWarmer.Result none = new CacheWarmer(server, factory).setSince(Instant.now()).warmUp(file);
+        assertEquals(0, none.getDistinct());
+        assertEquals(5, none.getIgnored());
+    }
+
+    private static String normalize(Filter filter) {
+        if(filter instanceof Filter.AndFilter) {
+            return ((Filter.AndFilter) filter).getChildren().stream().map(CacheWarmerTest::normalize).sorted()
+                    .collect(Collectors.joining(" AND ", "(", ")"));
+        } else if(filter instanceof Filter.OrFilter) {
+            return ((Filter.OrFilter) filter).getChildren().stream().map(CacheWarmerTest::normalize).sorted()
+                    .collect(Collectors.joining(" OR ", "(", ")"));
+        } else if(filter instanceof Filter.NotFilter) {
+            return "NOT" + normalize(((Filter.NotFilter) filter).getDelegate());
+        }
+        return filter.toString();
+    }
+
+    private static class TestReportWriter extends ReportWriter {
+
+        private final List<String> lines;
+
+        private TestReportWriter(List<String> lines) {
+            this.lines = lines;
+        }
+
+        @Override
+        public void log(Log log) {
+            lines.add(log.toJson());
+        }
+    }
+}
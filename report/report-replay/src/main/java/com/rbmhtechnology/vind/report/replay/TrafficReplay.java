@@ -0,0 +1,357 @@
+package com.rbmhtechnology.vind.report.replay;
+
+import com.rbmhtechnology.vind.api.SearchServer;
+import com.rbmhtechnology.vind.model.DocumentFactory;
+import com.rbmhtechnology.vind.report.logger.entry.LogEntry.EntryType;
+import com.rbmhtechnology.vind.report.metrics.LatencyHistogram;
+import com.rbmhtechnology.vind.report.metrics.LatencySnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Load tests a search server by replaying the requests of report files (see {@link RecordedRequest}) with a number
+ * of concurrent clients, either at the recorded timing, at a multiple of it, or as fast as possible. Latencies,
+ * errors and throughput are reported per request type; requests which cannot be reconstructed count as errors.
+ * <p/>
+ * With timing, the requests are scheduled by their recorded timestamps (requests without timestamp are sent at once)
+ * and the latency is measured from the scheduled time, so it includes the time a request waited for a free client
+ * when the server cannot keep up. At maximum throughput the latency is the pure execution time.
+ * <pre>
+ * final TrafficReplay.Report report = new TrafficReplay(server, factory)
+ *         .setClients(8)
+ *         .setSpeed(2)
+ *         .run(reportFile);
+ * </pre>
+ */
+public class TrafficReplay {
+
+    /**
+     * Replays the requests at the recorded timing.
+     */
+    public static final double ORIGINAL_SPEED = 1;
+
+    /**
+     * Replays the requests as fast as the clients can execute them.
+     */
+    public static final double MAX_SPEED = Double.POSITIVE_INFINITY;
+
+    public static final int DEFAULT_CLIENTS = 4;
+
+    private static final int QUEUE_SIZE_PER_CLIENT = 16;
+
+    private final Logger log = LoggerFactory.getLogger(TrafficReplay.class);
+
+    private final SearchServer server;
+    private final DocumentFactory factory;
+
+    private int clients = DEFAULT_CLIENTS;
+    private double speed = ORIGINAL_SPEED;
+
+    /**
+     * @param server the server under test
+     * @param factory the factory of the searched documents
+     */
+    public TrafficReplay(SearchServer server, DocumentFactory factory) {
+        this.server = server;
+        this.factory = factory;
+    }
+
+    /**
+     * @param clients the number of concurrent clients
+     * @return this
+     */
+    public TrafficReplay setClients(int clients) {
+        if(clients < 1) {
+            throw new IllegalArgumentException("Number of clients must be positive, actually got: " + clients);
+        }
+        this.clients = clients;
+        return this;
+    }
+
+    /**
+     * @param speed the factor applied to the recorded rate, e.g. {@code 2} replays twice as fast;
+     *              {@link #ORIGINAL_SPEED} and {@link #MAX_SPEED} are the common cases
+     * @return this
+     */
+    public TrafficReplay setSpeed(double speed) {
+        if(!(speed > 0)) {
+            throw new IllegalArgumentException("Speed must be positive, actually got: " + speed);
+        }
+        this.speed = speed;
+        return this;
+    }
+
+    /**
+     * @param files report files, optionally gzip compressed, replayed one after another
+     * @return the report of the replay
+     * @throws IOException if a file cannot be read
+     */
+    public Report run(Path... files) throws IOException {
+        final Run run = new Run();
+        final Report report;
+        try {
+            for(Path file : files) {
+                try (Stream<RecordedRequest> requests = RecordedRequest.read(file)) {
+                    run.dispatch(requests.iterator());
+                }
+            }
+        } catch (InterruptedException e) {
+            log.warn("Got interrupted while replaying traffic.", e);
+            Thread.currentThread().interrupt();
+        } finally {
+            //stops the clients, also if reading the requests failed
+            report = run.finish();
+        }
+        return report;
+    }
+
+    /**
+     * @param requests the recorded requests, in the order of their timestamps
+     * @return the report of the replay
+     */
+    public Report run(Stream<RecordedRequest> requests) {
+        final Run run = new Run();
+        final Report report;
+        try {
+            run.dispatch(requests.iterator());
+        } catch (InterruptedException e) {
+            log.warn("Got interrupted while replaying traffic.", e);
+            Thread.currentThread().interrupt();
+        } finally {
+            report = run.finish();
+        }
+        return report;
+    }
+
+    private class Run {
+
+        private final Map<EntryType, Stats> stats = new EnumMap<>(EntryType.class);
+        private final BlockingQueue<Task> queue = new ArrayBlockingQueue<>(clients * QUEUE_SIZE_PER_CLIENT);
+        private final List<Thread> threads = new ArrayList<>(clients);
+        private final boolean timed = speed != MAX_SPEED;
+        private final long start;
+
+        private Instant first = null;
+
+        private Run() {
+            for(EntryType type : EntryType.values()) {
+                stats.put(type, new Stats());
+            }
+            for(int i = 0; i < clients; i++) {
+                final Thread thread = new Thread(this::client, "vind-traffic-replay-" + i);
+                thread.setDaemon(true);
+                thread.start();
+                threads.add(thread);
+            }
+            start = System.nanoTime();
+        }
+
+        private void dispatch(Iterator<RecordedRequest> requests) throws InterruptedException {
+            while(requests.hasNext()) {
+                final RecordedRequest request = requests.next();
+                if(!timed) {
+                    queue.put(new Task(request, false, 0));
+                    continue;
+                }
+                long scheduled = System.nanoTime();
+                if(request.getTimestamp() != null) {
+                    if(first == null) {
+                        first = request.getTimestamp();
+                    }
+                    scheduled = start + (long) (Duration.between(first, request.getTimestamp()).toNanos() / speed);
+                    long wait;
+                    while((wait = scheduled - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(wait);
+                        if(Thread.interrupted()) {
+                            throw new InterruptedException();
+                        }
+                    }
+                }
+                queue.put(new Task(request, true, scheduled));
+            }
+        }
+
+        private void client() {
+            try {
+                while(true) {
+                    final Task task = queue.take();
+                    if(task == Task.END) {
+                        return;
+                    }
+                    final Stats s = stats.get(task.request.getType());
+                    final long begin = task.timed ? task.scheduled : System.nanoTime();
+                    try {
+                        task.request.execute(server, factory);
+                        s.latencies.record(System.nanoTime() - begin);
+                    } catch (Exception e) {
+                        s.errors.increment();
+                        log.debug("Replayed request {} failed: {}", task.request, e.getMessage());
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private Report finish() {
+            try {
+                for(int i = 0; i < clients; i++) {
+                    queue.put(Task.END);
+                }
+                for(Thread thread : threads) {
+                    thread.join();
+                }
+            } catch (InterruptedException e) {
+                log.warn("Got interrupted while waiting for the replay to finish.", e);
+                threads.forEach(Thread::interrupt);
+                Thread.currentThread().interrupt();
+            }
+            final long duration = System.nanoTime() - start;
+
+            final Map<EntryType, TypeReport> reports = new EnumMap<>(EntryType.class);
+            stats.forEach((type, s) -> {
+                if(s.latencies.getCount() > 0 || s.errors.sum() > 0) {
+                    reports.put(type, new TypeReport(s.latencies.snapshot(duration), s.errors.sum()));
+                }
+            });
+            final Report report = new Report(Duration.ofNanos(duration), reports);
+            log.info("Replayed traffic: {}", report);
+            return report;
+        }
+    }
+
+    private static class Task {
+
+        private static final Task END = new Task(null, false, 0);
+
+        private final RecordedRequest request;
+        private final boolean timed;
+        private final long scheduled;
+
+        private Task(RecordedRequest request, boolean timed, long scheduled) {
+            this.request = request;
+            this.timed = timed;
+            this.scheduled = scheduled;
+        }
+    }
+
+    private static class Stats {
+        private final LatencyHistogram latencies = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+    }
+
+    /**
+     * The results of a replay per request type.
+     */
+    public static class Report {
+
+        private final Duration duration;
+        private final Map<EntryType, TypeReport> types;
+
+        Report(Duration duration, Map<EntryType, TypeReport> types) {
+            this.duration = duration;
+            this.types = Collections.unmodifiableMap(types);
+        }
+
+        public Duration getDuration() {
+            return duration;
+        }
+
+        /**
+         * @return the results per request type, only types which were replayed are contained
+         */
+        public Map<EntryType, TypeReport> getTypes() {
+            return types;
+        }
+
+        /**
+         * @return the number of replayed requests
+         */
+        public long getCount() {
+            return types.values().stream().mapToLong(t -> t.getCount() + t.getErrors()).sum();
+        }
+
+        /**
+         * @return the number of successfully replayed requests per second
+         */
+        public double getThroughput() {
+            return types.values().stream().mapToDouble(TypeReport::getThroughput).sum();
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder builder = new StringBuilder(String.format("%d requests in %dms, %.2f/s",
+                    getCount(), duration.toMillis(), getThroughput()));
+            types.forEach((type, report) -> builder.append(System.lineSeparator()).append(type).append(": ").append(report));
+            return builder.toString();
+        }
+    }
+
+    public static class TypeReport {
+
+        private final LatencySnapshot latency;
+        private final long errors;
+
+        TypeReport(LatencySnapshot latency, long errors) {
+            this.latency = latency;
+            this.errors = errors;
+        }
+
+        /**
+         * @return the latency distribution of the successful requests
+         */
+        public LatencySnapshot getLatency() {
+            return latency;
+        }
+
+        /**
+         * @return the number of successful requests
+         */
+        public long getCount() {
+            return latency.getCount();
+        }
+
+        /**
+         * @return the number of failed requests
+         */
+        public long getErrors() {
+            return errors;
+        }
+
+        /**
+         * @return the share of failed requests, between 0 and 1
+         */
+        public double getErrorRate() {
+            final long total = latency.getCount() + errors;
+            return total > 0 ? (double) errors / total : 0;
+        }
+
+        /**
+         * @return the number of successful requests per second
+         */
+        public double getThroughput() {
+            return latency.getRate();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("errors=%d (%.2f%%), %s", errors, getErrorRate() * 100, latency);
+        }
+    }
+}
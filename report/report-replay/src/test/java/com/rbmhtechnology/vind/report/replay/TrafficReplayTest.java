@@ -0,0 +1,142 @@
+package com.rbmhtechnology.vind.report.replay;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.rbmhtechnology.vind.api.query.Search;
+import com.rbmhtechnology.vind.model.DocumentFactory;
+import com.rbmhtechnology.vind.model.DocumentFactoryBuilder;
+import com.rbmhtechnology.vind.model.FieldDescriptorBuilder;
+import com.rbmhtechnology.vind.model.SingleValueFieldDescriptor;
+import com.rbmhtechnology.vind.report.ReportingSearchServer;
+import com.rbmhtechnology.vind.report.logger.Log;
+import com.rbmhtechnology.vind.report.logger.ReportWriter;
+import com.rbmhtechnology.vind.report.logger.entry.LogEntry.EntryType;
+import com.rbmhtechnology.vind.report.model.application.SimpleApplication;
+import com.rbmhtechnology.vind.report.model.session.SimpleSession;
+import com.rbmhtechnology.vind.test.SearchTestcase;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.rbmhtechnology.vind.api.query.filter.Filter.eq;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TrafficReplayTest extends SearchTestcase {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private DocumentFactory factory;
+    private Path file;
+    private final List<Instant> recorded = new ArrayList<>();
+
+    @Before
+    public void record() throws IOException {
+        final SingleValueFieldDescriptor.TextFieldDescriptor<String> title = new FieldDescriptorBuilder<String>()
+                .setFullText(true)
+                .setFacet(true)
+                .setSuggest(true)
+                .buildTextField("title");
+        factory = new DocumentFactoryBuilder("asset").addField(title).build();
+
+        final List<Log> logs = new ArrayList<>();
+        final ReportingSearchServer server = new ReportingSearchServer(testSearchServer.getSearchServer(),
+                new SimpleApplication("app"), new SimpleSession("s"), new ReportWriter() {
+                    @Override
+                    public void log(Log log) {
+                        logs.add(log);
+                    }
+                });
+        server.index(factory.createDoc("1").setValue(title, "hello world"));
+        server.commit();
+
+        //requests are recorded about 100ms apart
+        server.execute(Search.fulltext("hello").filter(eq(title, "hello world")), factory);
+        pause();
+        server.execute(Search.fulltext("world").facet(title), factory);
+        pause();
+        server.execute(Search.fulltext("missing"), factory);
+        pause();
+        server.execute(Search.suggest("hel").fields("title"), factory);
+
+        //the entries are replayed as written, an additional one cannot be reconstructed
+        final List<String> lines = new ArrayList<>();
+        logs.forEach(log -> {
+            lines.add(log.toJson());
+            recorded.add(log.getTimestamp().toInstant().truncatedTo(ChronoUnit.MILLIS));
+        });
+        final ObjectNode broken = (ObjectNode) MAPPER.readTree(logs.get(0).toJson());
+        ((ObjectNode) broken.get("request").get("filter")).put("type", "WithinBBoxFilter");
+        lines.add(MAPPER.writeValueAsString(broken));
+
+        file = folder.getRoot().toPath().resolve("report.ndjson");
+        Files.write(file, lines);
+    }
+
+    @Test
+    public void testMaxSpeed() throws IOException {
+        final TrafficReplay.Report report = new TrafficReplay(testSearchServer.getSearchServer(), factory)
+                .setClients(2)
+                .setSpeed(TrafficReplay.MAX_SPEED)
+                .run(file, file);
+
+        assertEquals(10, report.getCount());
+        assertEquals(2, report.getTypes().size());
+
+        final TrafficReplay.TypeReport fulltext = report.getTypes().get(EntryType.fulltext);
+        assertEquals(6, fulltext.getCount());
+        assertEquals(2, fulltext.getErrors());
+        assertEquals(.25, fulltext.getErrorRate(), 0);
+        assertTrue(fulltext.getLatency().getP50().compareTo(fulltext.getLatency().getMax()) <= 0);
+        assertTrue(fulltext.getThroughput() > 0);
+
+        final TrafficReplay.TypeReport suggestion = report.getTypes().get(EntryType.suggestion);
+        assertEquals(2, suggestion.getCount());
+        assertEquals(0, suggestion.getErrors());
+        assertFalse(report.getTypes().containsKey(EntryType.interaction));
+    }
+
+    @Test
+    public void testScaledTiming() throws IOException {
+        final List<Instant> timestamps;
+        try (Stream<RecordedRequest> requests = RecordedRequest.read(file)) {
+            timestamps = requests.map(RecordedRequest::getTimestamp).collect(Collectors.toList());
+        }
+        //the recorded timing is kept with millisecond resolution
+        assertEquals(recorded, timestamps.subList(0, recorded.size()));
+        final Duration span = Duration.between(timestamps.get(0), timestamps.get(3));
+        assertTrue(span.toMillis() >= 300);
+
+        //and replayed at twice the speed
+        final TrafficReplay.Report report = new TrafficReplay(testSearchServer.getSearchServer(), factory)
+                .setSpeed(2)
+                .run(file);
+
+        assertEquals(5, report.getCount());
+        assertTrue(report.getDuration().toMillis() >= span.toMillis() / 2);
+    }
+
+    private static void pause() {
+        try {
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
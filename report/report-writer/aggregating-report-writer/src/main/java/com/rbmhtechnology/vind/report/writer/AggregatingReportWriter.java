@@ -0,0 +1,292 @@
+package com.rbmhtechnology.vind.report.writer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rbmhtechnology.vind.api.query.filter.Filter;
+import com.rbmhtechnology.vind.configure.SearchConfiguration;
+import com.rbmhtechnology.vind.report.logger.Log;
+import com.rbmhtechnology.vind.report.logger.ReportWriter;
+import com.rbmhtechnology.vind.report.model.application.InterfaceApplication;
+import com.rbmhtechnology.vind.report.model.application.SimpleApplication;
+import com.rbmhtechnology.vind.report.model.request.FullTextRequest;
+import com.rbmhtechnology.vind.report.model.request.SearchRequest;
+import com.rbmhtechnology.vind.report.model.response.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Aggregates report entries in memory instead of writing them: per time window the top queries, top queries
+ * without results, top filtered fields and facets (count-min sketch with heavy hitters) and the query time
+ * distribution per application (t-digest) are tracked with bounded memory. When a window ends, its
+ * {@link AggregationSnapshot snapshot} is kept in a bounded history and passed to the listener, which by default
+ * logs it as JSON.
+ */
+public class AggregatingReportWriter extends ReportWriter {
+
+    public static final String REPORTING_AGGREGATE_WINDOW = "reporting.aggregate.window";
+    public static final String REPORTING_AGGREGATE_TOP = "reporting.aggregate.top";
+    public static final String REPORTING_AGGREGATE_HISTORY = "reporting.aggregate.history";
+
+    public static final int DEFAULT_WINDOW = 60 * 60 * 1000;
+    public static final int DEFAULT_TOP = 100;
+    public static final int DEFAULT_HISTORY = 24;
+
+    private static final int SKETCH_WIDTH = 4096;
+    private static final int SKETCH_DEPTH = 4;
+    private static final double COMPRESSION = 100;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final Logger log = LoggerFactory.getLogger(AggregatingReportWriter.class);
+
+    private final int top;
+    private final int history;
+    private final Consumer<AggregationSnapshot> listener;
+
+    private final Window window;
+    private final LinkedList<AggregationSnapshot> snapshots = new LinkedList<>();
+
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Creates a writer configured by the {@code reporting.aggregate.*} properties, logging the snapshots.
+     */
+    public AggregatingReportWriter() {
+        this(Duration.ofMillis(SearchConfiguration.get(REPORTING_AGGREGATE_WINDOW, DEFAULT_WINDOW)),
+                SearchConfiguration.get(REPORTING_AGGREGATE_TOP, DEFAULT_TOP),
+                SearchConfiguration.get(REPORTING_AGGREGATE_HISTORY, DEFAULT_HISTORY),
+                AggregatingReportWriter::logSnapshot);
+    }
+
+    /**
+     * @param window the length of a window, windows are only ended by {@link #rotate()} if zero
+     * @param top the number of entries of the top lists
+     * @param history the number of snapshots kept
+     * @param listener called with the snapshot of each ended window
+     */
+    public AggregatingReportWriter(Duration window, int top, int history, Consumer<AggregationSnapshot> listener) {
+        this.top = top;
+        this.history = history;
+        this.listener = listener;
+        this.window = new Window(top * 2);
+
+        if(window.isZero() || window.isNegative()) {
+            this.scheduler = null;
+        } else {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                final Thread thread = new Thread(r, "vind-report-aggregate");
+                thread.setDaemon(true);
+                return thread;
+            });
+            final long interval = window.toMillis();
+            this.scheduler.scheduleAtFixedRate(this::rotate, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public synchronized void log(Log log) {
+        window.add(log);
+    }
+
+    @Override
+    public synchronized void log(List<Log> logs) {
+        logs.forEach(window::add);
+    }
+
+    /**
+     * Ends the current window and starts a new one.
+     * @return the snapshot of the ended window
+     */
+    public AggregationSnapshot rotate() {
+        final AggregationSnapshot snapshot;
+        synchronized (this) {
+            snapshot = window.snapshot();
+            window.clear();
+            snapshots.addFirst(snapshot);
+            while(snapshots.size() > history) {
+                snapshots.removeLast();
+            }
+        }
+        try {
+            listener.accept(snapshot);
+        } catch (Exception e) {
+            log.warn("Could not publish report snapshot: {}", e.getMessage(), e);
+        }
+        return snapshot;
+    }
+
+    /**
+     * @return the snapshot of the current window, which is not ended
+     */
+    public synchronized AggregationSnapshot getCurrent() {
+        return window.snapshot();
+    }
+
+    /**
+     * @return the snapshots of the ended windows, latest first
+     */
+    public synchronized List<AggregationSnapshot> getSnapshots() {
+        return new ArrayList<>(snapshots);
+    }
+
+    /**
+     * Ends the current window if it contains entries.
+     */
+    @Override
+    public void close() {
+        if(scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        final boolean empty;
+        synchronized (this) {
+            empty = window.count == 0;
+        }
+        if(!empty) {
+            rotate();
+        }
+    }
+
+    private static void logSnapshot(AggregationSnapshot snapshot) {
+        if(log.isInfoEnabled()) {
+            try {
+                log.info(MAPPER.writeValueAsString(snapshot));
+            } catch (JsonProcessingException e) {
+                log.warn("Could not serialize report snapshot: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private class Window {
+
+        private final HeavyHitters queries;
+        private final HeavyHitters zeroResultQueries;
+        private final HeavyHitters filters;
+        private final HeavyHitters facets;
+        private final Map<String, TDigest> latencies = new HashMap<>();
+
+        private Instant start = Instant.now();
+        private long count = 0;
+
+        private Window(int capacity) {
+            this.queries = new HeavyHitters(capacity, SKETCH_WIDTH, SKETCH_DEPTH);
+            this.zeroResultQueries = new HeavyHitters(capacity, SKETCH_WIDTH, SKETCH_DEPTH);
+            this.filters = new HeavyHitters(capacity, SKETCH_WIDTH, SKETCH_DEPTH);
+            this.facets = new HeavyHitters(capacity, SKETCH_WIDTH, SKETCH_DEPTH);
+        }
+
+        private void add(Log log) {
+            final Map<String, Object> values = log.getValues();
+            final Object request = values.get("request");
+            if(!(request instanceof SearchRequest)) {
+                return;
+            }
+            //sampled entries represent 1/rate entries
+            final Object sampleRate = values.get("sampleRate");
+            final long weight = sampleRate instanceof Double ? Math.max(1, Math.round(1 / (Double) sampleRate)) : 1;
+            count += weight;
+
+            final String query = ((SearchRequest) request).getQuery();
+            final Object response = values.get("response");
+            if(query != null) {
+                queries.add(query, weight);
+                if(response instanceof Response && ((Response) response).getResults() == 0) {
+                    zeroResultQueries.add(query, weight);
+                }
+            }
+
+            final Filter filter = ((SearchRequest) request).getFilter();
+            if(filter != null) {
+                addFilterFields(filter, weight);
+            }
+            if(request instanceof FullTextRequest && ((FullTextRequest) request).getFacets() != null) {
+                ((FullTextRequest) request).getFacets().keySet().forEach(facet -> facets.add(facet, weight));
+            }
+
+            if(response instanceof Response) {
+                latencies.computeIfAbsent(getApplicationId(values.get("application")), id -> new TDigest(COMPRESSION))
+                        .add(((Response) response).getQueryTime(), weight);
+            }
+        }
+
+        private void addFilterFields(Filter filter, long weight) {
+            if(filter instanceof Filter.AndFilter) {
+                ((Filter.AndFilter) filter).getChildren().forEach(child -> addFilterFields(child, weight));
+            } else if(filter instanceof Filter.OrFilter) {
+                ((Filter.OrFilter) filter).getChildren().forEach(child -> addFilterFields(child, weight));
+            } else if(filter instanceof Filter.NotFilter) {
+                addFilterFields(((Filter.NotFilter) filter).getDelegate(), weight);
+            } else {
+                final String field = getField(filter);
+                if(field != null) {
+                    filters.add(field, weight);
+                }
+            }
+        }
+
+        private AggregationSnapshot snapshot() {
+            final Map<String, AggregationSnapshot.Latency> latencySnapshots = new TreeMap<>();
+            latencies.forEach((application, digest) -> latencySnapshots.put(application, new AggregationSnapshot.Latency(
+                    (long) digest.getCount(), digest.quantile(.5), digest.quantile(.9), digest.quantile(.99), digest.getMax())));
+
+            return new AggregationSnapshot(start, Instant.now(), count,
+                    counts(queries), counts(zeroResultQueries), counts(filters), counts(facets), latencySnapshots);
+        }
+
+        private List<AggregationSnapshot.Count> counts(HeavyHitters hitters) {
+            return hitters.top(top).stream()
+                    .map(e -> new AggregationSnapshot.Count(e.getKey(), e.getValue()))
+                    .collect(Collectors.toList());
+        }
+
+        private void clear() {
+            queries.clear();
+            zeroResultQueries.clear();
+            filters.clear();
+            facets.clear();
+            latencies.clear();
+            start = Instant.now();
+            count = 0;
+        }
+    }
+
+    private static String getApplicationId(Object application) {
+        if(application instanceof SimpleApplication) {
+            return ((SimpleApplication) application).getId();
+        } else if(application instanceof InterfaceApplication) {
+            return ((InterfaceApplication) application).getName();
+        }
+        return "unknown";
+    }
+
+    private static String getField(Filter filter) {
+        if(filter instanceof Filter.TermFilter) return ((Filter.TermFilter) filter).getField();
+        if(filter instanceof Filter.PrefixFilter) return ((Filter.PrefixFilter) filter).getField();
+        if(filter instanceof Filter.DescriptorFilter) return ((Filter.DescriptorFilter) filter).getDescriptor().getName();
+        if(filter instanceof Filter.BeforeFilter) return ((Filter.BeforeFilter) filter).getField();
+        if(filter instanceof Filter.AfterFilter) return ((Filter.AfterFilter) filter).getField();
+        if(filter instanceof Filter.GreaterThanFilter) return ((Filter.GreaterThanFilter) filter).getField();
+        if(filter instanceof Filter.LowerThanFilter) return ((Filter.LowerThanFilter) filter).getField();
+        if(filter instanceof Filter.BetweenDatesFilter) return ((Filter.BetweenDatesFilter) filter).getField();
+        if(filter instanceof Filter.BetweenNumericFilter) return ((Filter.BetweenNumericFilter) filter).getField();
+        if(filter instanceof Filter.WithinBBoxFilter) return ((Filter.WithinBBoxFilter) filter).getField();
+        if(filter instanceof Filter.WithinCircleFilter) return ((Filter.WithinCircleFilter) filter).getField();
+        if(filter instanceof Filter.NotEmptyTextFilter) return ((Filter.NotEmptyTextFilter) filter).getField();
+        if(filter instanceof Filter.NotEmptyFilter) return ((Filter.NotEmptyFilter) filter).getField();
+        if(filter instanceof Filter.NotEmptyLocationFilter) return ((Filter.NotEmptyLocationFilter) filter).getField();
+        return null;
+    }
+}
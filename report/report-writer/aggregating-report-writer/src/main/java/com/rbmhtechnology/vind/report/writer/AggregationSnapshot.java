@@ -0,0 +1,147 @@
+package com.rbmhtechnology.vind.report.writer;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The aggregated report entries of a time window. Counts of the top lists are estimates which may be slightly
+ * too high; sampled entries are weighted by their inverse sample rate.
+ */
+public class AggregationSnapshot {
+
+    private final Instant start;
+    private final Instant end;
+    private final long count;
+    private final List<Count> topQueries;
+    private final List<Count> topZeroResultQueries;
+    private final List<Count> topFilters;
+    private final List<Count> topFacets;
+    private final Map<String, Latency> latencies;
+
+    AggregationSnapshot(Instant start, Instant end, long count, List<Count> topQueries, List<Count> topZeroResultQueries,
+                        List<Count> topFilters, List<Count> topFacets, Map<String, Latency> latencies) {
+        this.start = start;
+        this.end = end;
+        this.count = count;
+        this.topQueries = Collections.unmodifiableList(topQueries);
+        this.topZeroResultQueries = Collections.unmodifiableList(topZeroResultQueries);
+        this.topFilters = Collections.unmodifiableList(topFilters);
+        this.topFacets = Collections.unmodifiableList(topFacets);
+        this.latencies = Collections.unmodifiableMap(latencies);
+    }
+
+    @JsonSerialize(using = ToStringSerializer.class)
+    public Instant getStart() {
+        return start;
+    }
+
+    @JsonSerialize(using = ToStringSerializer.class)
+    public Instant getEnd() {
+        return end;
+    }
+
+    /**
+     * @return the number of aggregated search requests
+     */
+    public long getCount() {
+        return count;
+    }
+
+    public List<Count> getTopQueries() {
+        return topQueries;
+    }
+
+    public List<Count> getTopZeroResultQueries() {
+        return topZeroResultQueries;
+    }
+
+    /**
+     * @return the fields filtered on most frequently
+     */
+    public List<Count> getTopFilters() {
+        return topFilters;
+    }
+
+    /**
+     * @return the facets requested most frequently
+     */
+    public List<Count> getTopFacets() {
+        return topFacets;
+    }
+
+    /**
+     * @return the query time distribution per application
+     */
+    public Map<String, Latency> getLatencies() {
+        return latencies;
+    }
+
+    public static class Count {
+
+        private final String value;
+        private final long count;
+
+        Count(String value, long count) {
+            this.value = value;
+            this.count = count;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        @Override
+        public String toString() {
+            return value + "=" + count;
+        }
+    }
+
+    /**
+     * Query time percentiles in milliseconds.
+     */
+    public static class Latency {
+
+        private final long count;
+        private final double p50;
+        private final double p90;
+        private final double p99;
+        private final double max;
+
+        Latency(long count, double p50, double p90, double p99, double max) {
+            this.count = count;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.p99 = p99;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getP50() {
+            return p50;
+        }
+
+        public double getP90() {
+            return p90;
+        }
+
+        public double getP99() {
+            return p99;
+        }
+
+        public double getMax() {
+            return max;
+        }
+    }
+}
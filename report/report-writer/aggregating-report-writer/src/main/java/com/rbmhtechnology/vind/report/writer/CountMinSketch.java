@@ -0,0 +1,84 @@
+package com.rbmhtechnology.vind.report.writer;
+
+import com.rbmhtechnology.vind.report.Hashing;
+
+import java.util.Arrays;
+
+/**
+ * A count-min sketch with conservative update: estimates the count of a key with a fixed amount of memory. An
+ * estimate is never lower than the actual count and, with a width of {@code w}, overestimates by at most
+ * {@code e/w} of the total count with probability {@code 1 - e^-depth}. Not thread-safe.
+ */
+class CountMinSketch {
+
+    private final int depth;
+    private final int mask;
+    private final long[][] table;
+
+    /**
+     * @param width the number of counters per row, rounded up to the next power of two
+     * @param depth the number of rows
+     */
+    CountMinSketch(int width, int depth) {
+        if(width < 1 || depth < 1) {
+            throw new IllegalArgumentException("Width and depth must be positive, actually got: " + width + "x" + depth);
+        }
+        final int size = width < 2 ? 2 : Integer.highestOneBit(width - 1) << 1;
+        this.depth = depth;
+        this.mask = size - 1;
+        this.table = new long[depth][size];
+    }
+
+    /**
+     * @param key the key
+     * @param count the count to add
+     * @return the estimated count of the key after adding
+     */
+    long add(String key, long count) {
+        final long hash = hash(key);
+        final int h1 = (int) hash;
+        final int h2 = (int) (hash >>> 32);
+
+        long estimate = Long.MAX_VALUE;
+        for(int i = 0; i < depth; i++) {
+            estimate = Math.min(estimate, table[i][(h1 + i * h2) & mask]);
+        }
+        //only raises the counters which are below the new estimate
+        final long updated = estimate + count;
+        for(int i = 0; i < depth; i++) {
+            final int index = (h1 + i * h2) & mask;
+            if(table[i][index] < updated) {
+                table[i][index] = updated;
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * @param key the key
+     * @return the estimated count of the key
+     */
+    long estimate(String key) {
+        final long hash = hash(key);
+        final int h1 = (int) hash;
+        final int h2 = (int) (hash >>> 32);
+
+        long estimate = Long.MAX_VALUE;
+        for(int i = 0; i < depth; i++) {
+            estimate = Math.min(estimate, table[i][(h1 + i * h2) & mask]);
+        }
+        return estimate;
+    }
+
+    void clear() {
+        for(long[] row : table) {
+            Arrays.fill(row, 0);
+        }
+    }
+
+    private static long hash(String key) {
+        final long h = Hashing.hash64(key);
+        //an odd second hash visits distinct counters in every row
+        return h | (1L << 32);
+    }
+}
@@ -0,0 +1,76 @@
+package com.rbmhtechnology.vind.report.writer;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Tracks the most frequent keys with bounded memory: counts are estimated by a {@link CountMinSketch} and a
+ * fixed number of candidates with the highest estimates is kept. A key replaces the least frequent candidate
+ * once its estimate exceeds the candidate's. Not thread-safe.
+ */
+class HeavyHitters {
+
+    private final CountMinSketch sketch;
+    private final int capacity;
+    private final Map<String, Long> candidates;
+
+    //a lower bound of the smallest candidate count, candidate counts only grow
+    private long minimum = 0;
+
+    /**
+     * @param capacity the number of tracked candidates
+     * @param width the width of the sketch
+     * @param depth the depth of the sketch
+     */
+    HeavyHitters(int capacity, int width, int depth) {
+        this.sketch = new CountMinSketch(width, depth);
+        this.capacity = capacity;
+        this.candidates = new HashMap<>(capacity * 2);
+    }
+
+    void add(String key, long count) {
+        final long estimate = sketch.add(key, count);
+        if(candidates.containsKey(key) || candidates.size() < capacity) {
+            candidates.put(key, estimate);
+        } else if(estimate > minimum) {
+            String smallest = null;
+            long smallestCount = Long.MAX_VALUE;
+            for(Map.Entry<String, Long> candidate : candidates.entrySet()) {
+                if(candidate.getValue() < smallestCount) {
+                    smallest = candidate.getKey();
+                    smallestCount = candidate.getValue();
+                }
+            }
+            if(estimate > smallestCount) {
+                candidates.remove(smallest);
+                candidates.put(key, estimate);
+                minimum = candidates.values().stream().mapToLong(Long::longValue).min().orElse(0);
+            } else {
+                minimum = smallestCount;
+            }
+        }
+    }
+
+    /**
+     * @param k the number of keys
+     * @return the k most frequent keys with their estimated counts, most frequent first
+     */
+    List<Map.Entry<String, Long>> top(int k) {
+        return candidates.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()).thenComparing(Map.Entry.comparingByKey()))
+                .limit(k)
+                .<Map.Entry<String, Long>>map(e -> new AbstractMap.SimpleImmutableEntry<>(e.getKey(), e.getValue()))
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    void clear() {
+        sketch.clear();
+        candidates.clear();
+        minimum = 0;
+    }
+}
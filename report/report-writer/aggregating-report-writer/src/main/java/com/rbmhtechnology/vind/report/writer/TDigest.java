@@ -0,0 +1,157 @@
+package com.rbmhtechnology.vind.report.writer;
+
+import java.util.Arrays;
+
+/**
+ * A merging t-digest: estimates quantiles of a stream of values from a bounded number of weighted centroids.
+ * Values are buffered and merged into the centroids in sorted order; centroids near the tails are kept small,
+ * so extreme quantiles are accurate. The number of centroids is bounded by about the compression. Not
+ * thread-safe.
+ */
+class TDigest {
+
+    private final double compression;
+
+    private double[] means = new double[0];
+    private double[] weights = new double[0];
+    private int centroids = 0;
+
+    private final double[] bufferedValues;
+    private final double[] bufferedWeights;
+    private int buffered = 0;
+
+    private double count = 0;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * @param compression the accuracy, 100 is a common choice
+     */
+    TDigest(double compression) {
+        this.compression = compression;
+        final int size = (int) Math.ceil(compression) * 5;
+        this.bufferedValues = new double[size];
+        this.bufferedWeights = new double[size];
+    }
+
+    void add(double value, double weight) {
+        if(buffered == bufferedValues.length) {
+            merge();
+        }
+        bufferedValues[buffered] = value;
+        bufferedWeights[buffered] = weight;
+        buffered++;
+        count += weight;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    private void merge() {
+        if(buffered == 0) {
+            return;
+        }
+        sortBuffer();
+
+        final double[] mergedMeans = new double[centroids + buffered];
+        final double[] mergedWeights = new double[centroids + buffered];
+        int merged = -1;
+        double mergedWeight = 0;
+
+        int i = 0, j = 0;
+        while(i < centroids || j < buffered) {
+            final double mean, weight;
+            if(j >= buffered || (i < centroids && means[i] <= bufferedValues[j])) {
+                mean = means[i];
+                weight = weights[i++];
+            } else {
+                mean = bufferedValues[j];
+                weight = bufferedWeights[j++];
+            }
+            if(merged >= 0) {
+                final double q0 = (mergedWeight - mergedWeights[merged]) / count;
+                final double q2 = (mergedWeight + weight) / count;
+                //the size of a centroid is limited by the scale function k(q)
+                if(scale(q2) - scale(q0) <= 1) {
+                    mergedWeights[merged] += weight;
+                    mergedMeans[merged] += (mean - mergedMeans[merged]) * weight / mergedWeights[merged];
+                    mergedWeight += weight;
+                    continue;
+                }
+            }
+            merged++;
+            mergedMeans[merged] = mean;
+            mergedWeights[merged] = weight;
+            mergedWeight += weight;
+        }
+
+        centroids = merged + 1;
+        means = mergedMeans;
+        weights = mergedWeights;
+        buffered = 0;
+    }
+
+    private double scale(double q) {
+        return compression / (2 * Math.PI) * Math.asin(2 * Math.min(1, q) - 1);
+    }
+
+    private void sortBuffer() {
+        //sorts the values together with their weights
+        final Integer[] order = new Integer[buffered];
+        for(int i = 0; i < buffered; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(bufferedValues[a], bufferedValues[b]));
+        final double[] values = new double[buffered];
+        final double[] valueWeights = new double[buffered];
+        for(int i = 0; i < buffered; i++) {
+            values[i] = bufferedValues[order[i]];
+            valueWeights[i] = bufferedWeights[order[i]];
+        }
+        System.arraycopy(values, 0, bufferedValues, 0, buffered);
+        System.arraycopy(valueWeights, 0, bufferedWeights, 0, buffered);
+    }
+
+    /**
+     * @param q the quantile between 0 and 1
+     * @return the estimated value of the quantile, or NaN if no values were added
+     */
+    double quantile(double q) {
+        merge();
+        if(centroids == 0) {
+            return Double.NaN;
+        }
+        if(centroids == 1) {
+            return means[0];
+        }
+        final double target = q * count;
+
+        //below the center of the first centroid, interpolate from the minimum
+        if(target < weights[0] / 2) {
+            return min + (means[0] - min) * target / (weights[0] / 2);
+        }
+        double cumulative = weights[0] / 2;
+        for(int i = 0; i < centroids - 1; i++) {
+            final double distance = (weights[i] + weights[i + 1]) / 2;
+            if(cumulative + distance > target) {
+                return means[i] + (means[i + 1] - means[i]) * (target - cumulative) / distance;
+            }
+            cumulative += distance;
+        }
+        //above the center of the last centroid, interpolate to the maximum
+        final double last = weights[centroids - 1] / 2;
+        return Math.min(max, means[centroids - 1] + (max - means[centroids - 1]) * (target - cumulative) / last);
+    }
+
+    double getCount() {
+        return count;
+    }
+
+    double getMax() {
+        return count > 0 ? max : Double.NaN;
+    }
+
+    int getCentroids() {
+        merge();
+        return centroids;
+    }
+}
@@ -0,0 +1,82 @@
+package com.rbmhtechnology.vind.report.writer;
+
+import com.rbmhtechnology.vind.api.query.Search;
+import com.rbmhtechnology.vind.model.DocumentFactory;
+import com.rbmhtechnology.vind.model.DocumentFactoryBuilder;
+import com.rbmhtechnology.vind.model.FieldDescriptorBuilder;
+import com.rbmhtechnology.vind.model.SingleValueFieldDescriptor;
+import com.rbmhtechnology.vind.report.ReportingSearchServer;
+import com.rbmhtechnology.vind.report.model.application.SimpleApplication;
+import com.rbmhtechnology.vind.report.model.session.SimpleSession;
+import com.rbmhtechnology.vind.test.SearchTestcase;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.rbmhtechnology.vind.api.query.filter.Filter.and;
+import static com.rbmhtechnology.vind.api.query.filter.Filter.eq;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AggregatingReportWriterTest extends SearchTestcase {
+
+    @Test
+    public void testAggregation() {
+        final List<AggregationSnapshot> published = new ArrayList<>();
+        final AggregatingReportWriter writer = new AggregatingReportWriter(Duration.ZERO, 3, 2, published::add);
+
+        final SingleValueFieldDescriptor.TextFieldDescriptor<String> title = new FieldDescriptorBuilder<String>()
+                .setFullText(true)
+                .setFacet(true)
+                .buildTextField("title");
+        final SingleValueFieldDescriptor.TextFieldDescriptor<String> category = new FieldDescriptorBuilder<String>()
+                .setFacet(true)
+                .buildTextField("category");
+        final DocumentFactory factory = new DocumentFactoryBuilder("asset").addField(title, category).build();
+
+        final ReportingSearchServer server = new ReportingSearchServer(testSearchServer.getSearchServer(), new SimpleApplication("app"), new SimpleSession("s"), writer);
+        server.index(factory.createDoc("1").setValue(title, "hello world").setValue(category, "greeting"));
+        server.commit();
+
+        for(int i = 0; i < 5; i++) {
+            server.execute(Search.fulltext("hello").filter(and(eq(category, "greeting"), eq(title, "hello world"))).facet(category), factory);
+        }
+        for(int i = 0; i < 3; i++) {
+            server.execute(Search.fulltext("missing").filter(eq(category, "greeting")), factory);
+        }
+        server.execute(Search.fulltext("world"), factory);
+
+        final AggregationSnapshot current = writer.getCurrent();
+        assertEquals(9, current.getCount());
+        assertEquals("hello", current.getTopQueries().get(0).getValue());
+        assertEquals(5, current.getTopQueries().get(0).getCount());
+        assertEquals(3, current.getTopQueries().size());
+        assertEquals(1, current.getTopZeroResultQueries().size());
+        assertEquals("missing", current.getTopZeroResultQueries().get(0).getValue());
+        assertEquals("category", current.getTopFilters().get(0).getValue());
+        assertEquals(8, current.getTopFilters().get(0).getCount());
+        assertEquals(5, current.getTopFacets().get(0).getCount());
+        assertEquals(9, current.getLatencies().get("app").getCount());
+        assertTrue(current.getLatencies().get("app").getP99() <= current.getLatencies().get("app").getMax());
+
+        final AggregationSnapshot first = writer.rotate();
+        assertEquals(9, first.getCount());
+        assertEquals(0, writer.getCurrent().getCount());
+
+        server.execute(Search.fulltext("world"), factory);
+        writer.rotate();
+        writer.rotate();
+
+        //the history is bounded
+        assertEquals(2, writer.getSnapshots().size());
+        assertEquals(0, writer.getSnapshots().get(0).getCount());
+        assertEquals(1, writer.getSnapshots().get(1).getCount());
+        assertEquals(3, published.size());
+
+        //empty windows are not published on close
+        writer.close();
+        assertEquals(3, published.size());
+    }
+}
@@ -0,0 +1,83 @@
+package com.rbmhtechnology.vind.report.writer;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SketchTest {
+
+    @Test
+    public void testCountMinSketch() {
+        final CountMinSketch sketch = new CountMinSketch(1024, 4);
+        for(int i = 0; i < 10000; i++) {
+            sketch.add("key-" + (i % 1000), 1);
+        }
+        sketch.add("heavy", 500);
+
+        for(int i = 0; i < 1000; i++) {
+            final long estimate = sketch.estimate("key-" + i);
+            //never underestimates, overestimates by at most e/w of the total with high probability
+            assertTrue(estimate >= 10);
+            assertTrue(estimate <= 10 + 2.72 * 10500 / 1024);
+        }
+        assertTrue(sketch.estimate("heavy") >= 500);
+
+        sketch.clear();
+        assertEquals(0, sketch.estimate("heavy"));
+
+        //keys with the same string hash code are counted separately
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        sketch.add("Aa", 100);
+        assertEquals(0, sketch.estimate("BB"));
+    }
+
+    @Test
+    public void testHeavyHitters() {
+        final HeavyHitters hitters = new HeavyHitters(20, 1024, 4);
+
+        //zipf like distribution: key i occurs ~ 1/i times, shuffled
+        final List<String> stream = new ArrayList<>();
+        for(int i = 1; i <= 2000; i++) {
+            for(int j = 0; j < 10000 / i; j++) {
+                stream.add("q" + i);
+            }
+        }
+        Collections.shuffle(stream, new Random(42));
+        stream.forEach(key -> hitters.add(key, 1));
+
+        final List<String> top = hitters.top(5).stream().map(Map.Entry::getKey).collect(Collectors.toList());
+        assertEquals(Arrays.asList("q1", "q2", "q3", "q4", "q5"), top);
+        assertEquals(10000, hitters.top(1).get(0).getValue(), 50);
+    }
+
+    @Test
+    public void testTDigest() {
+        final TDigest digest = new TDigest(100);
+        assertTrue(Double.isNaN(digest.quantile(.5)));
+
+        final Random random = new Random(7);
+        final double[] values = new double[100000];
+        for(int i = 0; i < values.length; i++) {
+            values[i] = random.nextDouble() * 1000;
+            digest.add(values[i], 1);
+        }
+        Arrays.sort(values);
+
+        for(double q : new double[]{.01, .1, .5, .9, .99, .999}) {
+            final double expected = values[(int) (q * values.length)];
+            assertEquals("quantile " + q, expected, digest.quantile(q), 1000 * 0.01);
+        }
+        assertTrue(digest.getCentroids() <= 200);
+        assertEquals(values[values.length - 1], digest.getMax(), 0);
+        assertEquals(100000, digest.getCount(), 0);
+    }
+}
@@ -0,0 +1,242 @@
+package com.rbmhtechnology.vind.report.writer;
+
+import com.rbmhtechnology.vind.configure.SearchConfiguration;
+import com.rbmhtechnology.vind.report.logger.Log;
+import com.rbmhtechnology.vind.report.logger.ReportWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes report entries as newline delimited JSON to rolling segment files. A segment is written as
+ * {@code <prefix>-<timestamp>-<sequence>.ndjson[.gz].inprogress} and atomically renamed to its final name when
+ * it is rolled, i.e. when it exceeds the maximum (uncompressed) size or age, or when the writer is closed. A
+ * shipping agent thus only has to pick up files not ending with {@code .inprogress}. The age of a segment is
+ * only checked when entries are written.
+ * <p>
+ * When to force segments to the storage device is configured by the {@link FsyncPolicy}.
+ */
+public class FileReportWriter extends ReportWriter {
+
+    public static final String REPORTING_FILE_DIRECTORY = "reporting.file.directory";
+    public static final String REPORTING_FILE_PREFIX = "reporting.file.prefix";
+    public static final String REPORTING_FILE_MAX_SIZE = "reporting.file.maxSize";
+    public static final String REPORTING_FILE_MAX_AGE = "reporting.file.maxAge";
+    public static final String REPORTING_FILE_COMPRESS = "reporting.file.compress";
+    public static final String REPORTING_FILE_FSYNC = "reporting.file.fsync";
+
+    public static final String EXTENSION = ".ndjson";
+    public static final String COMPRESSED_EXTENSION = ".ndjson.gz";
+    public static final String IN_PROGRESS_EXTENSION = ".inprogress";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final byte NEWLINE = '\n';
+    private static final DateTimeFormatter SEGMENT_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss").withZone(ZoneOffset.UTC);
+
+    public enum FsyncPolicy {
+        /** leave flushing to the operating system */
+        NEVER,
+        /** force a segment when it is rolled */
+        ROLL,
+        /** force the segment after each written batch */
+        BATCH
+    }
+
+    private final Logger log = LoggerFactory.getLogger(FileReportWriter.class);
+
+    private final Path directory;
+    private final String prefix;
+    private final long maxSize;
+    private final long maxAge;
+    private final boolean compress;
+    private final FsyncPolicy fsync;
+
+    private Segment segment;
+    private long sequence = 0;
+    private boolean closed = false;
+
+    /**
+     * Creates a writer configured by the {@code reporting.file.*} properties.
+     */
+    public FileReportWriter() {
+        this(Paths.get(SearchConfiguration.get(REPORTING_FILE_DIRECTORY, "reports")),
+                SearchConfiguration.get(REPORTING_FILE_PREFIX, "report"),
+                SearchConfiguration.get(REPORTING_FILE_MAX_SIZE, 64 * 1024 * 1024),
+                Duration.ofMillis(SearchConfiguration.get(REPORTING_FILE_MAX_AGE, 60 * 60 * 1000)),
+                SearchConfiguration.get(REPORTING_FILE_COMPRESS, true),
+                FsyncPolicy.valueOf(SearchConfiguration.get(REPORTING_FILE_FSYNC, FsyncPolicy.ROLL.name()).toUpperCase()));
+    }
+
+    /**
+     * @param directory the directory of the segments, created if it does not exist
+     * @param prefix the file name prefix of the segments
+     * @param maxSize the uncompressed size in bytes after which a segment is rolled
+     * @param maxAge the age after which a segment is rolled
+     * @param compress whether segments are gzip compressed
+     * @param fsync when segments are forced to the storage device
+     */
+    public FileReportWriter(Path directory, String prefix, long maxSize, Duration maxAge, boolean compress, FsyncPolicy fsync) {
+        this.directory = directory;
+        this.prefix = prefix;
+        this.maxSize = maxSize;
+        this.maxAge = maxAge.toMillis();
+        this.compress = compress;
+        this.fsync = fsync;
+
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not create report directory " + directory, e);
+        }
+
+        try (DirectoryStream<Path> stale = Files.newDirectoryStream(directory, prefix + "-*" + IN_PROGRESS_EXTENSION)) {
+            for(Path path : stale) {
+                log.warn("Found report segment {} left in progress, it may be incomplete", path);
+            }
+        } catch (IOException e) {
+            log.warn("Could not list report directory {}: {}", directory, e.getMessage());
+        }
+    }
+
+    @Override
+    public void log(Log log) {
+        log(Collections.singletonList(log));
+    }
+
+    @Override
+    public synchronized void log(List<Log> logs) {
+        if(closed) {
+            throw new IllegalStateException("Report writer is closed");
+        }
+        try {
+            for(Log entry : logs) {
+                if(segment == null) {
+                    segment = new Segment(++sequence);
+                }
+                entry.writeJson(segment.out);
+                segment.out.write(NEWLINE);
+
+                if(segment.out.count >= maxSize || segment.age() >= maxAge) {
+                    roll();
+                }
+            }
+            if(segment != null && fsync == FsyncPolicy.BATCH) {
+                segment.force();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not write report entries to " + directory, e);
+        }
+    }
+
+    /**
+     * Completes the current segment and hands it off, even if it is neither full nor expired.
+     */
+    public synchronized void roll() {
+        if(segment == null) return;
+        final Segment completed = segment;
+        segment = null;
+        try {
+            completed.complete();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not complete report segment " + completed.path, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if(closed) return;
+        closed = true;
+        roll();
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    private class Segment {
+
+        private final Path path;
+        private final Path target;
+        private final FileChannel channel;
+        private final GZIPOutputStream gzip;
+        private final CountingOutputStream out;
+        private final long created = System.currentTimeMillis();
+
+        private Segment(long sequence) throws IOException {
+            final String name = String.format("%s-%s-%06d%s", prefix, SEGMENT_TIMESTAMP.format(Instant.ofEpochMilli(created)), sequence,
+                    compress ? COMPRESSED_EXTENSION : EXTENSION);
+            this.target = directory.resolve(name);
+            this.path = directory.resolve(name + IN_PROGRESS_EXTENSION);
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+
+            final OutputStream file = Channels.newOutputStream(channel);
+            //the gzip stream is flushed with sync flush if batches are forced, so forced data is decompressible
+            this.gzip = compress ? new GZIPOutputStream(file, BUFFER_SIZE, fsync == FsyncPolicy.BATCH) : null;
+            this.out = new CountingOutputStream(new BufferedOutputStream(compress ? gzip : file, BUFFER_SIZE));
+        }
+
+        private long age() {
+            return System.currentTimeMillis() - created;
+        }
+
+        private void force() throws IOException {
+            out.flush();
+            channel.force(false);
+        }
+
+        private void complete() throws IOException {
+            out.flush();
+            if(gzip != null) {
+                gzip.finish();
+            }
+            if(fsync != FsyncPolicy.NEVER) {
+                channel.force(false);
+            }
+            channel.close();
+            Files.move(path, target, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    /**
+     * counts the uncompressed bytes written to a segment
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        private long count = 0;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.rbmhtechnology.vind.report.writer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rbmhtechnology.vind.report.logger.Log;
+import com.rbmhtechnology.vind.report.model.application.SimpleApplication;
+import com.rbmhtechnology.vind.report.model.interaction.SelectInteraction;
+import com.rbmhtechnology.vind.report.model.session.SimpleSession;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FileReportWriterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRollingSegments() throws Exception {
+        final Path directory = folder.getRoot().toPath().resolve("reports");
+        final FileReportWriter writer = new FileReportWriter(directory, "test", 1024, Duration.ofHours(1), true, FileReportWriter.FsyncPolicy.BATCH);
+
+        final List<Log> batch = new ArrayList<>();
+        for(int i = 0; i < 100; i++) {
+            batch.add(new Log(new SimpleApplication("app"), new SelectInteraction("doc-" + i), ZonedDateTime.now(), new SimpleSession("s")));
+        }
+        writer.log(batch.subList(0, 50));
+        for(Log log : batch.subList(50, 100)) {
+            writer.log(log);
+        }
+
+        //the current segment is still in progress
+        assertEquals(1, list(directory).stream().filter(p -> p.toString().endsWith(FileReportWriter.IN_PROGRESS_EXTENSION)).count());
+
+        writer.close();
+
+        final List<Path> segments = list(directory);
+        assertTrue(segments.size() > 1);
+        assertTrue(segments.stream().allMatch(p -> p.toString().endsWith(FileReportWriter.COMPRESSED_EXTENSION)));
+
+        final ObjectMapper mapper = new ObjectMapper();
+        final Set<String> ids = new HashSet<>();
+        for(Path segment : segments) {
+            try(BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(Files.newInputStream(segment)), StandardCharsets.UTF_8))) {
+                String line;
+                while((line = reader.readLine()) != null) {
+                    final JsonNode node = mapper.readTree(line);
+                    assertEquals("app", node.get("application").get("id").asText());
+                    ids.add(node.get("request").get("id").asText());
+                }
+            }
+        }
+        assertEquals(100, ids.size());
+    }
+
+    @Test
+    public void testUncompressedSegment() throws Exception {
+        final Path directory = folder.getRoot().toPath();
+        final FileReportWriter writer = new FileReportWriter(directory, "test", Long.MAX_VALUE, Duration.ofHours(1), false, FileReportWriter.FsyncPolicy.NEVER);
+
+        writer.log(new Log(new SimpleApplication("app"), new SelectInteraction("doc"), ZonedDateTime.now(), new SimpleSession("s")));
+        writer.close();
+
+        final List<Path> segments = list(directory);
+        assertEquals(1, segments.size());
+        assertTrue(segments.get(0).toString().endsWith(FileReportWriter.EXTENSION));
+        assertEquals(1, Files.readAllLines(segments.get(0), StandardCharsets.UTF_8).size());
+    }
+
+    private static List<Path> list(Path directory) throws Exception {
+        return Files.list(directory).sorted().collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,325 @@
+package com.rbmhtechnology.vind.report.writer;
+
+import com.rbmhtechnology.vind.api.Document;
+import com.rbmhtechnology.vind.api.SearchServer;
+import com.rbmhtechnology.vind.configure.SearchConfiguration;
+import com.rbmhtechnology.vind.model.DocumentFactory;
+import com.rbmhtechnology.vind.model.DocumentFactoryBuilder;
+import com.rbmhtechnology.vind.model.FieldDescriptor;
+import com.rbmhtechnology.vind.model.FieldDescriptorBuilder;
+import com.rbmhtechnology.vind.model.SingleValueFieldDescriptor;
+import com.rbmhtechnology.vind.report.logger.Log;
+import com.rbmhtechnology.vind.report.logger.ReportWriter;
+import com.rbmhtechnology.vind.report.model.application.InterfaceApplication;
+import com.rbmhtechnology.vind.report.model.application.SimpleApplication;
+import com.rbmhtechnology.vind.report.model.interaction.Interaction;
+import com.rbmhtechnology.vind.report.model.request.SearchRequest;
+import com.rbmhtechnology.vind.report.model.response.Response;
+import com.rbmhtechnology.vind.report.model.session.SimpleSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stores report entries as documents of the {@link #FACTORY report type} in a (separate) collection, so
+ * reporting dashboards can be built on Vind searches and facets. Entries are converted to documents on logging
+ * and buffered locally; the buffer is indexed in bulk when it reaches the batch size and periodically by a
+ * background thread, as well as when the writer is closed. Indexed entries only become searchable with the next
+ * commit, which is either left to the server configuration or done after each flush.
+ */
+public class IndexReportWriter extends ReportWriter {
+
+    public static final String REPORTING_INDEX_COLLECTION = "reporting.index.collection";
+    public static final String REPORTING_INDEX_BATCH_SIZE = "reporting.index.batchSize";
+    public static final String REPORTING_INDEX_FLUSH_INTERVAL = "reporting.index.flushInterval";
+    public static final String REPORTING_INDEX_COMMIT = "reporting.index.commit";
+
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    public static final int DEFAULT_FLUSH_INTERVAL = 5000;
+
+    public static final SingleValueFieldDescriptor.TextFieldDescriptor<String> APPLICATION = new FieldDescriptorBuilder<String>()
+            .setFacet(true)
+            .buildTextField("application");
+
+    public static final SingleValueFieldDescriptor.TextFieldDescriptor<String> TYPE = new FieldDescriptorBuilder<String>()
+            .setFacet(true)
+            .buildTextField("type");
+
+    public static final SingleValueFieldDescriptor.TextFieldDescriptor<String> SESSION = new FieldDescriptorBuilder<String>()
+            .setFacet(true)
+            .buildTextField("session");
+
+    public static final SingleValueFieldDescriptor.TextFieldDescriptor<String> SOURCE = new FieldDescriptorBuilder<String>()
+            .setFacet(true)
+            .buildTextField("source");
+
+    public static final SingleValueFieldDescriptor.TextFieldDescriptor<String> QUERY = new FieldDescriptorBuilder<String>()
+            .setFullText(true)
+            .setFacet(true)
+            .buildTextField("query");
+
+    public static final SingleValueFieldDescriptor.TextFieldDescriptor<String> ACTION = new FieldDescriptorBuilder<String>()
+            .setFacet(true)
+            .buildTextField("action");
+
+    public static final SingleValueFieldDescriptor.DateFieldDescriptor<ZonedDateTime> TIMESTAMP = new FieldDescriptorBuilder<ZonedDateTime>()
+            .setFacet(true)
+            .buildDateField("timestamp");
+
+    public static final SingleValueFieldDescriptor.NumericFieldDescriptor<Long> RESULTS = new FieldDescriptorBuilder<Long>()
+            .setFacet(true)
+            .buildNumericField("results", Long.class);
+
+    public static final SingleValueFieldDescriptor.NumericFieldDescriptor<Long> QUERY_TIME = new FieldDescriptorBuilder<Long>()
+            .setFacet(true)
+            .buildNumericField("queryTime", Long.class);
+
+    public static final DocumentFactory FACTORY = new DocumentFactoryBuilder("report")
+            .addField(APPLICATION, TYPE, SESSION, SOURCE, QUERY, ACTION, TIMESTAMP, RESULTS, QUERY_TIME)
+            .build();
+
+    private final Logger log = LoggerFactory.getLogger(IndexReportWriter.class);
+
+    private final SearchServer server;
+    private final boolean closeServer;
+    private final int batchSize;
+    private final boolean commit;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final AtomicLong indexed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private List<Document> buffer;
+    private boolean closed = false;
+
+    /**
+     * Creates a writer configured by the {@code reporting.index.*} properties, indexing to a server for the
+     * collection {@link #REPORTING_INDEX_COLLECTION}, which has to be set so report entries do not end up in the
+     * collection of the application.
+     * @throws IllegalStateException if {@link #REPORTING_INDEX_COLLECTION} is not set
+     */
+    public IndexReportWriter() {
+        this(createSearchServer(),
+                SearchConfiguration.get(REPORTING_INDEX_BATCH_SIZE, DEFAULT_BATCH_SIZE),
+                Duration.ofMillis(SearchConfiguration.get(REPORTING_INDEX_FLUSH_INTERVAL, DEFAULT_FLUSH_INTERVAL)),
+                SearchConfiguration.get(REPORTING_INDEX_COMMIT, false),
+                true);
+    }
+
+    /**
+     * @param server the server of the reporting collection, not closed by the writer
+     * @param batchSize the number of buffered entries which triggers indexing
+     * @param flushInterval the interval in which buffered entries are indexed, not flushed periodically if zero
+     * @param commit whether to commit after each flush
+     */
+    public IndexReportWriter(SearchServer server, int batchSize, Duration flushInterval, boolean commit) {
+        this(server, batchSize, flushInterval, commit, false);
+    }
+
+    private IndexReportWriter(SearchServer server, int batchSize, Duration flushInterval, boolean commit, boolean closeServer) {
+        if(batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive, actually got: " + batchSize);
+        }
+        this.server = server;
+        this.batchSize = batchSize;
+        this.commit = commit;
+        this.closeServer = closeServer;
+        this.buffer = new ArrayList<>(batchSize);
+
+        if(flushInterval.isZero() || flushInterval.isNegative()) {
+            this.scheduler = null;
+        } else {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                final Thread thread = new Thread(r, "vind-report-index");
+                thread.setDaemon(true);
+                return thread;
+            });
+            final long interval = flushInterval.toMillis();
+            this.scheduler.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static SearchServer createSearchServer() {
+        final String collection = SearchConfiguration.get(REPORTING_INDEX_COLLECTION);
+        if(collection == null) {
+            throw new IllegalStateException(REPORTING_INDEX_COLLECTION + " has to be set");
+        }
+        //the collection is only changed to create the server, so always restore the previous one
+        synchronized (SearchConfiguration.class) {
+            final String defaultCollection = SearchConfiguration.get(SearchConfiguration.SERVER_COLLECTION);
+            try {
+                return SearchServer.getInstance(collection);
+            } finally {
+                if(defaultCollection != null) {
+                    SearchConfiguration.set(SearchConfiguration.SERVER_COLLECTION, defaultCollection);
+                } else {
+                    SearchConfiguration.remove(SearchConfiguration.SERVER_COLLECTION);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void log(Log log) {
+        final Document document = toDocument(log);
+        final boolean full;
+        synchronized (this) {
+            if(closed) {
+                throw new IllegalStateException("Report writer is closed");
+            }
+            buffer.add(document);
+            full = buffer.size() >= batchSize;
+        }
+        if(full) {
+            flush();
+        }
+    }
+
+    @Override
+    public void log(List<Log> logs) {
+        final List<Document> documents = new ArrayList<>(logs.size());
+        logs.forEach(log -> documents.add(toDocument(log)));
+        final boolean full;
+        synchronized (this) {
+            if(closed) {
+                throw new IllegalStateException("Report writer is closed");
+            }
+            buffer.addAll(documents);
+            full = buffer.size() >= batchSize;
+        }
+        if(full) {
+            flush();
+        }
+    }
+
+    /**
+     * Indexes the buffered entries. Entries which cannot be indexed are dropped and counted as failed.
+     */
+    public void flush() {
+        final List<Document> documents;
+        synchronized (this) {
+            if(buffer.isEmpty()) {
+                return;
+            }
+            documents = buffer;
+            buffer = new ArrayList<>(batchSize);
+        }
+        try {
+            server.index(documents);
+            if(commit) {
+                server.commit();
+            }
+            indexed.addAndGet(documents.size());
+        } catch (Exception e) {
+            failed.addAndGet(documents.size());
+            log.warn("Could not index {} report entries: {}", documents.size(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Indexes and commits the buffered entries.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if(closed) return;
+            closed = true;
+        }
+        if(scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                log.warn("Got interrupted while waiting for the report index flush.", e);
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+        try {
+            server.commit();
+        } catch (Exception e) {
+            log.warn("Could not commit report entries: {}", e.getMessage(), e);
+        }
+        if(closeServer) {
+            server.close();
+        }
+    }
+
+    /**
+     * Converts a report entry to a document of the {@link #FACTORY report type}.
+     * @param log the report entry
+     * @return the document
+     */
+    public static Document toDocument(Log log) {
+        final Map<String,Object> values = log.getValues();
+        final Document document = FACTORY.createDoc(UUID.randomUUID().toString());
+
+        setValue(document, TIMESTAMP, log.getTimestamp());
+        setValue(document, TYPE, (String) values.get("type"));
+
+        final Object application = values.get("application");
+        if(application instanceof SimpleApplication) {
+            setValue(document, APPLICATION, ((SimpleApplication) application).getId());
+        } else if(application instanceof InterfaceApplication) {
+            setValue(document, APPLICATION, ((InterfaceApplication) application).getName());
+        }
+
+        final Object session = values.get("session");
+        if(session instanceof SimpleSession) {
+            setValue(document, SESSION, ((SimpleSession) session).getSessionId());
+        }
+
+        final Object request = values.get("request");
+        if(request instanceof SearchRequest) {
+            setValue(document, QUERY, ((SearchRequest) request).getQuery());
+            setValue(document, SOURCE, ((SearchRequest) request).getSource());
+        } else if(request instanceof Interaction) {
+            setValue(document, ACTION, ((Interaction) request).getType());
+        }
+
+        final Object response = values.get("response");
+        if(response instanceof Response) {
+            setValue(document, RESULTS, ((Response) response).getResults());
+            setValue(document, QUERY_TIME, ((Response) response).getQueryTime());
+        }
+        return document;
+    }
+
+    private static <T> void setValue(Document document, FieldDescriptor<T> field, T value) {
+        if(value != null) {
+            document.setValue(field, value);
+        }
+    }
+
+    /**
+     * @return the number of indexed entries
+     */
+    public long getIndexed() {
+        return indexed.get();
+    }
+
+    /**
+     * @return the number of entries which could not be indexed
+     */
+    public long getFailed() {
+        return failed.get();
+    }
+
+    /**
+     * @return the number of buffered entries not yet indexed
+     */
+    public synchronized int getPending() {
+        return buffer.size();
+    }
+}
@@ -0,0 +1,94 @@
+package com.rbmhtechnology.vind.report.writer;
+
+import com.rbmhtechnology.vind.api.SearchServer;
+import com.rbmhtechnology.vind.api.query.Search;
+import com.rbmhtechnology.vind.api.result.SearchResult;
+import com.rbmhtechnology.vind.api.result.facet.FacetValue;
+import com.rbmhtechnology.vind.api.result.facet.TermFacetResult;
+import com.rbmhtechnology.vind.configure.SearchConfiguration;
+import com.rbmhtechnology.vind.model.DocumentFactory;
+import com.rbmhtechnology.vind.model.DocumentFactoryBuilder;
+import com.rbmhtechnology.vind.report.ReportingSearchServer;
+import com.rbmhtechnology.vind.report.logger.Log;
+import com.rbmhtechnology.vind.report.model.application.SimpleApplication;
+import com.rbmhtechnology.vind.report.model.interaction.SelectInteraction;
+import com.rbmhtechnology.vind.report.model.session.SimpleSession;
+import com.rbmhtechnology.vind.test.SearchTestcase;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static com.rbmhtechnology.vind.api.query.filter.Filter.eq;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class IndexReportWriterTest extends SearchTestcase {
+
+    @Test
+    public void testIndexReporting() {
+        final SearchServer server = testSearchServer.getSearchServer();
+        final IndexReportWriter writer = new IndexReportWriter(server, 2, Duration.ZERO, false);
+
+        final ReportingSearchServer reportingServer = new ReportingSearchServer(server, new SimpleApplication("app"), new SimpleSession("s1"), writer);
+        final DocumentFactory asset = new DocumentFactoryBuilder("asset").build();
+
+        reportingServer.execute(Search.fulltext("hello"), asset);
+        reportingServer.setSession(new SimpleSession("s2"));
+        reportingServer.execute(Search.fulltext("world"), asset);
+        writer.log(new Log(new SimpleApplication("app"), new SelectInteraction("doc"), ZonedDateTime.now(), new SimpleSession("s2")));
+
+        //the first batch is indexed as soon as it is full
+        assertEquals(2, writer.getIndexed());
+        assertEquals(1, writer.getPending());
+
+        writer.close();
+        assertEquals(3, writer.getIndexed());
+        assertEquals(0, writer.getFailed());
+
+        final SearchResult result = server.execute(Search.fulltext()
+                .filter(eq(IndexReportWriter.APPLICATION, "app"))
+                .facet(IndexReportWriter.TYPE, IndexReportWriter.SESSION), IndexReportWriter.FACTORY);
+        assertEquals(3, result.getNumOfResults());
+
+        assertEquals(2, count(result.getFacetResults().getTermFacet(IndexReportWriter.TYPE)).get("fulltext").longValue());
+        assertEquals(1, count(result.getFacetResults().getTermFacet(IndexReportWriter.TYPE)).get("interaction").longValue());
+        assertEquals(2, count(result.getFacetResults().getTermFacet(IndexReportWriter.SESSION)).get("s2").longValue());
+
+        final SearchResult query = server.execute(Search.fulltext("world"), IndexReportWriter.FACTORY);
+        assertEquals(1, query.getNumOfResults());
+        assertEquals(Long.valueOf(0), query.getResults().get(0).getValue(IndexReportWriter.RESULTS));
+    }
+
+    @Test
+    public void testConfiguredCollection() {
+        final String collection = SearchConfiguration.get(SearchConfiguration.SERVER_COLLECTION);
+        try {
+            SearchConfiguration.remove(IndexReportWriter.REPORTING_INDEX_COLLECTION);
+            try {
+                new IndexReportWriter();
+                fail("The reporting collection has to be set");
+            } catch (IllegalStateException e) {
+                //expected
+            }
+
+            //the collection of the application is restored, even if there was none
+            SearchConfiguration.remove(SearchConfiguration.SERVER_COLLECTION);
+            SearchConfiguration.set(IndexReportWriter.REPORTING_INDEX_COLLECTION, "report");
+            new IndexReportWriter().close();
+            assertNull(SearchConfiguration.get(SearchConfiguration.SERVER_COLLECTION));
+        } finally {
+            SearchConfiguration.remove(IndexReportWriter.REPORTING_INDEX_COLLECTION);
+            if(collection != null) {
+                SearchConfiguration.set(SearchConfiguration.SERVER_COLLECTION, collection);
+            }
+        }
+    }
+
+    private static Map<String,Long> count(TermFacetResult<String> facet) {
+        return facet.getValues().stream().collect(Collectors.toMap(FacetValue::getValue, FacetValue::getCount));
+    }
+}
@@ -15,6 +15,8 @@ public class LogReportWriter extends ReportWriter {
 
     @Override
     public void log(Log log) {
-        logger.info(log.toJson());
+        if(logger.isInfoEnabled()) {
+            logger.info(log.toJson());
+        }
     }
 }
@@ -1,5 +1,6 @@
 package com.rbmhtechnology.vind.test;
 
+import com.rbmhtechnology.vind.api.Document;
 import com.rbmhtechnology.vind.api.SearchServer;
 import com.rbmhtechnology.vind.api.query.FulltextSearch;
 import com.rbmhtechnology.vind.api.query.Search;
@@ -13,6 +14,12 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
 import static com.rbmhtechnology.vind.api.query.filter.Filter.*;
 import static org.junit.Assert.assertEquals;
 
@@ -136,6 +143,59 @@ public class ParentChildrenTest {
         assertEquals(Integer.valueOf(2),result.getResults().get(0).getChildCount());
     }
 
+    @Test
+    public void testChildCountsPerPage() {
+        final Map<String,Integer> expected = new HashMap<>();
+        expected.put("P2", 2);
+        expected.put("P3", 1);
+        expected.put("P4", 1);
+
+        //the child counts are computed for the ids of each page, they match the counts of a single page
+        for(int size : new int[]{1, 2, 4}) {
+            for(int page = 1; page <= 4 / size; page++) {
+                final SearchResult result = server.execute(Search.fulltext().orChildrenSearch(child).page(page, size), parent);
+                for(Document doc : result.getResults()) {
+                    assertEquals(doc.getId(), (long) expected.getOrDefault(doc.getId(), 0), (long) Optional.ofNullable(doc.getChildCount()).orElse(0));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testChildCountsOfLargePage() {
+        //more ids than maxBooleanClauses (1024), with characters used as separators
+        final List<Document> docs = new ArrayList<>();
+        for(int i = 0; i < 1100; i++) {
+            docs.add(parent.createDoc("P," + i + "|;").setValue(parent_value, "many")
+                    .addChild(child.createDoc("C" + i).setValue(child_value, "many")));
+        }
+        server.index(docs);
+        server.commit();
+
+        final SearchResult result = server.execute(Search.fulltext("many").orChildrenSearch(child).page(1, 1100), parent);
+        assertEquals(1100, result.getResults().size());
+        for(Document doc : result.getResults()) {
+            assertEquals(doc.getId(), Integer.valueOf(1), doc.getChildCount());
+        }
+    }
+
+    @Test
+    public void testChildCountsOfIdsWithAllSeparators() {
+        //no terms separator is free, so every id is matched on its own
+        server.index(parent.createDoc("P,|;#~^").setValue(parent_value, "separators")
+                        .addChild(child.createDoc("C1").setValue(child_value, "separators"))
+                        .addChild(child.createDoc("C2").setValue(child_value, "separators")),
+                parent.createDoc("P \\\"").setValue(parent_value, "separators")
+                        .addChild(child.createDoc("C3").setValue(child_value, "separators")));
+        server.commit();
+
+        final SearchResult result = server.execute(Search.fulltext("separators").orChildrenSearch(child), parent);
+        assertEquals(2, result.getResults().size());
+        for(Document doc : result.getResults()) {
+            assertEquals(doc.getId(), Integer.valueOf(doc.getId().startsWith("P,") ? 2 : 1), doc.getChildCount());
+        }
+    }
+
     @Test
     public void testFilterOnlyWithChildrenValue() {
         FulltextSearch search = Search.fulltext().setStrict(false).filter(eq(child_value, "red")).orChildrenSearch(child);
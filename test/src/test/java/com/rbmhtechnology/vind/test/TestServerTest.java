@@ -1,8 +1,10 @@
 package com.rbmhtechnology.vind.test;
 
 import com.rbmhtechnology.vind.annotations.language.Language;
+import com.rbmhtechnology.vind.api.CompletableSearchServer;
 import com.rbmhtechnology.vind.api.Document;
 import com.rbmhtechnology.vind.api.SearchServer;
+import com.rbmhtechnology.vind.api.SuggestionSession;
 import com.rbmhtechnology.vind.api.query.FulltextSearch;
 import com.rbmhtechnology.vind.api.query.Search;
 import com.rbmhtechnology.vind.api.query.datemath.DateMathExpression;
@@ -40,6 +42,9 @@ import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
@@ -556,6 +561,96 @@ public class TestServerTest {
     }
 
 
+    @Test
+    public void testChunkedSearchGetById() {
+        SearchServer server = testSearchServer.getSearchServer();
+
+        MultiValueFieldDescriptor<String> term = new FieldDescriptorBuilder()
+                .setFullText(true)
+                .buildMultivaluedTextField("term");
+
+        DocumentFactory factory = new DocumentFactoryBuilder("testDocFactory").addField(term).build();
+
+        server.index(factory.createDoc("1").setValue(term, "t1"));
+        server.index(factory.createDoc("2").setValue(term, "t2"));
+        server.index(factory.createDoc("3").setValue(term, "t3"));
+        server.index(factory.createDoc("4").setValue(term, "t4"));
+        server.commit();
+
+        GetResult result = server.execute(Search.getById("4", "missing", "2", "3", "1").chunkSize(2), factory);
+
+        assertEquals(4, result.getNumOfResults());
+        assertEquals("4", result.getResults().get(0).getId());
+        assertEquals("2", result.getResults().get(1).getId());
+        assertEquals("3", result.getResults().get(2).getId());
+        assertEquals("1", result.getResults().get(3).getId());
+        assertEquals(Collections.singletonList("missing"), result.getMissingIds());
+    }
+
+    @Test
+    public void testPrefetchNextPage() throws Exception {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        final CompletableSearchServer server = new CompletableSearchServer(testSearchServer.getSearchServer(), executor)
+                .setPrefetchDepth(1);
+
+        SingleValueFieldDescriptor<String> title = new FieldDescriptorBuilder()
+                .setFullText(true)
+                .buildTextField("title");
+
+        DocumentFactory factory = new DocumentFactoryBuilder("asset").addField(title).build();
+
+        server.index(factory.createDoc("1").setValue(title, "a"));
+        server.index(factory.createDoc("2").setValue(title, "b"));
+        server.index(factory.createDoc("3").setValue(title, "c"));
+        server.commit();
+
+        try {
+            final PageResult first = (PageResult) server.execute(Search.fulltext().sort(asc(title)).page(1, 2), factory);
+            assertNotNull(first.getPrefetchedNext());
+
+            final PageResult second = (PageResult) first.nextPage();
+            assertEquals(2, second.getPage());
+            assertEquals(1, second.getResults().size());
+            assertEquals("3", second.getResults().get(0).getId());
+            //last page, nothing to prefetch
+            assertNull(second.getPrefetchedNext());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testSuggestionSession() throws Exception {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        final CompletableSearchServer server = new CompletableSearchServer(testSearchServer.getSearchServer(), executor);
+
+        SingleValueFieldDescriptor<String> title = new FieldDescriptorBuilder()
+                .setFullText(true)
+                .setSuggest(true)
+                .buildTextField("title");
+
+        DocumentFactory factory = new DocumentFactoryBuilder("asset").addField(title).build();
+
+        server.index(factory.createDoc("1").setValue(title, "Hello World"));
+        server.index(factory.createDoc("2").setValue(title, "Help Desk"));
+        server.commit();
+
+        try (SuggestionSession session = server.suggestionSession(factory, Duration.ofMillis(200))) {
+            final CompletableFuture<SuggestionResult> first = session.suggest(Search.suggest("h").fields(title));
+            final CompletableFuture<SuggestionResult> second = session.suggest(Search.suggest("he").fields(title));
+            final CompletableFuture<SuggestionResult> third = session.suggest(Search.suggest("hell").fields(title));
+
+            //superseded requests are cancelled before being executed
+            assertTrue(first.isCancelled());
+            assertTrue(second.isCancelled());
+
+            final SuggestionResult result = third.get(10, TimeUnit.SECONDS);
+            assertEquals(1, result.size());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     /*
     @Test
     public void testZKConnection() {
@@ -2239,6 +2334,41 @@ public class TestServerTest {
         assertEquals(4,result.getNumOfResults());
     }
 
+    @Test
+    public void testCountAndFacets() {
+
+        final MultiValueFieldDescriptor.TextFieldDescriptor<String> category = new FieldDescriptorBuilder<String>()
+                .setFacet(true)
+                .buildMultivaluedTextField("category");
+
+        final DocumentFactory assets = new DocumentFactoryBuilder("asset")
+                .addField(category)
+                .build();
+
+        final SearchServer server = testSearchServer.getSearchServer();
+
+        server.index(assets.createDoc("1").setValues(category, Arrays.asList("news", "sports")));
+        server.index(assets.createDoc("2").setValue(category, "news"));
+        server.index(assets.createDoc("3").setValue(category, "music"));
+        server.commit();
+
+        final FulltextSearch search = Search.fulltext().filter(category.equals("news")).facet(category).page(1, 1);
+
+        assertEquals(2, server.count(search, assets));
+
+        final TermFacetResult<String> facet = server.facets(search, assets).getTermFacet(category);
+        assertEquals(2, facet.getValues().size());
+        assertEquals("news", facet.getValues().get(0).getValue());
+        assertEquals(2, facet.getValues().get(0).getCount());
+        assertEquals("sports", facet.getValues().get(1).getValue());
+        assertEquals(1, facet.getValues().get(1).getCount());
+
+        //the search is not changed
+        final SearchResult result = server.execute(search, assets);
+        assertEquals(1, result.getResults().size());
+        assertEquals(2, result.getFacetResults().getTermFacet(category).getValues().size());
+    }
+
 
 
 }